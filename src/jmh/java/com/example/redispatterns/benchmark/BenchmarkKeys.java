@@ -0,0 +1,28 @@
+package com.example.redispatterns.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 스레드마다 고정된 키 집합을 돌아가며 사용합니다 (키 하나에 몰리는 경합과 키가 계속 늘어나는 경우를 모두 피함).
+ */
+@State(Scope.Thread)
+public class BenchmarkKeys {
+
+    private static final int KEY_COUNT = 64;
+
+    private final String[] keys = new String[KEY_COUNT];
+    private int next;
+
+    public BenchmarkKeys() {
+        for (int i = 0; i < KEY_COUNT; i++) {
+            keys[i] = "bench:10.0.0." + i;
+        }
+    }
+
+    String next() {
+        String key = keys[next];
+        next = (next + 1) & (KEY_COUNT - 1);
+        return key;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.redispatterns.benchmark;
+
+import com.example.redispatterns.payment.PaymentGateway;
+import com.example.redispatterns.payment.PaymentRequest;
+import com.example.redispatterns.payment.PaymentResponse;
+import com.example.redispatterns.payment.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code PaymentService.processPayment}의 멱등성 경로입니다.
+ *
+ * 결제 처리 자체는 1초짜리 시뮬레이션이므로 측정하지 않고, Redis를 거치는 두 경로만 측정합니다.
+ * - replay: 같은 키로 다시 들어온 요청에 저장된 응답을 돌려줌
+ * - conflict: 같은 키의 요청이 처리 중이라 거절됨
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PaymentIdempotencyBenchmark {
+
+    private static final String REPLAY_KEY = "bench-replay";
+    private static final String BUSY_KEY = "bench-busy";
+
+    @Param({"binary", "json"})
+    private String codec;
+
+    private RedisStandIn redis;
+    private PaymentService paymentService;
+    private PaymentRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        redis = RedisStandIn.start();
+        RedisTemplate<String, Object> redisTemplate = redis.redisTemplate(RedisStandIn.valueSerializer(codec));
+        paymentService = new PaymentService(redisTemplate, new PaymentGateway(1000), Runnable::run,
+                new SimpleMeterRegistry(), Integer.MAX_VALUE);
+        request = new PaymentRequest("customer-1", new BigDecimal("129.99"), "CARD", "benchmark");
+
+        // 응답을 한 번 저장해 두고, 다른 요청이 처리 중인 키는 락만 잡아 둡니다
+        paymentService.processPayment(request, REPLAY_KEY);
+        redisTemplate.opsForValue().set("idem:lock:" + BUSY_KEY, "bench-holder");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        redis.close();
+    }
+
+    @Benchmark
+    public PaymentResponse replay() {
+        return paymentService.processPayment(request, REPLAY_KEY);
+    }
+
+    @Benchmark
+    public Object conflict() {
+        try {
+            return paymentService.processPayment(request, BUSY_KEY);
+        } catch (PaymentService.PaymentProcessingException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.redispatterns.benchmark;
+
+import com.example.redispatterns.payment.PaymentGateway;
+import com.example.redispatterns.payment.PaymentRequest;
+import com.example.redispatterns.payment.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시에 들어온 결제 {@code concurrency}건을 모두 끝내는 데 걸리는 시간입니다 (부하 테스트).
+ *
+ * 요청 스레드와 후처리 스레드는 각각 {@code poolSize}개이고, 결제 대행사 응답에는 {@code processingTime}이 걸립니다.
+ * - blocking: 요청마다 요청 스레드 하나가 결제가 끝날 때까지 기다림 (서블릿 스레드에서 동기 처리하던 방식)
+ *   → 시간 ≈ ceil(concurrency / poolSize) × processingTime, 처리량은 풀 크기에 묶임
+ * - async: 대기 중에는 스레드를 점유하지 않고 후처리만 풀에서 실행
+ *   → 시간 ≈ processingTime, 처리량(concurrency / 시간)은 동시 요청 수에 비례
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class PaymentThroughputBenchmark {
+
+    @Param({"blocking", "async"})
+    private String model;
+
+    @Param({"8", "64", "256"})
+    private int concurrency;
+
+    @Param({"8"})
+    private int poolSize;
+
+    @Param({"100"})
+    private long processingTime;
+
+    private RedisStandIn redis;
+    private PaymentGateway paymentGateway;
+    private ExecutorService requestThreads;
+    private ExecutorService paymentExecutor;
+    private PaymentService paymentService;
+    private PaymentRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        redis = RedisStandIn.start();
+        paymentGateway = new PaymentGateway(processingTime);
+        requestThreads = Executors.newFixedThreadPool(poolSize);
+        paymentExecutor = Executors.newFixedThreadPool(poolSize);
+        paymentService = new PaymentService(redis.redisTemplate(RedisStandIn.valueSerializer("binary")),
+                paymentGateway, paymentExecutor, new SimpleMeterRegistry(), Integer.MAX_VALUE);
+        request = new PaymentRequest("customer-1", new BigDecimal("129.99"), "CARD", "load test");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        requestThreads.shutdownNow();
+        paymentExecutor.shutdownNow();
+        paymentGateway.destroy();
+        redis.close();
+    }
+
+    @Benchmark
+    public Object payments() {
+        CompletableFuture<?>[] payments = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            String idempotencyKey = UUID.randomUUID().toString();
+            payments[i] = "async".equals(model)
+                    ? paymentService.processPaymentAsync(request, idempotencyKey)
+                    : CompletableFuture.supplyAsync(() -> paymentService.processPayment(request, idempotencyKey), requestThreads);
+        }
+        return CompletableFuture.allOf(payments).join();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.redispatterns.benchmark;
+
+import com.example.redispatterns.ratelimit.CoalescingRateLimiter;
+import com.example.redispatterns.ratelimit.ConcurrencyLimitService;
+import com.example.redispatterns.ratelimit.HeavyHitterDetector;
+import com.example.redispatterns.ratelimit.HybridRateLimiter;
+import com.example.redispatterns.ratelimit.LocalFallbackRateLimiter;
+import com.example.redispatterns.ratelimit.RateLimitCircuitBreaker;
+import com.example.redispatterns.ratelimit.RateLimitService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * application.yml 기본값으로 속도 제한 빈들을 직접 조립합니다 (스프링 컨텍스트 없이).
+ */
+final class RateLimitFixture implements AutoCloseable {
+
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final RateLimitCircuitBreaker circuitBreaker;
+    final HybridRateLimiter hybridRateLimiter;
+    final CoalescingRateLimiter coalescingRateLimiter;
+    final RateLimitService rateLimitService;
+    final ConcurrencyLimitService concurrencyLimitService;
+    final HeavyHitterDetector heavyHitterDetector;
+
+    RateLimitFixture(RedisStandIn redis) {
+        StringRedisTemplate stringRedisTemplate = redis.stringRedisTemplate();
+        this.circuitBreaker = new RateLimitCircuitBreaker(meterRegistry, 50, 50, 20, 10, 5000, 5, 5000);
+        this.hybridRateLimiter = new HybridRateLimiter(stringRedisTemplate, meterRegistry, circuitBreaker, 10, 1000);
+        this.coalescingRateLimiter = new CoalescingRateLimiter(redis.connectionFactory(), meterRegistry, 1, 256, 100);
+        this.rateLimitService = new RateLimitService(redis.redisTemplate(RedisStandIn.valueSerializer("binary")),
+                hybridRateLimiter, coalescingRateLimiter, circuitBreaker, new LocalFallbackRateLimiter(1), meterRegistry);
+        this.concurrencyLimitService = new ConcurrencyLimitService(stringRedisTemplate, circuitBreaker, meterRegistry, 30000, 1);
+        this.heavyHitterDetector = new HeavyHitterDetector(stringRedisTemplate, meterRegistry,
+                true, 100, 60000, false, 10000, 60000);
+    }
+
+    @Override
+    public void close() {
+        hybridRateLimiter.destroy();
+        coalescingRateLimiter.destroy();
+    }
+}
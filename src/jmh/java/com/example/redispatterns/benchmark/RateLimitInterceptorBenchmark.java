@@ -0,0 +1,100 @@
+package com.example.redispatterns.benchmark;
+
+import com.example.redispatterns.config.RateLimitProperties;
+import com.example.redispatterns.ratelimit.RateLimitAlgorithmType;
+import com.example.redispatterns.ratelimit.RateLimitInterceptor;
+import com.example.redispatterns.ratelimit.RateLimitKeyType;
+import com.example.redispatterns.ratelimit.RateLimitMode;
+import com.example.redispatterns.ratelimit.RateLimitPolicy;
+import com.example.redispatterns.ratelimit.RateLimitPolicyRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code RateLimitInterceptor.preHandle}의 정책 조회와 키 생성 비용입니다.
+ *
+ * - buildKey: 정책 매칭 → 식별자 추출 → 버킷 키/한도 계산 (Redis 호출 전까지)
+ * - preHandle: heavy hitter 집계와 HYBRID 판정까지 포함한 전체 경로 (대부분 로컬 버킷에서 끝남)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RateLimitInterceptorBenchmark {
+
+    private static final String PATH = "/payments/3f2c9a";
+    private static final String API_KEY = "tenant-42";
+
+    private RedisStandIn redis;
+    private RateLimitFixture fixture;
+    private RateLimitPolicyRegistry policyRegistry;
+    private RateLimitInterceptor interceptor;
+    private MockHttpServletRequest keyRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        redis = RedisStandIn.start();
+        fixture = new RateLimitFixture(redis);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getPolicies().add(policy("admin", "/admin/**", RateLimitKeyType.IP));
+        properties.getPolicies().add(policy("products", "/products/**", RateLimitKeyType.IP));
+        properties.getPolicies().add(policy("orders", "/orders/**", RateLimitKeyType.CUSTOMER_ID));
+        RateLimitProperties.Policy payments = policy("payments", "/payments/**", RateLimitKeyType.API_KEY);
+        payments.setTenantLimits(Map.of(RateLimitKeyType.hash(API_KEY), 2_000_000));
+        properties.getPolicies().add(payments);
+
+        policyRegistry = new RateLimitPolicyRegistry(properties, redis.stringRedisTemplate(), new ObjectMapper(),
+                false, "rl:policies");
+        interceptor = new RateLimitInterceptor(fixture.rateLimitService, fixture.concurrencyLimitService,
+                policyRegistry, fixture.heavyHitterDetector);
+        keyRequest = request();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fixture.close();
+        redis.close();
+    }
+
+    @Benchmark
+    public String buildKey() {
+        RateLimitPolicy policy = policyRegistry.resolve(keyRequest.getMethod(), keyRequest.getRequestURI());
+        String identity = policy.identify(keyRequest);
+        return policy.bucketKey(identity) + policy.limitFor(identity);
+    }
+
+    @Benchmark
+    public boolean preHandle() throws Exception {
+        // 인터셉터가 요청 속성에 처리 여부를 남기므로 호출마다 새 요청을 만듭니다
+        return interceptor.preHandle(request(), new MockHttpServletResponse(), null);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", PATH);
+        request.setRemoteAddr("10.0.0.7");
+        request.addHeader("X-API-Key", API_KEY);
+        return request;
+    }
+
+    private static RateLimitProperties.Policy policy(String name, String pattern, RateLimitKeyType key) {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy(
+                RateLimitMode.HYBRID, RateLimitAlgorithmType.FIXED_WINDOW, key, 1_000_000, 1);
+        policy.setName(name);
+        policy.setPatterns(List.of(pattern));
+        return policy;
+    }
+}
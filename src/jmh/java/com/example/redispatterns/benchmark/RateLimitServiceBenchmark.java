@@ -0,0 +1,59 @@
+package com.example.redispatterns.benchmark;
+
+import com.example.redispatterns.ratelimit.RateLimitAlgorithmType;
+import com.example.redispatterns.ratelimit.RateLimitMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code RateLimitService.isAllowed}의 판정 방식별 처리량입니다.
+ *
+ * limit을 충분히 크게 두어 허용 경로를 측정합니다. 알고리즘은 REDIS 모드에만 적용되며
+ * {@code -p algorithm=FIXED_WINDOW,GCRA}처럼 바꿔서 실행할 수 있습니다.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Threads(4)
+public class RateLimitServiceBenchmark {
+
+    private static final int LIMIT = 1_000_000;
+    private static final int WINDOW_SECONDS = 1;
+
+    @Param({"REDIS", "HYBRID", "ASYNC"})
+    private RateLimitMode mode;
+
+    @Param({"SLIDING_WINDOW_COUNTER"})
+    private RateLimitAlgorithmType algorithm;
+
+    private RedisStandIn redis;
+    private RateLimitFixture fixture;
+
+    @Setup
+    public void setUp() throws IOException {
+        redis = RedisStandIn.start();
+        fixture = new RateLimitFixture(redis);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        fixture.close();
+        redis.close();
+    }
+
+    @Benchmark
+    public boolean isAllowed(BenchmarkKeys keys) {
+        return fixture.rateLimitService.isAllowed(keys.next(), LIMIT, WINDOW_SECONDS, mode, algorithm);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.redispatterns.benchmark;
+
+import com.example.redispatterns.config.RedisConfig;
+import com.github.fppt.jedismock.RedisServer;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * 벤치마크용 JVM 내부 Redis입니다.
+ *
+ * jedis-mock RESP 서버를 임의 포트에 띄우고 애플리케이션과 같은 Lettuce 클라이언트로 연결하므로,
+ * 외부 Redis 없이도 직렬화, Lua 스크립트 실행, 네트워크 왕복(루프백)까지 포함해 측정합니다.
+ * 실제 Redis보다 명령 처리가 느리므로 절대값보다는 빌드 간 상대 비교에 사용합니다.
+ */
+final class RedisStandIn implements AutoCloseable {
+
+    private final RedisServer server;
+    private final LettuceConnectionFactory connectionFactory;
+
+    private RedisStandIn(RedisServer server, LettuceConnectionFactory connectionFactory) {
+        this.server = server;
+        this.connectionFactory = connectionFactory;
+    }
+
+    static RedisStandIn start() throws IOException {
+        RedisServer server = RedisServer.newRedisServer().start();
+        RedisStandaloneConfiguration redisConfig = new RedisStandaloneConfiguration(server.getHost(), server.getBindPort());
+        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+                .commandTimeout(Duration.ofSeconds(10))
+                .shutdownTimeout(Duration.ZERO)
+                .build();
+        LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(redisConfig, clientConfig);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        return new RedisStandIn(server, connectionFactory);
+    }
+
+    /**
+     * {@link RedisConfig}와 같은 방식으로 만든 값 직렬화기입니다.
+     *
+     * @param codec binary | json ({@code app.redis.codec})
+     */
+    static RedisSerializer<Object> valueSerializer(String codec) {
+        RedisConfig config = new RedisConfig();
+        ReflectionTestUtils.setField(config, "redisCodec", codec);
+        return config.redisValueSerializer(config.redisObjectMapper());
+    }
+
+    LettuceConnectionFactory connectionFactory() {
+        return connectionFactory;
+    }
+
+    RedisTemplate<String, Object> redisTemplate(RedisSerializer<Object> valueSerializer) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    StringRedisTemplate stringRedisTemplate() {
+        return new StringRedisTemplate(connectionFactory);
+    }
+
+    @Override
+    public void close() throws IOException {
+        connectionFactory.destroy();
+        server.stop();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.redispatterns.benchmark;
+
+import com.example.redispatterns.payment.PaymentResponse;
+import com.example.redispatterns.product.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 값 직렬화기({@code app.redis.codec})별 Product / PaymentResponse 인코딩·디코딩 비용입니다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+
+    @Param({"binary", "json"})
+    private String codec;
+
+    private RedisSerializer<Object> serializer;
+    private Product product;
+    private PaymentResponse payment;
+    private byte[] productBytes;
+    private byte[] paymentBytes;
+
+    @Setup
+    public void setUp() {
+        serializer = RedisStandIn.valueSerializer(codec);
+        product = new Product(42L, "Mechanical Keyboard", new BigDecimal("149.00"),
+                "Hot-swappable switches, aluminium case and PBT keycaps");
+        payment = new PaymentResponse("customer-1", new BigDecimal("129.99"), "CARD");
+        productBytes = serializer.serialize(product);
+        paymentBytes = serializer.serialize(payment);
+    }
+
+    @Benchmark
+    public byte[] encodeProduct() {
+        return serializer.serialize(product);
+    }
+
+    @Benchmark
+    public Object decodeProduct() {
+        return serializer.deserialize(productBytes);
+    }
+
+    @Benchmark
+    public byte[] encodePaymentResponse() {
+        return serializer.serialize(payment);
+    }
+
+    @Benchmark
+    public Object decodePaymentResponse() {
+        return serializer.deserialize(paymentBytes);
+    }
+}
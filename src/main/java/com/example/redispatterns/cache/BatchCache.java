@@ -0,0 +1,69 @@
+package com.example.redispatterns.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 여러 키를 한 번의 왕복으로 조회/저장할 수 있는 Cache입니다.
+ * 캐시 스택의 각 계층(Redis, L1, single-flight, refresh-ahead)이 구현하여 배치 요청도 같은 경로를 거치게 합니다.
+ */
+public interface BatchCache extends Cache {
+
+    /**
+     * 캐시에 있는 항목만 반환합니다. 반환 맵의 키는 전달된 키 객체 그대로입니다.
+     */
+    Map<Object, Object> getAll(Collection<?> keys);
+
+    void putAll(Map<?, ?> entries);
+
+    /**
+     * 저장소에서 읽어 온 값들을 저장합니다. loadMillis는 값을 읽는 데 걸린 시간으로,
+     * refresh-ahead 계층이 만료 전 갱신 시점을 계산하는 데 사용합니다 (다른 계층은 그대로 전달).
+     */
+    default void putAllLoaded(Map<?, ?> entries, long loadMillis) {
+        putAll(entries);
+    }
+
+    /**
+     * cache가 BatchCache이면 배치로, 아니면 키마다 조회합니다.
+     */
+    static Map<Object, Object> getAllFrom(Cache cache, Collection<?> keys) {
+        if (cache instanceof BatchCache batchCache) {
+            return batchCache.getAll(keys);
+        }
+
+        Map<Object, Object> result = new LinkedHashMap<>();
+        for (Object key : keys) {
+            ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                result.put(key, wrapper.get());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * cache가 BatchCache이면 배치로, 아니면 키마다 저장합니다.
+     */
+    static void putAllTo(Cache cache, Map<?, ?> entries) {
+        if (cache instanceof BatchCache batchCache) {
+            batchCache.putAll(entries);
+            return;
+        }
+        entries.forEach(cache::put);
+    }
+
+    /**
+     * cache가 BatchCache이면 로드 시간과 함께 배치로, 아니면 키마다 저장합니다.
+     */
+    static void putAllLoadedTo(Cache cache, Map<?, ?> entries, long loadMillis) {
+        if (cache instanceof BatchCache batchCache) {
+            batchCache.putAllLoaded(entries, loadMillis);
+            return;
+        }
+        entries.forEach(cache::put);
+    }
+}
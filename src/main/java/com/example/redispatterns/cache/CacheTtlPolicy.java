@@ -0,0 +1,57 @@
+package com.example.redispatterns.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 캐시 항목의 TTL을 기본 TTL ± jitter(%) 범위에서 무작위로 정합니다.
+ * 함께 적재된 항목(예: warm-up)이 같은 순간에 만료되어 미스가 몰리는 것을 막습니다.
+ *
+ * refresh-ahead 항목은 값에 기록된 만료 시각을 그대로 따르므로 Redis TTL과 XFetch 판단이 어긋나지 않습니다.
+ * sliding 캐시의 항목은 만료 시각을 기록하지 않으므로(0) 저장과 GETEX 모두 새 TTL을 사용합니다.
+ */
+public class CacheTtlPolicy implements RedisCacheWriter.TtlFunction {
+
+    // 이미 만료 시각이 지난 항목도 최소한 이 시간 동안은 유지합니다
+    private static final long MIN_TTL_MILLIS = 1000;
+
+    private final Duration ttl;
+    private final int jitterPercent;
+
+    public CacheTtlPolicy(Duration ttl, int jitterPercent) {
+        this.ttl = ttl;
+        this.jitterPercent = jitterPercent;
+    }
+
+    /**
+     * 다음에 저장할 항목의 TTL을 계산합니다.
+     */
+    public Duration nextTtl() {
+        long baseMillis = ttl.toMillis();
+        if (jitterPercent <= 0 || baseMillis <= 0) {
+            return ttl;
+        }
+        long spread = baseMillis * jitterPercent / 100;
+        long offset = ThreadLocalRandom.current().nextLong(-spread, spread + 1);
+        return Duration.ofMillis(Math.max(MIN_TTL_MILLIS, baseMillis + offset));
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        if (value instanceof RefreshAheadValue entry && entry.getExpiresAt() > 0) {
+            long remaining = entry.getExpiresAt() - System.currentTimeMillis();
+            return Duration.ofMillis(Math.max(MIN_TTL_MILLIS, remaining));
+        }
+        return nextTtl();
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public int getJitterPercent() {
+        return jitterPercent;
+    }
+}
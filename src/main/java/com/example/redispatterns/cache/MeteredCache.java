@@ -0,0 +1,141 @@
+package com.example.redispatterns.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 캐시 스택 가장 바깥에서 조회 적중/미스, 저장, 삭제 횟수와 로드 시간을 기록하는 Cache 데코레이터입니다.
+ *
+ * 메트릭 이름은 Micrometer 캐시 바인더와 같은 규칙({@code cache.gets}, {@code cache.puts}, {@code cache.evictions})을
+ * 따르고, 태그 {@code cacheManager=redis}로 L1(Caffeine, {@code cacheManager=near}) 통계와 구분합니다.
+ * {@link #get(Object, Callable)}에서 로더가 실행되면 미스, 실행되지 않으면 적중으로 셉니다.
+ */
+public class MeteredCache implements BatchCache {
+
+    private final Cache delegate;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter evictions;
+    private final Timer loadSuccess;
+    private final Timer loadFailure;
+
+    public MeteredCache(Cache delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+
+        Tags tags = Tags.of("cache", delegate.getName(), "cacheManager", "redis");
+        this.hits = Counter.builder("cache.gets").tags(tags).tag("result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value.")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tags(tags).tag("result", "miss")
+                .description("The number of times cache lookup methods have returned an uncached value.")
+                .register(meterRegistry);
+        this.puts = Counter.builder("cache.puts").tags(tags)
+                .description("The number of entries added to the cache")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tags(tags)
+                .description("The number of explicit evictions (evict/clear)")
+                .register(meterRegistry);
+        this.loadSuccess = loadTimer(meterRegistry, tags, "success");
+        this.loadFailure = loadTimer(meterRegistry, tags, "failure");
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        (wrapper != null ? hits : misses).increment();
+        return wrapper;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        T value = delegate.get(key, type);
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        AtomicBoolean loaded = new AtomicBoolean();
+        T value = delegate.get(key, () -> {
+            loaded.set(true);
+            long startNanos = System.nanoTime();
+            try {
+                T result = valueLoader.call();
+                loadSuccess.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (Exception e) {
+                loadFailure.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                throw e;
+            }
+        });
+        (loaded.get() ? misses : hits).increment();
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        puts.increment();
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        evictions.increment();
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        evictions.increment();
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> result = BatchCache.getAllFrom(delegate, keys);
+        hits.increment(result.size());
+        misses.increment(keys.size() - result.size());
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        BatchCache.putAllTo(delegate, entries);
+        puts.increment(entries.size());
+    }
+
+    @Override
+    public void putAllLoaded(Map<?, ?> entries, long loadMillis) {
+        BatchCache.putAllLoadedTo(delegate, entries, loadMillis);
+        puts.increment(entries.size());
+    }
+
+    private static Timer loadTimer(MeterRegistry meterRegistry, Tags tags, String result) {
+        return Timer.builder("cache.load.time")
+                .tags(tags)
+                .tag("result", result)
+                .description("Time spent loading a value on cache miss")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
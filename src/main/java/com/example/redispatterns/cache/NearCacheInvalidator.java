@@ -0,0 +1,90 @@
+package com.example.redispatterns.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis pub/sub으로 노드 간 L1 캐시 무효화 메시지를 주고받습니다.
+ *
+ * 메시지 형식: {@code {nodeId}|{cacheName}|{key}} (전체 삭제는 key 자리에 {@code *},
+ * 여러 키는 줄바꿈으로 구분)
+ * 자신이 발행한 메시지는 이미 L1에 반영되어 있으므로 무시합니다.
+ */
+public class NearCacheInvalidator implements MessageListener {
+    private static final Logger log = LoggerFactory.getLogger(NearCacheInvalidator.class);
+
+    public static final String CHANNEL = "cache:invalidate";
+    private static final String CLEAR_ALL = "*";
+    private static final String DELIMITER = "|";
+    private static final String KEY_DELIMITER = "\n";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    public NearCacheInvalidator(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    void register(TwoLevelCache cache) {
+        caches.put(cache.getName(), cache);
+    }
+
+    public void publishEvict(String cacheName, String key) {
+        publish(cacheName, key);
+    }
+
+    public void publishEvictAll(String cacheName, Collection<String> keys) {
+        if (!keys.isEmpty()) {
+            publish(cacheName, String.join(KEY_DELIMITER, keys));
+        }
+    }
+
+    public void publishClear(String cacheName) {
+        publish(cacheName, CLEAR_ALL);
+    }
+
+    private void publish(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + DELIMITER + cacheName + DELIMITER + key);
+        } catch (Exception e) {
+            // 무효화 메시지 유실 시 다른 노드의 L1은 expire-after-write 이후에 정리됩니다
+            log.warn("[NearCache] 무효화 메시지 발행 실패 - cache={}, key={}, reason={}", cacheName, key, e.toString());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 3);
+        if (parts.length != 3) {
+            log.warn("[NearCache] 잘못된 무효화 메시지: {}", body);
+            return;
+        }
+        if (nodeId.equals(parts[0])) {
+            return;
+        }
+
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR_ALL.equals(parts[2])) {
+            cache.clearLocal();
+        } else {
+            for (String key : parts[2].split(KEY_DELIMITER)) {
+                cache.evictLocal(key);
+            }
+        }
+        log.debug("[NearCache] 원격 무효화 반영 - cache={}, key={}", parts[1], parts[2]);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.redispatterns.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RedisCache에 MGET 조회와 파이프라인 저장을 덧붙인 Cache입니다.
+ * 키 prefix, 직렬화, TTL은 RedisCache와 같은 {@link RedisCacheConfiguration}을 사용하므로
+ * 단건 경로(@Cacheable)와 배치 경로가 같은 항목을 공유합니다.
+ *
+ * maxValueBytes가 설정되면 직렬화 크기가 이를 넘는 값은 저장하지 않습니다 (기존 항목은 삭제).
+ * time-to-idle이 켜진 캐시는 배치 조회도 GETEX로 TTL을 연장합니다.
+ */
+public class RedisBatchCache implements BatchCache {
+    private static final Logger log = LoggerFactory.getLogger(RedisBatchCache.class);
+
+    private final RedisCache delegate;
+    private final RedisConnectionFactory connectionFactory;
+    private final long maxValueBytes;
+    private final LongAdder oversizedValues = new LongAdder();
+
+    public RedisBatchCache(RedisCache delegate, RedisConnectionFactory connectionFactory) {
+        this(delegate, connectionFactory, 0);
+    }
+
+    /**
+     * @param maxValueBytes 저장할 수 있는 최대 직렬화 크기 (0 이하면 제한 없음)
+     */
+    public RedisBatchCache(RedisCache delegate, RedisConnectionFactory connectionFactory, long maxValueBytes) {
+        this.delegate = delegate;
+        this.connectionFactory = connectionFactory;
+        this.maxValueBytes = maxValueBytes;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null || maxValueBytes <= 0) {
+            delegate.put(key, value);
+            return;
+        }
+
+        byte[] rawValue = serializeValue(value);
+        if (isOversized(key, rawValue)) {
+            delegate.evict(key);
+            return;
+        }
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.stringCommands().set(serializeKey(key), rawValue, expirationFor(key, value), SetOption.upsert());
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> result = new LinkedHashMap<>();
+        if (keys.isEmpty()) {
+            return result;
+        }
+
+        List<Object> keyList = new ArrayList<>(keys);
+        byte[][] rawKeys = new byte[keyList.size()][];
+        for (int i = 0; i < keyList.size(); i++) {
+            rawKeys[i] = serializeKey(keyList.get(i));
+        }
+
+        List<?> rawValues = getConfiguration().isTimeToIdleEnabled()
+                ? getExPipelined(keyList, rawKeys)
+                : mGet(rawKeys);
+        if (rawValues == null) {
+            return result;
+        }
+
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] rawValue = (byte[]) rawValues.get(i);
+            if (rawValue != null) {
+                Object value = getConfiguration().getValueSerializationPair().read(ByteBuffer.wrap(rawValue));
+                if (value != null) {
+                    result.put(keyList.get(i), value);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                entries.forEach((key, value) -> {
+                    byte[] rawValue = serializeValue(value);
+                    if (isOversized(key, rawValue)) {
+                        connection.keyCommands().del(serializeKey(key));
+                        return;
+                    }
+                    connection.stringCommands().set(serializeKey(key), rawValue, expirationFor(key, value), SetOption.upsert());
+                });
+            } finally {
+                connection.closePipeline();
+            }
+        }
+    }
+
+    public long getOversizedValueCount() {
+        return oversizedValues.sum();
+    }
+
+    private List<byte[]> mGet(byte[][] rawKeys) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            return connection.stringCommands().mGet(rawKeys);
+        }
+    }
+
+    /**
+     * 조회와 동시에 TTL을 연장하도록 키마다 GETEX를 보내되, 한 번의 파이프라인으로 묶습니다.
+     */
+    private List<Object> getExPipelined(List<Object> keys, byte[][] rawKeys) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            for (int i = 0; i < rawKeys.length; i++) {
+                connection.stringCommands().getEx(rawKeys[i], expirationFor(keys.get(i), null));
+            }
+            return connection.closePipeline();
+        }
+    }
+
+    private boolean isOversized(Object key, byte[] rawValue) {
+        if (maxValueBytes <= 0 || rawValue.length <= maxValueBytes) {
+            return false;
+        }
+        oversizedValues.increment();
+        log.warn("[CacheFallback] 값이 너무 커서 캐시하지 않습니다 - cache={}, key={}, size={}B, max={}B",
+                getName(), key, rawValue.length, maxValueBytes);
+        return true;
+    }
+
+    private byte[] serializeValue(Object value) {
+        return ByteUtils.getBytes(getConfiguration().getValueSerializationPair().write(value));
+    }
+
+    private Expiration expirationFor(Object key, Object value) {
+        return toExpiration(getConfiguration().getTtlFunction().getTimeToLive(key, value));
+    }
+
+    private RedisCacheConfiguration getConfiguration() {
+        return delegate.getCacheConfiguration();
+    }
+
+    /**
+     * RedisCache#createCacheKey와 같은 규칙으로 키를 만듭니다 (예: "product::1").
+     */
+    private byte[] serializeKey(Object key) {
+        String cacheKey = String.valueOf(key);
+        if (getConfiguration().usePrefix()) {
+            cacheKey = getConfiguration().getKeyPrefixFor(getName()) + cacheKey;
+        }
+        return ByteUtils.getBytes(getConfiguration().getKeySerializationPair().write(cacheKey));
+    }
+
+    private Expiration toExpiration(Duration ttl) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return Expiration.persistent();
+        }
+        return Expiration.from(ttl.toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.redispatterns.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.BitOperation;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Redis 비트맵에 저장되고 로컬 메모리에 미러링되는 Bloom filter입니다.
+ *
+ * - 조회({@link #mightContain})는 로컬 비트맵만 확인하므로 네트워크 왕복이 없습니다.
+ * - 추가({@link #add})는 로컬 비트를 세우고 Redis에 SETBIT을 파이프라인으로 보냅니다.
+ * - 다른 노드가 추가한 비트는 {@link #syncFromRedis()}로 주기적으로 가져옵니다 (OR 병합, 비트는 지워지지 않음).
+ *
+ * 비트 위치는 Redis SETBIT 규칙(바이트 내 MSB 우선)과 같게 계산합니다.
+ */
+public class RedisBloomFilter {
+    private static final Logger log = LoggerFactory.getLogger(RedisBloomFilter.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final String redisKey;
+    private final long bitSize;
+    private final int hashCount;
+    private final AtomicLongArray bits;
+
+    public RedisBloomFilter(StringRedisTemplate redisTemplate, String redisKey, long expectedInsertions, double falsePositiveRate) {
+        this.redisTemplate = redisTemplate;
+        this.redisKey = redisKey;
+        // m = -n ln(p) / (ln 2)^2, k = (m / n) ln 2
+        this.bitSize = Math.max(64, (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((bitSize + 63) / 64));
+    }
+
+    public boolean mightContain(String item) {
+        long[] offsets = offsets(item);
+        for (long offset : offsets) {
+            if (!getLocalBit(offset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 항목을 추가합니다. Redis 반영에 실패해도 로컬 비트는 유지됩니다.
+     */
+    public void add(String item) {
+        long[] offsets = offsets(item);
+        for (long offset : offsets) {
+            setLocalBit(offset);
+        }
+
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (long offset : offsets) {
+                    stringConnection.setBit(redisKey, offset, true);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("[BloomFilter] SETBIT 실패 - key={}, reason={}", redisKey, e.toString());
+        }
+    }
+
+    /**
+     * 로컬에만 항목을 추가합니다. 대량 적재 후 {@link #publishToRedis()}로 한 번에 반영합니다.
+     */
+    public void addLocal(String item) {
+        for (long offset : offsets(item)) {
+            setLocalBit(offset);
+        }
+    }
+
+    /**
+     * 로컬 비트맵을 Redis 비트맵에 OR로 병합합니다 (다른 노드가 세운 비트는 유지).
+     */
+    public void publishToRedis() {
+        byte[] localBytes = toRedisBytes();
+        byte[] rawKey = redisKey.getBytes(StandardCharsets.UTF_8);
+        byte[] rawTempKey = (redisKey + ":merge:" + Thread.currentThread().getId() + ":" + System.nanoTime())
+                .getBytes(StandardCharsets.UTF_8);
+
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            // 병합 도중 실패해도 임시 키가 남지 않도록 TTL을 둡니다
+            connection.stringCommands().set(rawTempKey, localBytes, Expiration.seconds(60), SetOption.upsert());
+            connection.stringCommands().bitOp(BitOperation.OR, rawKey, rawKey, rawTempKey);
+            connection.keyCommands().del(rawTempKey);
+            return null;
+        });
+    }
+
+    /**
+     * Redis 비트맵을 로컬 비트맵에 OR로 병합합니다.
+     */
+    public void syncFromRedis() {
+        byte[] rawKey = redisKey.getBytes(StandardCharsets.UTF_8);
+        byte[] remoteBytes = redisTemplate.execute((RedisCallback<byte[]>) connection -> connection.stringCommands().get(rawKey));
+        if (remoteBytes == null) {
+            return;
+        }
+
+        long maxOffset = Math.min(bitSize, (long) remoteBytes.length * 8);
+        for (long offset = 0; offset < maxOffset; offset++) {
+            if ((remoteBytes[(int) (offset >>> 3)] & (0x80 >>> (offset & 7))) != 0) {
+                setLocalBit(offset);
+            }
+        }
+    }
+
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    public int getHashCount() {
+        return hashCount;
+    }
+
+    public long getSetBitCount() {
+        long count = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            count += Long.bitCount(bits.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * 세워진 비트 비율로 추정한 현재 오탐률: (X / m)^k
+     */
+    public double getEstimatedFalsePositiveRate() {
+        return Math.pow((double) getSetBitCount() / bitSize, hashCount);
+    }
+
+    /**
+     * 세워진 비트 수로 추정한 원소 수: -(m / k) ln(1 - X / m)
+     */
+    public long getEstimatedElementCount() {
+        double fillRatio = (double) getSetBitCount() / bitSize;
+        if (fillRatio >= 1.0) {
+            return Long.MAX_VALUE;
+        }
+        return Math.round(-((double) bitSize / hashCount) * Math.log(1 - fillRatio));
+    }
+
+    /**
+     * Kirsch-Mitzenmacher 이중 해싱으로 k개의 비트 위치를 구합니다.
+     */
+    private long[] offsets(String item) {
+        long hash = mix64(fnv1a64(item.getBytes(StandardCharsets.UTF_8)));
+        long hash1 = hash & 0xFFFFFFFFL;
+        long hash2 = hash >>> 32;
+
+        long[] offsets = new long[hashCount];
+        for (int i = 0; i < hashCount; i++) {
+            offsets[i] = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize;
+        }
+        return offsets;
+    }
+
+    private boolean getLocalBit(long offset) {
+        return (bits.get((int) (offset >>> 6)) & (1L << (offset & 63))) != 0;
+    }
+
+    private void setLocalBit(long offset) {
+        int index = (int) (offset >>> 6);
+        long mask = 1L << (offset & 63);
+        long current;
+        do {
+            current = bits.get(index);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(index, current, current | mask));
+    }
+
+    private byte[] toRedisBytes() {
+        byte[] result = new byte[(int) ((bitSize + 7) / 8)];
+        for (long offset = 0; offset < bitSize; offset++) {
+            if (getLocalBit(offset)) {
+                result[(int) (offset >>> 3)] |= (byte) (0x80 >>> (offset & 7));
+            }
+        }
+        return result;
+    }
+
+    private static long fnv1a64(byte[] data) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : data) {
+            hash ^= (b & 0xFF);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
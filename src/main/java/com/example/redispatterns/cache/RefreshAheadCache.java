@@ -0,0 +1,221 @@
+package com.example.redispatterns.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 만료가 가까운 항목을 확률적으로 미리 갱신하는 Cache 데코레이터입니다 (XFetch).
+ *
+ * 값은 {@link RefreshAheadValue}로 감싸 로드 시간(delta)과 만료 시각을 함께 저장합니다.
+ * 조회 시 {@code now - delta * beta * ln(rand) >= expiresAt}이면 현재 값을 그대로 반환하면서
+ * 백그라운드에서 다시 로드합니다. 로드가 오래 걸리는 키일수록, 만료가 가까울수록 일찍 갱신됩니다.
+ *
+ * 조회할 때마다 TTL을 연장하는(sliding) 캐시는 만료 시각이 고정되어 있지 않으므로 expiresAt을 0으로 저장하고
+ * 만료 전 갱신을 하지 않습니다. 읽히는 키는 만료되지 않으므로 미리 갱신할 필요가 없고, Redis TTL만 만료를 결정합니다.
+ */
+public class RefreshAheadCache implements BatchCache {
+    private static final Logger log = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+    private final Cache delegate;
+    private final CacheTtlPolicy ttlPolicy;
+    private final double beta;
+    private final boolean slidingExpiry;
+    private final Executor refreshExecutor;
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+    private final LongAdder refreshes = new LongAdder();
+
+    public RefreshAheadCache(Cache delegate, CacheTtlPolicy ttlPolicy, double beta, Executor refreshExecutor) {
+        this(delegate, ttlPolicy, beta, false, refreshExecutor);
+    }
+
+    /**
+     * @param slidingExpiry 조회 시 Redis TTL이 연장되는 캐시인지 여부 (true면 만료 시각을 기록하지 않음)
+     */
+    public RefreshAheadCache(Cache delegate, CacheTtlPolicy ttlPolicy, double beta, boolean slidingExpiry,
+                             Executor refreshExecutor) {
+        this.delegate = delegate;
+        this.ttlPolicy = ttlPolicy;
+        this.beta = beta;
+        this.slidingExpiry = slidingExpiry;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        return new SimpleValueWrapper(unwrap(wrapper.get()));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null) {
+            Object cached = wrapper.get();
+            if (cached instanceof RefreshAheadValue entry && shouldRefresh(entry)) {
+                scheduleRefresh(key, valueLoader);
+            }
+            return (T) unwrap(cached);
+        }
+
+        Object loaded = delegate.get(key, () -> load(valueLoader));
+        return (T) unwrap(loaded);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, wrap(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> result = new LinkedHashMap<>();
+        BatchCache.getAllFrom(delegate, keys).forEach((key, value) -> result.put(key, unwrap(value)));
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        Map<Object, Object> wrapped = new LinkedHashMap<>();
+        entries.forEach((key, value) -> wrapped.put(key, wrap(value)));
+        BatchCache.putAllTo(delegate, wrapped);
+    }
+
+    /**
+     * 배치로 로드한 값(warm-up, 배치 조회)은 측정한 로드 시간을 함께 저장하여, 단건 로드와 같이 만료 전에 갱신되게 합니다.
+     * 항목마다 TTL jitter를 따로 뽑으므로 한꺼번에 넣은 항목도 만료 시각이 흩어집니다.
+     */
+    @Override
+    public void putAllLoaded(Map<?, ?> entries, long loadMillis) {
+        long now = System.currentTimeMillis();
+        Map<Object, Object> wrapped = new LinkedHashMap<>();
+        entries.forEach((key, value) -> wrapped.put(key, value == null || value instanceof RefreshAheadValue
+                ? value
+                : new RefreshAheadValue(value, loadMillis, expiresAt(now))));
+        BatchCache.putAllTo(delegate, wrapped);
+    }
+
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    /**
+     * XFetch 조건: now - delta * beta * ln(rand) >= expiresAt (rand ∈ (0, 1])
+     */
+    boolean shouldRefresh(RefreshAheadValue entry) {
+        if (entry.getLoadMillis() <= 0 || entry.getExpiresAt() <= 0) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double gap = -entry.getLoadMillis() * beta * Math.log(random);
+        return System.currentTimeMillis() + gap >= entry.getExpiresAt();
+    }
+
+    private void scheduleRefresh(Object key, Callable<?> valueLoader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    RefreshAheadValue refreshed = load(valueLoader);
+                    if (refreshed != null) {
+                        delegate.put(key, refreshed);
+                        refreshes.increment();
+                        log.debug("[RefreshAhead] 백그라운드 갱신 완료 - cache={}, key={}, loadMillis={}",
+                                getName(), key, refreshed.getLoadMillis());
+                    }
+                } catch (Exception e) {
+                    log.warn("[RefreshAhead] 백그라운드 갱신 실패 - cache={}, key={}, reason={}",
+                            getName(), key, e.toString());
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 갱신 작업이 밀려 있으면 이번 기회는 건너뛰고 다음 조회에서 다시 시도합니다
+            refreshing.remove(key);
+        }
+    }
+
+    private RefreshAheadValue load(Callable<?> valueLoader) throws Exception {
+        long startTime = System.currentTimeMillis();
+        Object value = valueLoader.call();
+        long endTime = System.currentTimeMillis();
+
+        if (value == null) {
+            return null;
+        }
+        return new RefreshAheadValue(value, endTime - startTime, expiresAt(endTime));
+    }
+
+    /**
+     * 외부에서 직접 넣은 값은 로드 비용을 모르므로 만료 직전 갱신 대상에서 제외됩니다.
+     */
+    private Object wrap(Object value) {
+        if (value == null || value instanceof RefreshAheadValue) {
+            return value;
+        }
+        return new RefreshAheadValue(value, 0, expiresAt(System.currentTimeMillis()));
+    }
+
+    /**
+     * sliding 캐시는 0(만료 시각 없음)을 기록하여 TTL 정책이 매번 새 TTL을 쓰게 합니다.
+     */
+    private long expiresAt(long now) {
+        return slidingExpiry ? 0 : now + ttlPolicy.nextTtl().toMillis();
+    }
+
+    private Object unwrap(Object cached) {
+        return cached instanceof RefreshAheadValue entry ? entry.getValue() : cached;
+    }
+}
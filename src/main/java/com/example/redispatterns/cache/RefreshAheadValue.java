@@ -0,0 +1,56 @@
+package com.example.redispatterns.cache;
+
+/**
+ * refresh-ahead 판단에 필요한 메타데이터와 함께 캐시에 저장되는 값입니다.
+ *
+ * loadMillis: 값을 로드하는 데 걸린 시간 (XFetch의 delta)
+ * expiresAt: 캐시 항목이 만료되는 시각 (epoch millis, 0이면 고정 만료 시각 없음: sliding 캐시)
+ */
+public class RefreshAheadValue {
+    private Object value;
+    private long loadMillis;
+    private long expiresAt;
+
+    // JSON 역직렬화를 위한 기본 생성자
+    public RefreshAheadValue() {
+    }
+
+    public RefreshAheadValue(Object value, long loadMillis, long expiresAt) {
+        this.value = value;
+        this.loadMillis = loadMillis;
+        this.expiresAt = expiresAt;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    public void setLoadMillis(long loadMillis) {
+        this.loadMillis = loadMillis;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshAheadValue{" +
+                "value=" + value +
+                ", loadMillis=" + loadMillis +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
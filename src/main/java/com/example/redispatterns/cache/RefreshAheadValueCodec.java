@@ -0,0 +1,32 @@
+package com.example.redispatterns.cache;
+
+import com.example.redispatterns.codec.BinaryInput;
+import com.example.redispatterns.codec.BinaryOutput;
+import com.example.redispatterns.codec.TypeCodec;
+
+/**
+ * RefreshAheadValue 바이너리 스키마
+ * v1: value(중첩 객체), loadMillis, expiresAt
+ */
+public class RefreshAheadValueCodec implements TypeCodec<RefreshAheadValue> {
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(RefreshAheadValue entry, BinaryOutput out) {
+        out.writeObject(entry.getValue());
+        out.writeVarLong(entry.getLoadMillis());
+        out.writeVarLong(entry.getExpiresAt());
+    }
+
+    @Override
+    public RefreshAheadValue read(BinaryInput in, int version) {
+        Object value = in.readObject();
+        long loadMillis = in.readVarLong();
+        long expiresAt = in.readVarLong();
+        return new RefreshAheadValue(value, loadMillis, expiresAt);
+    }
+}
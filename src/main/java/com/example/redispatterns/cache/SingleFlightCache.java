@@ -0,0 +1,109 @@
+package com.example.redispatterns.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * {@code @Cacheable(sync = true)}의 로드 경로({@link #get(Object, Callable)})를
+ * {@link SingleFlightLoader}로 합치는 Cache 데코레이터입니다. 나머지 연산은 그대로 위임합니다.
+ */
+public class SingleFlightCache implements BatchCache {
+    private static final Logger log = LoggerFactory.getLogger(SingleFlightCache.class);
+
+    private final Cache delegate;
+    private final SingleFlightLoader singleFlightLoader;
+
+    public SingleFlightCache(Cache delegate, SingleFlightLoader singleFlightLoader) {
+        this.delegate = delegate;
+        this.singleFlightLoader = singleFlightLoader;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = delegate.get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        String flightKey = getName() + "::" + key;
+        try {
+            return (T) singleFlightLoader.load(flightKey, () -> delegate.get(key), () -> {
+                T value = valueLoader.call();
+                putQuietly(key, value);
+                return value;
+            });
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        return BatchCache.getAllFrom(delegate, keys);
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        BatchCache.putAllTo(delegate, entries);
+    }
+
+    @Override
+    public void putAllLoaded(Map<?, ?> entries, long loadMillis) {
+        BatchCache.putAllLoadedTo(delegate, entries, loadMillis);
+    }
+
+    /**
+     * 로드 결과 저장 실패가 로더 예외로 둔갑하지 않도록 여기서 처리합니다.
+     */
+    private void putQuietly(Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        try {
+            delegate.put(key, value);
+        } catch (RuntimeException e) {
+            log.warn("[CacheFallback] PUT 실패 - cache={}, key={}, reason={}", getName(), key, e.toString());
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.redispatterns.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 같은 키에 대한 캐시 미스를 하나의 로드로 합칩니다 (single-flight).
+ *
+ * 1. 같은 노드: 진행 중인 로드의 future를 공유합니다.
+ * 2. 여러 노드: Redis 리스 키({@code lease:{flightKey}})를 SET NX PX로 잡은 노드만 로드하고,
+ *    나머지는 리스가 풀리거나 값이 채워질 때까지 캐시를 폴링합니다.
+ * Redis 장애 시에는 리스 없이 바로 로드합니다.
+ */
+public class SingleFlightLoader {
+    private static final Logger log = LoggerFactory.getLogger(SingleFlightLoader.class);
+
+    private static final String LEASE_PREFIX = "lease:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration leaseTtl;
+    private final Duration maxWait;
+    private final Duration pollInterval;
+    private final RedisScript<Long> releaseScript;
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder localCoalesced = new LongAdder();
+    private final LongAdder remoteCoalesced = new LongAdder();
+
+    public SingleFlightLoader(StringRedisTemplate redisTemplate, Duration leaseTtl, Duration maxWait, Duration pollInterval) {
+        this.redisTemplate = redisTemplate;
+        this.leaseTtl = leaseTtl;
+        this.maxWait = maxWait;
+        this.pollInterval = pollInterval;
+        this.releaseScript = createReleaseScript();
+    }
+
+    /**
+     * 키별로 한 번만 loader를 실행하고 결과를 공유합니다.
+     *
+     * @param flightKey 합칠 로드의 식별자 (예: "product::1")
+     * @param remoteLookup 다른 노드가 채운 값을 확인하기 위한 캐시 조회
+     * @param loader 실제 로드 (캐시 저장까지 포함해야 다른 노드가 결과를 볼 수 있습니다)
+     */
+    public Object load(String flightKey, Supplier<Cache.ValueWrapper> remoteLookup, Callable<?> loader) throws Exception {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            localCoalesced.increment();
+            log.debug("[SingleFlight] 진행 중인 로드에 합류 - key={}", flightKey);
+            return await(existing);
+        }
+
+        try {
+            Object value = loadWithLease(flightKey, remoteLookup, loader);
+            flight.complete(value);
+            return value;
+        } catch (Exception e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    private Object loadWithLease(String flightKey, Supplier<Cache.ValueWrapper> remoteLookup, Callable<?> loader) throws Exception {
+        String leaseKey = LEASE_PREFIX + flightKey;
+        String token = UUID.randomUUID().toString();
+
+        Boolean acquired;
+        try {
+            acquired = redisTemplate.opsForValue().setIfAbsent(leaseKey, token, leaseTtl);
+        } catch (Exception e) {
+            log.warn("[SingleFlight] 리스 획득 실패, 리스 없이 로드합니다 - key={}, reason={}", flightKey, e.toString());
+            loads.increment();
+            return loader.call();
+        }
+
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                loads.increment();
+                return loader.call();
+            } finally {
+                releaseLease(leaseKey, token);
+            }
+        }
+
+        // 다른 노드가 로드 중이므로 결과가 캐시에 채워지기를 기다립니다
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (System.nanoTime() < deadline) {
+            Thread.sleep(pollInterval.toMillis());
+            try {
+                Cache.ValueWrapper wrapper = remoteLookup.get();
+                if (wrapper != null && wrapper.get() != null) {
+                    remoteCoalesced.increment();
+                    return wrapper.get();
+                }
+                if (!Boolean.TRUE.equals(redisTemplate.hasKey(leaseKey))) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                log.warn("[SingleFlight] 원격 로드 대기 중 오류 - key={}, reason={}", flightKey, e.toString());
+                break;
+            }
+        }
+
+        // 리스 소유자가 실패했거나 대기 시간을 초과한 경우 직접 로드합니다
+        loads.increment();
+        return loader.call();
+    }
+
+    private void releaseLease(String leaseKey, String token) {
+        try {
+            redisTemplate.execute(releaseScript, Collections.singletonList(leaseKey), token);
+        } catch (Exception e) {
+            // 해제에 실패해도 리스는 TTL 이후 만료됩니다
+            log.warn("[SingleFlight] 리스 해제 실패 - key={}, reason={}", leaseKey, e.toString());
+        }
+    }
+
+    private Object await(CompletableFuture<Object> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    public long getLocalCoalescedCount() {
+        return localCoalesced.sum();
+    }
+
+    public long getRemoteCoalescedCount() {
+        return remoteCoalesced.sum();
+    }
+
+    /**
+     * 리스 토큰이 일치할 때만 삭제하는 Lua 스크립트를 생성합니다.
+     */
+    private RedisScript<Long> createReleaseScript() {
+        String luaScript =
+                "if redis.call('get', KEYS[1]) == ARGV[1] then " +
+                "  return redis.call('del', KEYS[1]) " +
+                "end " +
+                "return 0";
+
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(luaScript);
+        script.setResultType(Long.class);
+
+        return script;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.redispatterns.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 프로세스 내부 L1(Caffeine)과 Redis L2를 묶은 2단계 캐시입니다.
+ *
+ * 조회는 L1 → L2 순서로 진행하고, L2에서 찾은 값은 L1에 채워 넣습니다.
+ * 쓰기/삭제는 L2에 먼저 반영한 뒤 L1을 갱신하고, 다른 노드의 L1이 오래된 값을 들고 있지 않도록
+ * {@link NearCacheInvalidator}를 통해 무효화 메시지를 발행합니다.
+ */
+public class TwoLevelCache implements BatchCache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+    private final Cache redisCache;
+    private final NearCacheInvalidator invalidator;
+
+    public TwoLevelCache(String name,
+                         com.github.benmanes.caffeine.cache.Cache<String, Object> localCache,
+                         Cache redisCache,
+                         NearCacheInvalidator invalidator) {
+        this.name = name;
+        this.localCache = localCache;
+        this.redisCache = redisCache;
+        this.invalidator = invalidator;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return redisCache.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = toLocalKey(key);
+        Object localValue = localCache.getIfPresent(localKey);
+        if (localValue != null) {
+            return new SimpleValueWrapper(localValue);
+        }
+
+        ValueWrapper remoteValue = redisCache.get(key);
+        if (remoteValue != null && remoteValue.get() != null) {
+            localCache.put(localKey, remoteValue.get());
+        }
+        return remoteValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        redisCache.put(key, value);
+        String localKey = toLocalKey(key);
+        if (value != null) {
+            localCache.put(localKey, value);
+        } else {
+            localCache.invalidate(localKey);
+        }
+        invalidator.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void evict(Object key) {
+        redisCache.evict(key);
+        String localKey = toLocalKey(key);
+        localCache.invalidate(localKey);
+        invalidator.publishEvict(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        redisCache.clear();
+        localCache.invalidateAll();
+        invalidator.publishClear(name);
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> result = new LinkedHashMap<>();
+        List<Object> missingKeys = new ArrayList<>();
+        for (Object key : keys) {
+            Object localValue = localCache.getIfPresent(toLocalKey(key));
+            if (localValue != null) {
+                result.put(key, localValue);
+            } else {
+                missingKeys.add(key);
+            }
+        }
+
+        if (!missingKeys.isEmpty()) {
+            BatchCache.getAllFrom(redisCache, missingKeys).forEach((key, value) -> {
+                localCache.put(toLocalKey(key), value);
+                result.put(key, value);
+            });
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        BatchCache.putAllTo(redisCache, entries);
+
+        List<String> localKeys = new ArrayList<>(entries.size());
+        entries.forEach((key, value) -> {
+            String localKey = toLocalKey(key);
+            localCache.put(localKey, value);
+            localKeys.add(localKey);
+        });
+        invalidator.publishEvictAll(name, localKeys);
+    }
+
+    /**
+     * 다른 노드에서 전달된 무효화 메시지를 L1에만 반영합니다 (L2는 이미 갱신된 상태).
+     */
+    void evictLocal(String localKey) {
+        localCache.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    /**
+     * RedisCache가 키를 문자열로 변환하는 것과 동일하게 L1 키도 문자열로 맞춥니다.
+     * 그래야 pub/sub으로 전달된 문자열 키로 L1 항목을 정확히 찾을 수 있습니다.
+     */
+    private String toLocalKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.redispatterns.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Redis CacheManager 앞에 크기/TTL 제한이 있는 Caffeine L1을 두는 CacheManager입니다.
+ * Caffeine은 W-TinyLFU 기반 admission 정책을 사용하므로 자주 조회되는 상품만 L1에 남습니다.
+ * L1 통계는 {@code cacheManager=near} 태그로 MeterRegistry에 등록됩니다.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private final CacheManager redisCacheManager;
+    private final NearCacheInvalidator invalidator;
+    private final long maximumSize;
+    private final Duration expireAfterWrite;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public TwoLevelCacheManager(CacheManager redisCacheManager,
+                                NearCacheInvalidator invalidator,
+                                long maximumSize,
+                                Duration expireAfterWrite,
+                                MeterRegistry meterRegistry) {
+        this.redisCacheManager = redisCacheManager;
+        this.invalidator = invalidator;
+        this.maximumSize = maximumSize;
+        this.expireAfterWrite = expireAfterWrite;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return redisCacheManager.getCacheNames();
+    }
+
+    private Cache createCache(String name) {
+        Cache redisCache = redisCacheManager.getCache(name);
+        if (redisCache == null) {
+            return null;
+        }
+
+        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, name, Tags.of("cacheManager", "near"));
+
+        TwoLevelCache cache = new TwoLevelCache(name, localCache, redisCache, invalidator);
+        invalidator.register(cache);
+        return cache;
+    }
+}
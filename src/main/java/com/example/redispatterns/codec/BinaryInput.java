@@ -0,0 +1,98 @@
+package com.example.redispatterns.codec;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * {@link BinaryOutput}으로 쓴 값을 같은 순서로 읽습니다.
+ */
+public class BinaryInput {
+
+    private final byte[] bytes;
+    private final BinaryRedisSerializer registry;
+    private int position;
+
+    BinaryInput(byte[] bytes, int offset, BinaryRedisSerializer registry) {
+        this.bytes = bytes;
+        this.position = offset;
+        this.registry = registry;
+    }
+
+    public int readByte() {
+        if (position >= bytes.length) {
+            throw new IllegalStateException("Unexpected end of binary value at position " + position);
+        }
+        return bytes[position++] & 0xFF;
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public long readVarLong() {
+        long zigzag = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public byte[] readBytes() {
+        int length = readVarInt();
+        if (length < 0 || position + length > bytes.length) {
+            throw new IllegalStateException("Invalid length " + length + " at position " + position);
+        }
+        byte[] result = Arrays.copyOfRange(bytes, position, position + length);
+        position += length;
+        return result;
+    }
+
+    public Long readLong() {
+        return readPresence() ? readVarLong() : null;
+    }
+
+    public String readString() {
+        return readPresence() ? new String(readBytes(), StandardCharsets.UTF_8) : null;
+    }
+
+    public BigDecimal readBigDecimal() {
+        if (!readPresence()) {
+            return null;
+        }
+        int scale = (int) readVarLong();
+        return new BigDecimal(new BigInteger(readBytes()), scale);
+    }
+
+    public LocalDateTime readLocalDateTime() {
+        if (!readPresence()) {
+            return null;
+        }
+        long epochSecond = readVarLong();
+        int nano = readVarInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    public Object readObject() {
+        return registry.readObject(this);
+    }
+
+    private boolean readPresence() {
+        return readByte() != 0;
+    }
+}
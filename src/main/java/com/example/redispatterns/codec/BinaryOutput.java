@@ -0,0 +1,95 @@
+package com.example.redispatterns.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 바이너리 코덱의 쓰기 버퍼입니다.
+ * 정수는 varint(부호 있는 값은 zigzag), nullable 필드는 1바이트 존재 플래그 뒤에 값을 씁니다.
+ */
+public class BinaryOutput {
+
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(64);
+    private final BinaryRedisSerializer registry;
+
+    BinaryOutput(BinaryRedisSerializer registry) {
+        this.registry = registry;
+    }
+
+    public void writeByte(int value) {
+        buffer.write(value);
+    }
+
+    /**
+     * 음수가 아닌 int를 varint로 씁니다 (길이, 타입 ID 등).
+     */
+    public void writeVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer.write(value);
+    }
+
+    /**
+     * 부호 있는 long을 zigzag varint로 씁니다.
+     */
+    public void writeVarLong(long value) {
+        long zigzag = (value << 1) ^ (value >> 63);
+        while ((zigzag & ~0x7FL) != 0) {
+            buffer.write((int) ((zigzag & 0x7F) | 0x80));
+            zigzag >>>= 7;
+        }
+        buffer.write((int) zigzag);
+    }
+
+    public void writeBytes(byte[] bytes) {
+        writeVarInt(bytes.length);
+        buffer.writeBytes(bytes);
+    }
+
+    public void writeLong(Long value) {
+        if (writePresence(value)) {
+            writeVarLong(value);
+        }
+    }
+
+    public void writeString(String value) {
+        if (writePresence(value)) {
+            writeBytes(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public void writeBigDecimal(BigDecimal value) {
+        if (writePresence(value)) {
+            writeVarLong(value.scale());
+            writeBytes(value.unscaledValue().toByteArray());
+        }
+    }
+
+    public void writeLocalDateTime(LocalDateTime value) {
+        if (writePresence(value)) {
+            writeVarLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(value.getNano());
+        }
+    }
+
+    /**
+     * 등록된 타입이면 바이너리로, 아니면 폴백 직렬화(JSON)로 중첩 객체를 씁니다.
+     */
+    public void writeObject(Object value) {
+        registry.writeObject(this, value);
+    }
+
+    byte[] toByteArray() {
+        return buffer.toByteArray();
+    }
+
+    private boolean writePresence(Object value) {
+        buffer.write(value != null ? 1 : 0);
+        return value != null;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.redispatterns.codec;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 등록된 타입을 타입 ID + 스키마 버전 기반 바이너리로 저장하는 RedisSerializer입니다.
+ *
+ * 형식: {@code [MAGIC][typeId varint][version][payload]}
+ * - 클래스 이름 대신 타입 ID만 저장하므로 기본 타입 정보가 포함된 JSON보다 훨씬 작습니다.
+ * - 등록되지 않은 타입(예: Lua 스크립트 인자로 쓰는 숫자/문자열)은 폴백 직렬화(JSON)를 그대로 사용합니다.
+ * - 첫 바이트가 MAGIC이 아닌 값은 폴백으로 읽으므로 기존 JSON 항목도 계속 읽을 수 있습니다 (마이그레이션).
+ */
+public class BinaryRedisSerializer implements RedisSerializer<Object> {
+
+    // JSON 문서는 0x80 이상의 바이트로 시작할 수 없으므로 JSON과 구분됩니다
+    static final byte MAGIC = (byte) 0xB1;
+
+    private static final int NULL_TYPE_ID = 0;
+    private static final int FALLBACK_TYPE_ID = 1;
+    public static final int FIRST_USER_TYPE_ID = 16;
+
+    private final RedisSerializer<Object> fallback;
+    private final Map<Class<?>, Registration<?>> registrationsByType = new ConcurrentHashMap<>();
+    private final Map<Integer, Registration<?>> registrationsById = new ConcurrentHashMap<>();
+
+    public BinaryRedisSerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * 타입을 등록합니다. 타입 ID는 저장된 데이터의 일부이므로 한 번 정하면 바꾸면 안 됩니다.
+     */
+    public <T> BinaryRedisSerializer register(int typeId, Class<T> type, TypeCodec<T> codec) {
+        if (typeId < FIRST_USER_TYPE_ID) {
+            throw new IllegalArgumentException("Type id must be >= " + FIRST_USER_TYPE_ID + ": " + typeId);
+        }
+        Registration<T> registration = new Registration<>(typeId, type, codec);
+        if (registrationsById.putIfAbsent(typeId, registration) != null) {
+            throw new IllegalArgumentException("Duplicate type id: " + typeId);
+        }
+        registrationsByType.put(type, registration);
+        return this;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null || !registrationsByType.containsKey(value.getClass())) {
+            return fallback.serialize(value);
+        }
+
+        BinaryOutput out = new BinaryOutput(this);
+        out.writeByte(MAGIC);
+        writeObject(out, value);
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+
+        try {
+            return new BinaryInput(bytes, 1, this).readObject();
+        } catch (SerializationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not read binary value", e);
+        }
+    }
+
+    void writeObject(BinaryOutput out, Object value) {
+        if (value == null) {
+            out.writeVarInt(NULL_TYPE_ID);
+            return;
+        }
+
+        Registration<?> registration = registrationsByType.get(value.getClass());
+        if (registration == null) {
+            out.writeVarInt(FALLBACK_TYPE_ID);
+            out.writeBytes(fallback.serialize(value));
+            return;
+        }
+
+        out.writeVarInt(registration.typeId());
+        out.writeByte(registration.codec().version());
+        registration.write(value, out);
+    }
+
+    Object readObject(BinaryInput in) {
+        int typeId = in.readVarInt();
+        if (typeId == NULL_TYPE_ID) {
+            return null;
+        }
+        if (typeId == FALLBACK_TYPE_ID) {
+            return fallback.deserialize(in.readBytes());
+        }
+
+        Registration<?> registration = registrationsById.get(typeId);
+        if (registration == null) {
+            throw new SerializationException("Unknown type id: " + typeId);
+        }
+        int version = in.readByte();
+        if (version > registration.codec().version()) {
+            throw new SerializationException("Unsupported version " + version + " for type "
+                    + registration.type().getName());
+        }
+        return registration.codec().read(in, version);
+    }
+
+    private record Registration<T>(int typeId, Class<T> type, TypeCodec<T> codec) {
+
+        void write(Object value, BinaryOutput out) {
+            codec.write(type.cast(value), out);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.redispatterns.codec;
+
+/**
+ * 하나의 타입을 바이너리 스키마로 인코딩/디코딩합니다.
+ *
+ * 필드 순서가 곧 스키마이므로, 필드를 추가/변경할 때는 {@link #version()}을 올리고
+ * {@link #read(BinaryInput, int)}에서 이전 버전도 계속 읽을 수 있게 유지해야 합니다.
+ */
+public interface TypeCodec<T> {
+
+    /**
+     * 현재 쓰기에 사용하는 스키마 버전입니다.
+     */
+    int version();
+
+    void write(T value, BinaryOutput out);
+
+    /**
+     * @param version 값이 기록될 때의 스키마 버전
+     */
+    T read(BinaryInput in, int version);
+}
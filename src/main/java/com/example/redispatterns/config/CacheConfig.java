@@ -1,47 +1,214 @@
 package com.example.redispatterns.config;
 
+import com.example.redispatterns.cache.CacheTtlPolicy;
+import com.example.redispatterns.cache.DecoratingCacheManager;
+import com.example.redispatterns.cache.MeteredCache;
+import com.example.redispatterns.cache.NearCacheInvalidator;
+import com.example.redispatterns.cache.RedisBatchCache;
+import com.example.redispatterns.cache.RefreshAheadCache;
+import com.example.redispatterns.cache.SingleFlightCache;
+import com.example.redispatterns.cache.SingleFlightLoader;
+import com.example.redispatterns.cache.TwoLevelCacheManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.interceptor.CacheErrorHandler;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CachePolicyProperties.class)
 public class CacheConfig {
     private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
 
+    @Value("${app.cache.near.enabled:true}")
+    private boolean nearCacheEnabled;
+
+    @Value("${app.cache.near.maximum-size:10000}")
+    private long nearCacheMaximumSize;
+
+    @Value("${app.cache.near.expire-after-write:60000}")
+    private long nearCacheExpireAfterWriteMillis;
+
+    @Value("${app.cache.single-flight.lease-ttl:5000}")
+    private long singleFlightLeaseTtlMillis;
+
+    @Value("${app.cache.single-flight.max-wait:3000}")
+    private long singleFlightMaxWaitMillis;
+
+    @Value("${app.cache.single-flight.poll-interval:50}")
+    private long singleFlightPollIntervalMillis;
+
+    @Value("${app.cache.refresh-ahead.enabled:true}")
+    private boolean refreshAheadEnabled;
+
+    @Value("${app.cache.refresh-ahead.beta:1.0}")
+    private double refreshAheadBeta;
+
     /**
-     * Redis 연결 팩토리가 존재할 때만 CacheManager를 구성합니다.
+     * 캐시 이름별 정책(app.cache.policies)으로 Redis CacheManager를 구성하고,
+     * near cache가 켜져 있으면 그 앞에 프로세스 내부 L1을 둡니다.
+     * 그 위에서 캐시 미스 로드를 single-flight로 합치고, 만료가 가까운 항목은 미리 갱신합니다.
+     * 가장 바깥의 MeteredCache가 적중/미스/저장/삭제 횟수와 로드 시간을 기록합니다.
      */
     @Bean
-    @ConditionalOnBean(RedisConnectionFactory.class)
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public CacheManager cacheManager(CachePolicyProperties cachePolicyProperties,
+                                     RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer,
+                                     SingleFlightLoader singleFlightLoader,
+                                     @Qualifier("cacheRefreshExecutor") Executor cacheRefreshExecutor,
+                                     @Qualifier("redisValueSerializer") RedisSerializer<Object> redisValueSerializer,
+                                     MeterRegistry meterRegistry) {
         log.info("Configuring Redis cache manager");
 
+        RedisSerializationContext.SerializationPair<Object> valueSerializationPair =
+                RedisSerializationContext.SerializationPair.fromSerializer(redisValueSerializer);
+
+        Map<String, RedisCacheConfiguration> initialCacheConfigurations = new HashMap<>();
+        cachePolicyProperties.getPolicies().keySet().forEach(cacheName -> {
+            CachePolicyProperties.Policy policy = cachePolicyProperties.resolve(cacheName);
+            log.info("Cache policy for '{}': {}", cacheName, policy);
+            initialCacheConfigurations.put(cacheName, createCacheConfiguration(policy, valueSerializationPair));
+        });
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(createCacheConfiguration(cachePolicyProperties.getDefaults(), valueSerializationPair))
+                .withInitialCacheConfigurations(initialCacheConfigurations)
+                .build();
+
+        // 배치 조회(MGET)/저장(파이프라인)을 지원하도록 RedisCache를 감쌉니다
+        CacheManager cacheManager = new DecoratingCacheManager(redisCacheManager, cache -> {
+            RedisBatchCache batchCache = new RedisBatchCache((RedisCache) cache, connectionFactory,
+                    maxValueBytes(cachePolicyProperties.resolve(cache.getName())));
+            FunctionCounter.builder("cache.oversized.rejections", batchCache, RedisBatchCache::getOversizedValueCount)
+                    .tag("cache", cache.getName())
+                    .description("Values not cached because they exceeded max-value-size")
+                    .register(meterRegistry);
+            return batchCache;
+        });
+
+        if (nearCacheEnabled) {
+            log.info("Enabling near cache (L1) - maximumSize={}, expireAfterWrite={}ms",
+                    nearCacheMaximumSize, nearCacheExpireAfterWriteMillis);
+            NearCacheInvalidator invalidator = new NearCacheInvalidator(stringRedisTemplate);
+            redisMessageListenerContainer.addMessageListener(invalidator, new ChannelTopic(NearCacheInvalidator.CHANNEL));
+
+            cacheManager = new TwoLevelCacheManager(
+                    cacheManager,
+                    invalidator,
+                    nearCacheMaximumSize,
+                    Duration.ofMillis(nearCacheExpireAfterWriteMillis),
+                    meterRegistry);
+        }
+
+        cacheManager = new DecoratingCacheManager(cacheManager,
+                cache -> new SingleFlightCache(cache, singleFlightLoader));
+
+        if (refreshAheadEnabled) {
+            log.info("Enabling refresh-ahead - beta={}", refreshAheadBeta);
+            cacheManager = new DecoratingCacheManager(cacheManager, cache -> {
+                CachePolicyProperties.Policy policy = cachePolicyProperties.resolve(cache.getName());
+                // sliding 캐시는 GETEX가 Redis TTL만 연장하므로, 값에 만료 시각을 기록하지 않고 만료 전 갱신도 하지 않습니다
+                RefreshAheadCache refreshAheadCache = new RefreshAheadCache(cache, createTtlPolicy(policy),
+                        refreshAheadBeta, Boolean.TRUE.equals(policy.getSliding()), cacheRefreshExecutor);
+                FunctionCounter.builder("cache.refresh.ahead", refreshAheadCache, RefreshAheadCache::getRefreshCount)
+                        .tag("cache", cache.getName())
+                        .description("Background refreshes triggered before expiry")
+                        .register(meterRegistry);
+                return refreshAheadCache;
+            });
+        }
+
+        return new DecoratingCacheManager(cacheManager, cache -> new MeteredCache(cache, meterRegistry));
+    }
+
+    private RedisCacheConfiguration createCacheConfiguration(CachePolicyProperties.Policy policy,
+                                                             RedisSerializationContext.SerializationPair<Object> valueSerializationPair) {
         RedisCacheConfiguration cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(10))
+                .entryTtl(createTtlPolicy(policy))
                 .disableCachingNullValues()
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(
-                        RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
+                .serializeValuesWith(valueSerializationPair);
 
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(cacheConfiguration)
-                .build();
+        // 조회할 때마다 TTL을 연장 (GETEX, Redis 6.2+)
+        if (Boolean.TRUE.equals(policy.getSliding())) {
+            cacheConfiguration = cacheConfiguration.enableTimeToIdle();
+        }
+        return cacheConfiguration;
+    }
+
+    private CacheTtlPolicy createTtlPolicy(CachePolicyProperties.Policy policy) {
+        int jitterPercent = policy.getJitterPercent() != null ? policy.getJitterPercent() : 0;
+        return new CacheTtlPolicy(policy.getTtl(), jitterPercent);
+    }
+
+    private long maxValueBytes(CachePolicyProperties.Policy policy) {
+        return policy.getMaxValueSize() != null ? policy.getMaxValueSize().toBytes() : 0;
+    }
+
+    /**
+     * refresh-ahead 백그라운드 재로드용 스레드 풀입니다.
+     * 큐가 가득 차면 갱신을 건너뛰고 다음 조회에서 다시 시도합니다.
+     */
+    @Bean(name = "cacheRefreshExecutor")
+    public ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 캐시 미스 로드를 노드 내부(in-flight future)와 노드 간(Redis 리스)으로 합치는 로더입니다.
+     * 로드/합류 횟수를 집계하므로 절약된 저장소 호출 수를 확인할 수 있습니다.
+     */
+    @Bean
+    public SingleFlightLoader singleFlightLoader(StringRedisTemplate stringRedisTemplate) {
+        return new SingleFlightLoader(
+                stringRedisTemplate,
+                Duration.ofMillis(singleFlightLeaseTtlMillis),
+                Duration.ofMillis(singleFlightMaxWaitMillis),
+                Duration.ofMillis(singleFlightPollIntervalMillis));
+    }
+
+    /**
+     * 노드 간 L1 캐시 무효화 메시지와 결제 완료 알림을 구독하기 위한 리스너 컨테이너입니다.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
     }
 
     /**
@@ -49,31 +216,44 @@ public class CacheConfig {
      * EX) @Cacheable 조회 시 Redis 연결 오류가 나면 저장소에서 조회해 반환하고, 오류는 로그로만 남깁니다.
      */
     @Bean
-    public CacheErrorHandler cacheErrorHandler() {
+    public CacheErrorHandler cacheErrorHandler(MeterRegistry meterRegistry) {
         return new CacheErrorHandler() {
             @Override
             public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+                countFallback(cache, "get");
                 log.warn("[CacheFallback] GET 실패 - cache={}, key={}, reason={}",
                         cache != null ? cache.getName() : "unknown", key, exception.toString());
             }
 
             @Override
             public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+                countFallback(cache, "put");
                 log.warn("[CacheFallback] PUT 실패 - cache={}, key={}, reason={}",
                         cache != null ? cache.getName() : "unknown", key, exception.toString());
             }
 
             @Override
             public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+                countFallback(cache, "evict");
                 log.warn("[CacheFallback] EVICT 실패 - cache={}, key={}, reason={}",
                         cache != null ? cache.getName() : "unknown", key, exception.toString());
             }
 
             @Override
             public void handleCacheClearError(RuntimeException exception, Cache cache) {
+                countFallback(cache, "clear");
                 log.warn("[CacheFallback] CLEAR 실패 - cache={}, reason={}",
                         cache != null ? cache.getName() : "unknown", exception.toString());
             }
+
+            private void countFallback(Cache cache, String operation) {
+                Counter.builder("cache.fallbacks")
+                        .tag("cache", cache != null ? cache.getName() : "unknown")
+                        .tag("operation", operation)
+                        .description("Cache operations that failed and fell back to the repository")
+                        .register(meterRegistry)
+                        .increment();
+            }
         };
     }
 }
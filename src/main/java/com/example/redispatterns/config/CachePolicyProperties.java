@@ -0,0 +1,114 @@
+package com.example.redispatterns.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 캐시 이름별 정책 설정입니다 (app.cache.defaults / app.cache.policies.{cacheName}).
+ * 캐시별 정책에서 지정하지 않은 항목은 defaults 값을 사용합니다.
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CachePolicyProperties {
+
+    private Policy defaults = new Policy(Duration.ofMinutes(10), 10, false, null);
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    /**
+     * 캐시 이름에 적용할 최종 정책을 계산합니다.
+     */
+    public Policy resolve(String cacheName) {
+        Policy policy = policies.get(cacheName);
+        if (policy == null) {
+            return defaults;
+        }
+        return new Policy(
+                policy.getTtl() != null ? policy.getTtl() : defaults.getTtl(),
+                policy.getJitterPercent() != null ? policy.getJitterPercent() : defaults.getJitterPercent(),
+                policy.getSliding() != null ? policy.getSliding() : defaults.getSliding(),
+                policy.getMaxValueSize() != null ? policy.getMaxValueSize() : defaults.getMaxValueSize()
+        );
+    }
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Policy defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(Map<String, Policy> policies) {
+        this.policies = policies;
+    }
+
+    public static class Policy {
+        // 항목 TTL
+        private Duration ttl;
+        // TTL ± jitter(%) 범위에서 무작위 TTL을 사용
+        private Integer jitterPercent;
+        // 조회 시 TTL을 다시 연장 (time-to-idle, Redis 6.2+ GETEX)
+        private Boolean sliding;
+        // 직렬화된 값이 이 크기를 넘으면 캐시하지 않음 (null이면 제한 없음)
+        private DataSize maxValueSize;
+
+        public Policy() {
+        }
+
+        public Policy(Duration ttl, Integer jitterPercent, Boolean sliding, DataSize maxValueSize) {
+            this.ttl = ttl;
+            this.jitterPercent = jitterPercent;
+            this.sliding = sliding;
+            this.maxValueSize = maxValueSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Integer getJitterPercent() {
+            return jitterPercent;
+        }
+
+        public void setJitterPercent(Integer jitterPercent) {
+            this.jitterPercent = jitterPercent;
+        }
+
+        public Boolean getSliding() {
+            return sliding;
+        }
+
+        public void setSliding(Boolean sliding) {
+            this.sliding = sliding;
+        }
+
+        public DataSize getMaxValueSize() {
+            return maxValueSize;
+        }
+
+        public void setMaxValueSize(DataSize maxValueSize) {
+            this.maxValueSize = maxValueSize;
+        }
+
+        @Override
+        public String toString() {
+            return "Policy{" +
+                    "ttl=" + ttl +
+                    ", jitterPercent=" + jitterPercent +
+                    ", sliding=" + sliding +
+                    ", maxValueSize=" + maxValueSize +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.redispatterns.config;
+
+import com.example.redispatterns.cache.SingleFlightLoader;
+import com.example.redispatterns.product.ProductIdFilter;
+import com.example.redispatterns.product.ProductWriteBehindBuffer;
+import io.lettuce.core.metrics.MicrometerOptions;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 캐시/Redis 관련 컴포넌트가 집계하는 값을 Micrometer에 등록합니다.
+ * 모든 메트릭은 {@code /actuator/prometheus}에서 수집할 수 있습니다.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Lettuce 명령별 지연 시간(lettuce.command.completion / firstresponse)을 히스토그램으로 기록합니다.
+     * Prometheus에서 histogram_quantile로 명령별 백분위수를 계산할 수 있습니다.
+     */
+    @Bean
+    public MicrometerOptions micrometerOptions() {
+        return MicrometerOptions.builder()
+                .histogram(true)
+                .build();
+    }
+
+    @Bean
+    public MeterBinder singleFlightMetrics(SingleFlightLoader singleFlightLoader) {
+        return registry -> {
+            FunctionCounter.builder("cache.single.flight.loads", singleFlightLoader, SingleFlightLoader::getLoadCount)
+                    .description("Cache misses that actually invoked the loader")
+                    .register(registry);
+            FunctionCounter.builder("cache.single.flight.coalesced", singleFlightLoader, SingleFlightLoader::getLocalCoalescedCount)
+                    .tag("scope", "local")
+                    .description("Cache misses that joined an in-flight load")
+                    .register(registry);
+            FunctionCounter.builder("cache.single.flight.coalesced", singleFlightLoader, SingleFlightLoader::getRemoteCoalescedCount)
+                    .tag("scope", "remote")
+                    .description("Cache misses that waited for another node's load")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder productIdFilterMetrics(ProductIdFilter productIdFilter) {
+        return registry -> {
+            FunctionCounter.builder("product.id.filter.rejections", productIdFilter, ProductIdFilter::getRejectedCount)
+                    .description("Product lookups rejected by the Bloom filter")
+                    .register(registry);
+            Gauge.builder("product.id.filter.false.positive.rate", productIdFilter, ProductIdFilter::getEstimatedFalsePositiveRate)
+                    .description("Estimated false positive rate of the Bloom filter")
+                    .register(registry);
+            Gauge.builder("product.id.filter.elements", productIdFilter, ProductIdFilter::getEstimatedElementCount)
+                    .description("Estimated number of ids in the Bloom filter")
+                    .register(registry);
+            Gauge.builder("product.id.filter.bits", productIdFilter, ProductIdFilter::getBitSize)
+                    .description("Size of the Bloom filter bit array")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder productWriteBehindMetrics(ProductWriteBehindBuffer writeBehindBuffer) {
+        return registry -> {
+            Gauge.builder("product.write.behind.pending", writeBehindBuffer, ProductWriteBehindBuffer::getPendingCount)
+                    .description("Product updates waiting to be flushed")
+                    .register(registry);
+            FunctionCounter.builder("product.write.behind.coalesced", writeBehindBuffer, ProductWriteBehindBuffer::getCoalescedCount)
+                    .description("Product updates merged into an already pending update")
+                    .register(registry);
+            FunctionCounter.builder("product.write.behind.flushed", writeBehindBuffer, ProductWriteBehindBuffer::getFlushedCount)
+                    .description("Product updates written to the repository")
+                    .register(registry);
+            FunctionCounter.builder("product.write.behind.failures", writeBehindBuffer, ProductWriteBehindBuffer::getFlushFailureCount)
+                    .description("Failed write-behind flushes")
+                    .register(registry);
+            FunctionCounter.builder("product.write.behind.rejected", writeBehindBuffer, ProductWriteBehindBuffer::getRejectedCount)
+                    .description("Product updates rejected because max-pending was reached")
+                    .register(registry);
+        };
+    }
+}
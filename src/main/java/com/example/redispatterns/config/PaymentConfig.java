@@ -0,0 +1,32 @@
+package com.example.redispatterns.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class PaymentConfig {
+
+    /**
+     * 결제 대행사 응답 이후의 후처리(응답 저장, 락 해제)를 실행하는 스레드 풀입니다.
+     * 결제 대기 중에는 스레드를 점유하지 않으므로 풀 크기는 동시 결제 수가 아니라 Redis 후처리 처리량만 결정합니다.
+     * 작업을 넘기는 쪽이 결제 대행사의 타이머 스레드이므로, 큐가 가득 차도 호출한 스레드에서 실행하지 않고 거절합니다.
+     * 거절은 결제 서비스가 받아서 해당 결제의 future를 실패로 완료합니다.
+     * 결제 전에 app.payment.max-in-flight로 진행 중인 결제 수를 제한하므로, 그 값을 큐 용량 이하로 두면 거절되지 않습니다.
+     */
+    @Bean(name = "paymentExecutor")
+    public ThreadPoolTaskExecutor paymentExecutor(@Value("${app.payment.executor.pool-size:8}") int poolSize,
+                                                  @Value("${app.payment.executor.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
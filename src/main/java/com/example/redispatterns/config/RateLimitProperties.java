@@ -0,0 +1,224 @@
+package com.example.redispatterns.config;
+
+import com.example.redispatterns.ratelimit.RateLimitAlgorithmType;
+import com.example.redispatterns.ratelimit.RateLimitKeyType;
+import com.example.redispatterns.ratelimit.RateLimitMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 속도 제한 정책 설정입니다 (app.ratelimit).
+ *
+ * policies는 위에서부터 순서대로 비교하여 경로 패턴과 HTTP 메서드가 처음 일치하는 정책을 사용하고,
+ * 일치하는 정책이 없는 요청은 제한하지 않습니다. 정책에서 지정하지 않은 항목은 defaults 값을 사용합니다.
+ * 같은 형식의 정책을 Redis 해시(app.ratelimit.reload.key)에 두면 실행 중에도 반영됩니다.
+ */
+@ConfigurationProperties(prefix = "app.ratelimit")
+public class RateLimitProperties {
+
+    private Policy defaults = defaultPolicy();
+    private List<Policy> policies = new ArrayList<>();
+
+    /**
+     * 정책에서 지정하지 않은 항목을 defaults 값으로 채운 정책을 반환합니다.
+     */
+    public Policy resolve(Policy policy) {
+        Policy resolved = new Policy(
+                policy.getMode() != null ? policy.getMode() : defaults.getMode(),
+                policy.getAlgorithm() != null ? policy.getAlgorithm() : defaults.getAlgorithm(),
+                policy.getKey() != null ? policy.getKey() : defaults.getKey(),
+                policy.getLimit() != null ? policy.getLimit() : defaults.getLimit(),
+                policy.getWindowSeconds() != null ? policy.getWindowSeconds() : defaults.getWindowSeconds());
+        resolved.setName(policy.getName());
+        resolved.setPatterns(policy.getPatterns());
+        resolved.setMethods(policy.getMethods());
+        resolved.setKeyHeader(policy.getKeyHeader() != null ? policy.getKeyHeader() : defaults.getKeyHeader());
+        resolved.setTenantLimits(policy.getTenantLimits());
+        resolved.setMaxConcurrent(policy.getMaxConcurrent() != null ? policy.getMaxConcurrent() : defaults.getMaxConcurrent());
+        resolved.setMaxDelay(policy.getMaxDelay() != null ? policy.getMaxDelay() : defaults.getMaxDelay());
+        resolved.setMaxQueueDepth(policy.getMaxQueueDepth() != null ? policy.getMaxQueueDepth() : defaults.getMaxQueueDepth());
+        return resolved;
+    }
+
+    private static Policy defaultPolicy() {
+        Policy policy = new Policy(RateLimitMode.REDIS, RateLimitAlgorithmType.FIXED_WINDOW, RateLimitKeyType.IP, 20, 10);
+        policy.setMaxDelay(Duration.ofSeconds(1));
+        policy.setMaxQueueDepth(100);
+        return policy;
+    }
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Policy defaults) {
+        this.defaults = defaults;
+    }
+
+    public List<Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(List<Policy> policies) {
+        this.policies = policies;
+    }
+
+    public static class Policy {
+        private String name;
+        private List<String> patterns = new ArrayList<>();
+        // 비어 있으면 모든 메서드
+        private List<String> methods = new ArrayList<>();
+        private RateLimitMode mode;
+        private RateLimitAlgorithmType algorithm;
+        private RateLimitKeyType key;
+        // key가 api-key일 때 값을 읽을 헤더 (지정하지 않으면 X-API-Key)
+        private String keyHeader;
+        private Integer limit;
+        private Integer windowSeconds;
+        // 식별 값(API 키의 SHA-256 해시, 고객 ID)별 limit 재정의, api-key 정책에서는 여기에 등록된 키만 키별로 제한
+        private Map<String, Integer> tenantLimits = new LinkedHashMap<>();
+        // 키별 최대 동시 실행 수 (지정하지 않으면 동시 실행 수는 제한하지 않음)
+        private Integer maxConcurrent;
+        // THROTTLE 모드에서 요청을 지연시킬 수 있는 최대 시간과 키별 최대 대기 요청 수
+        private Duration maxDelay;
+        private Integer maxQueueDepth;
+
+        public Policy() {
+        }
+
+        public Policy(RateLimitMode mode, RateLimitAlgorithmType algorithm, RateLimitKeyType key,
+                      Integer limit, Integer windowSeconds) {
+            this.mode = mode;
+            this.algorithm = algorithm;
+            this.key = key;
+            this.limit = limit;
+            this.windowSeconds = windowSeconds;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getPatterns() {
+            return patterns;
+        }
+
+        public void setPatterns(List<String> patterns) {
+            this.patterns = patterns;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public RateLimitMode getMode() {
+            return mode;
+        }
+
+        public void setMode(RateLimitMode mode) {
+            this.mode = mode;
+        }
+
+        public RateLimitAlgorithmType getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(RateLimitAlgorithmType algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public RateLimitKeyType getKey() {
+            return key;
+        }
+
+        public void setKey(RateLimitKeyType key) {
+            this.key = key;
+        }
+
+        public String getKeyHeader() {
+            return keyHeader;
+        }
+
+        public void setKeyHeader(String keyHeader) {
+            this.keyHeader = keyHeader;
+        }
+
+        public Integer getLimit() {
+            return limit;
+        }
+
+        public void setLimit(Integer limit) {
+            this.limit = limit;
+        }
+
+        public Integer getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(Integer windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        public Map<String, Integer> getTenantLimits() {
+            return tenantLimits;
+        }
+
+        public void setTenantLimits(Map<String, Integer> tenantLimits) {
+            this.tenantLimits = tenantLimits;
+        }
+
+        public Integer getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(Integer maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public Duration getMaxDelay() {
+            return maxDelay;
+        }
+
+        public void setMaxDelay(Duration maxDelay) {
+            this.maxDelay = maxDelay;
+        }
+
+        public Integer getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        public void setMaxQueueDepth(Integer maxQueueDepth) {
+            this.maxQueueDepth = maxQueueDepth;
+        }
+
+        @Override
+        public String toString() {
+            return "Policy{" +
+                    "name='" + name + '\'' +
+                    ", patterns=" + patterns +
+                    ", methods=" + methods +
+                    ", mode=" + mode +
+                    ", algorithm=" + algorithm +
+                    ", key=" + key +
+                    ", limit=" + limit +
+                    ", windowSeconds=" + windowSeconds +
+                    ", maxConcurrent=" + maxConcurrent +
+                    ", maxDelay=" + maxDelay +
+                    ", maxQueueDepth=" + maxQueueDepth +
+                    '}';
+        }
+    }
+}
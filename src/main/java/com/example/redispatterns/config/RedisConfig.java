@@ -1,10 +1,20 @@
 package com.example.redispatterns.config;
 
+import com.example.redispatterns.cache.RefreshAheadValue;
+import com.example.redispatterns.cache.RefreshAheadValueCodec;
+import com.example.redispatterns.codec.BinaryRedisSerializer;
+import com.example.redispatterns.payment.PaymentResponse;
+import com.example.redispatterns.payment.PaymentResponseCodec;
+import com.example.redispatterns.product.Product;
+import com.example.redispatterns.product.ProductCodec;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.lettuce.core.resource.ClientResources;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.context.annotation.Bean;
@@ -16,7 +26,9 @@ import org.springframework.data.redis.connection.lettuce.LettuceClientConfigurat
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import java.time.Duration;
@@ -34,6 +46,16 @@ public class RedisConfig {
     @Value("${spring.data.redis.timeout:10000}")
     private int redisTimeout;
 
+    @Value("${app.ratelimit.circuit-breaker.call-timeout:100}")
+    private int rateLimitCallTimeout;
+
+    @Value("${app.redis.codec:binary}")
+    private String redisCodec;
+
+    // Boot가 만든 ClientResources에는 Lettuce 명령 지연 시간 메트릭 설정이 적용되어 있습니다
+    @Autowired
+    private ObjectProvider<ClientResources> clientResources;
+
     @Bean
     @Primary
     public ObjectMapper objectMapper() {
@@ -51,16 +73,40 @@ public class RedisConfig {
         return mapper;
     }
 
+    /**
+     * redisTemplate과 CacheManager가 함께 사용하는 값 직렬화기입니다.
+     *
+     * - json: 기본 타입 정보(@class)가 포함된 JSON
+     * - binary: 등록된 타입은 타입 ID 기반 바이너리로 쓰고, 기존 JSON 항목도 읽습니다 (마이그레이션 모드)
+     */
+    @Bean(name = "redisValueSerializer")
+    public RedisSerializer<Object> redisValueSerializer(@Qualifier("redisObjectMapper") ObjectMapper redisObjectMapper) {
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(redisObjectMapper);
+        if (!"binary".equalsIgnoreCase(redisCodec)) {
+            log.info("Using JSON codec for Redis values");
+            return jsonSerializer;
+        }
+
+        log.info("Using binary codec for Redis values (existing JSON entries remain readable)");
+        // 타입 ID는 저장된 데이터의 일부이므로 변경하지 마세요
+        return new BinaryRedisSerializer(jsonSerializer)
+                .register(16, Product.class, new ProductCodec())
+                .register(17, PaymentResponse.class, new PaymentResponseCodec())
+                .register(18, RefreshAheadValue.class, new RefreshAheadValueCodec());
+    }
+
     @Bean
+    @Primary
     public RedisConnectionFactory redisConnectionFactory() {
         try {
             RedisStandaloneConfiguration redisConfig = new RedisStandaloneConfiguration(redisHost, redisPort);
 
             // Lettuce 클라이언트에 연결 타임아웃을 설정합니다
-            LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+            LettuceClientConfiguration.LettuceClientConfigurationBuilder clientConfigBuilder = LettuceClientConfiguration.builder()
                     .commandTimeout(Duration.ofMillis(redisTimeout))
-                    .shutdownTimeout(Duration.ZERO)  // 즉시 종료
-                    .build();
+                    .shutdownTimeout(Duration.ZERO);  // 즉시 종료
+            clientResources.ifAvailable(clientConfigBuilder::clientResources);
+            LettuceClientConfiguration clientConfig = clientConfigBuilder.build();
 
             LettuceConnectionFactory connectionFactory = new LettuceConnectionFactory(redisConfig, clientConfig);
 
@@ -77,7 +123,8 @@ public class RedisConfig {
     }
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(@Qualifier("redisObjectMapper") ObjectMapper redisObjectMapper) {
+    @Primary
+    public RedisTemplate<String, Object> redisTemplate(@Qualifier("redisValueSerializer") RedisSerializer<Object> redisValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
 
         try {
@@ -85,7 +132,7 @@ public class RedisConfig {
             if (connectionFactory == null) {
                 log.warn("Redis connection factory is null. Creating a dummy RedisTemplate that will fail gracefully.");
                 // 실제 Redis가 없을 때도 메서드 호출시 안전하게 실패하도록 동작하는 템플릿을 반환
-                return createDummyRedisTemplate(redisObjectMapper);
+                return createDummyRedisTemplate(redisValueSerializer);
             }
 
             template.setConnectionFactory(connectionFactory);
@@ -93,30 +140,68 @@ public class RedisConfig {
             template.setKeySerializer(new StringRedisSerializer());
             template.setHashKeySerializer(new StringRedisSerializer());
 
-            GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(redisObjectMapper);
-            template.setValueSerializer(jsonSerializer);
-            template.setHashValueSerializer(jsonSerializer);
+            template.setValueSerializer(redisValueSerializer);
+            template.setHashValueSerializer(redisValueSerializer);
 
             template.afterPropertiesSet();
             log.info("Successfully created RedisTemplate");
             return template;
         } catch (Exception e) {
             log.error("Failed to create RedisTemplate: {}. Creating a dummy RedisTemplate that will fail gracefully.", e.getMessage());
-            return createDummyRedisTemplate(redisObjectMapper);
+            return createDummyRedisTemplate(redisValueSerializer);
         }
     }
 
+    /**
+     * 캐시 무효화 메시지, 리스(lease) 키처럼 문자열만 다루는 Redis 연산에 사용합니다.
+     */
+    @Bean
+    @Primary
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        return new StringRedisTemplate(redisConnectionFactory);
+    }
+
+    /**
+     * 속도 제한 전용 연결입니다. 기본 연결의 명령 타임아웃(10초) 대신 짧은 타임아웃을 사용하여,
+     * Redis가 느려져도 요청 스레드가 call-timeout 이상 기다리지 않도록 합니다.
+     */
+    @Bean(name = "rateLimitConnectionFactory")
+    public LettuceConnectionFactory rateLimitConnectionFactory() {
+        RedisStandaloneConfiguration redisConfig = new RedisStandaloneConfiguration(redisHost, redisPort);
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder clientConfigBuilder = LettuceClientConfiguration.builder()
+                .commandTimeout(Duration.ofMillis(rateLimitCallTimeout))
+                .shutdownTimeout(Duration.ZERO);
+        clientResources.ifAvailable(clientConfigBuilder::clientResources);
+
+        log.info("Configured rate limit Redis connection with timeout {}ms", rateLimitCallTimeout);
+        return new LettuceConnectionFactory(redisConfig, clientConfigBuilder.build());
+    }
+
+    @Bean(name = "rateLimitRedisTemplate")
+    public RedisTemplate<String, Object> rateLimitRedisTemplate(@Qualifier("redisValueSerializer") RedisSerializer<Object> redisValueSerializer) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(rateLimitConnectionFactory());
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setHashKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(redisValueSerializer);
+        template.setHashValueSerializer(redisValueSerializer);
+        return template;
+    }
+
+    @Bean(name = "rateLimitStringRedisTemplate")
+    public StringRedisTemplate rateLimitStringRedisTemplate() {
+        return new StringRedisTemplate(rateLimitConnectionFactory());
+    }
 
-    private RedisTemplate<String, Object> createDummyRedisTemplate(ObjectMapper redisObjectMapper) {
+    private RedisTemplate<String, Object> createDummyRedisTemplate(RedisSerializer<Object> redisValueSerializer) {
         log.warn("Creating a dummy RedisTemplate. Redis operations will fail gracefully.");
 
         RedisTemplate<String, Object> template = new RedisTemplate<>();
 
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(redisObjectMapper);
-        template.setValueSerializer(jsonSerializer);
-        template.setHashValueSerializer(jsonSerializer);
+        template.setValueSerializer(redisValueSerializer);
+        template.setHashValueSerializer(redisValueSerializer);
 
         return template;
     }
@@ -1,11 +1,13 @@
 package com.example.redispatterns.config;
 
 import com.example.redispatterns.ratelimit.RateLimitInterceptor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class WebConfig implements WebMvcConfigurer {
     
     private final RateLimitInterceptor rateLimitInterceptor;
@@ -16,11 +18,9 @@ public class WebConfig implements WebMvcConfigurer {
     
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        // 특정 경로에만 속도 제한(rate limiting) 적용
+        // 모든 엔드포인트에 적용하고, 실제 제한 여부는 app.ratelimit.policies로 결정
         registry.addInterceptor(rateLimitInterceptor)
-                .addPathPatterns("/payments/**");  // 결제 관련 엔드포인트에 적용
-                
-        // 모든 엔드포인트에 적용
-        // registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/**");
+                .addPathPatterns("/**")
+                .excludePathPatterns("/actuator/**");
     }
 }
\ No newline at end of file
@@ -1,19 +1,24 @@
 package com.example.redispatterns.exception;
 
 import com.example.redispatterns.payment.PaymentService;
+import com.example.redispatterns.product.ProductWriteBehindBuffer;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterValidationResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.NoSuchElementException;
 import java.util.Set;
@@ -56,6 +61,24 @@ public class GlobalExceptionHandler {
         return response;
     }
     
+    /**
+     * 컨트롤러 파라미터 제약 조건(@Size 등) 위반 처리 (400 Bad Request)
+     */
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleMethodValidation(HandlerMethodValidationException ex) {
+        ErrorResponse response = new ErrorResponse("VALIDATION_ERROR", "Validation failed");
+        
+        for (ParameterValidationResult result : ex.getAllValidationResults()) {
+            String field = result.getMethodParameter().getParameterName();
+            for (MessageSourceResolvable error : result.getResolvableErrors()) {
+                response.addFieldError(field, error.getDefaultMessage());
+            }
+        }
+        
+        return response;
+    }
+    
     /**
      * 필수 요청 헤더 누락 처리 (400 Bad Request)
      */
@@ -66,14 +89,54 @@ public class GlobalExceptionHandler {
     }
     
     /**
-     * 결제 처리 중 충돌 상황 처리 (409 Conflict)
+     * 결제는 승인되었지만 응답을 저장하지 못한 경우 처리 (500 Internal Server Error)
+     * 같은 키로 재시도하면 다시 결제될 수 있으므로 일반 처리 실패와 구분합니다.
      */
-    @ExceptionHandler(PaymentService.PaymentProcessingException.class)
+    @ExceptionHandler(PaymentService.PaymentNotRecordedException.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public ErrorResponse handlePaymentNotRecorded(PaymentService.PaymentNotRecordedException ex) {
+        return new ErrorResponse("PAYMENT_NOT_RECORDED", ex.getMessage());
+    }
+    
+    /**
+     * 같은 멱등성 키로 다른 요청이 처리 중인 경우 처리 (409 Conflict)
+     */
+    @ExceptionHandler(PaymentService.PaymentInProgressException.class)
     @ResponseStatus(HttpStatus.CONFLICT)
-    public ErrorResponse handlePaymentProcessing(PaymentService.PaymentProcessingException ex) {
+    public ErrorResponse handlePaymentInProgress(PaymentService.PaymentInProgressException ex) {
         return new ErrorResponse("PAYMENT_IN_PROGRESS", ex.getMessage());
     }
     
+    /**
+     * 결제 대행사 호출이 실패한 경우 처리 (502 Bad Gateway)
+     * 결제되지 않았으므로 같은 키로 다시 시도할 수 있습니다.
+     */
+    @ExceptionHandler(PaymentService.PaymentProcessingException.class)
+    @ResponseStatus(HttpStatus.BAD_GATEWAY)
+    public ErrorResponse handlePaymentProcessing(PaymentService.PaymentProcessingException ex) {
+        return new ErrorResponse("PAYMENT_FAILED", ex.getMessage());
+    }
+    
+    /**
+     * 진행 중인 결제 수가 상한에 도달하여 결제 전에 거절한 경우 처리 (503 Service Unavailable)
+     * 결제되지 않았으므로 같은 키로 다시 시도할 수 있습니다.
+     */
+    @ExceptionHandler(PaymentService.PaymentOverloadedException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentOverloaded(PaymentService.PaymentOverloadedException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse("PAYMENT_OVERLOADED", ex.getMessage()));
+    }
+    
+    /**
+     * write-behind 저장 대기열이 가득 찬 경우 처리 (503 Service Unavailable)
+     */
+    @ExceptionHandler(ProductWriteBehindBuffer.WriteBehindFullException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleWriteBehindFull(ProductWriteBehindBuffer.WriteBehindFullException ex) {
+        return new ErrorResponse("WRITE_BEHIND_FULL", ex.getMessage());
+    }
+    
     /**
      * 리소스를 찾을 수 없는 경우 처리 (404 Not Found)
      */
@@ -0,0 +1,42 @@
+package com.example.redispatterns.payment;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * 일괄 결제 요청의 한 항목입니다. 항목마다 멱등성 키를 따로 지정합니다.
+ */
+public class PaymentBatchItem {
+    @NotBlank(message = "Idempotency key is required")
+    private String idempotencyKey;
+    
+    @NotNull(message = "Payment is required")
+    @Valid
+    private PaymentRequest payment;
+    
+    // JSON 역직렬화를 위한 기본 생성자
+    public PaymentBatchItem() {
+    }
+    
+    public PaymentBatchItem(String idempotencyKey, PaymentRequest payment) {
+        this.idempotencyKey = idempotencyKey;
+        this.payment = payment;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public PaymentRequest getPayment() {
+        return payment;
+    }
+    
+    public void setPayment(PaymentRequest payment) {
+        this.payment = payment;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.redispatterns.payment;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * 일괄 결제 요청 본문입니다.
+ */
+public class PaymentBatchRequest {
+    // 한 요청에 담을 수 있는 최대 결제 수 (모든 항목이 배치 락 TTL 안에 끝나야 함)
+    public static final int MAX_ITEMS = 1000;
+    
+    @NotEmpty(message = "Payments are required")
+    @Size(max = MAX_ITEMS, message = "Too many payments in one batch")
+    @Valid
+    private List<PaymentBatchItem> payments;
+    
+    // JSON 역직렬화를 위한 기본 생성자
+    public PaymentBatchRequest() {
+    }
+    
+    public PaymentBatchRequest(List<PaymentBatchItem> payments) {
+        this.payments = payments;
+    }
+    
+    public List<PaymentBatchItem> getPayments() {
+        return payments;
+    }
+    
+    public void setPayments(List<PaymentBatchItem> payments) {
+        this.payments = payments;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.redispatterns.payment;
+
+/**
+ * 일괄 결제의 항목별 결과입니다.
+ *
+ * @param idempotencyKey 항목의 멱등성 키
+ * @param status 처리 결과
+ * @param response 결제 응답 (PROCESSED, CACHED, NOT_RECORDED일 때만)
+ */
+public record PaymentBatchResult(String idempotencyKey, Status status, PaymentResponse response) {
+
+    public enum Status {
+        // 이번 요청에서 결제하고 응답을 저장함
+        PROCESSED,
+        // 이미 처리된 키, 저장된 응답을 그대로 반환
+        CACHED,
+        // 같은 키로 다른 요청이 처리 중 (단건 요청의 409와 같음)
+        IN_PROGRESS,
+        // 결제에 실패하여 락만 해제함 (같은 키로 다시 시도 가능)
+        FAILED,
+        // 결제는 되었지만 응답을 저장하지 못함 (같은 키로 다시 시도하면 다시 결제될 수 있으므로 결제 ID로 먼저 확인)
+        NOT_RECORDED
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.redispatterns.payment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.example.redispatterns.payment.PaymentService.bytes;
+
+/**
+ * 여러 결제를 한 요청으로 처리합니다 (정산 파일 등).
+ *
+ * 항목 수와 관계없이 Redis 왕복은 두 번입니다.
+ * 1. 모든 항목의 idempotency_begin.lua를 파이프라인 하나로 보내 저장된 응답 확인과 락 획득을 끝냅니다
+ * 2. 락을 잡은 항목만 결제 대행사에 요청하며, 동시에 진행하는 결제는 max-concurrency건으로 제한합니다
+ * 3. 모든 결제가 끝나면 응답 저장(idempotency_complete.lua)과 실패 항목의 락 해제(idempotency_release.lua)를
+ *    파이프라인 하나로 보냅니다
+ * 락과 응답 키, 완료 알림은 {@link PaymentService}와 같으므로 같은 키의 단건 요청과 섞여도 한 번만 결제됩니다.
+ * 응답은 모든 항목이 끝난 뒤 저장되므로, 락은 배치 전체가 끝날 때까지 유지되도록 lock-ttl을 따로 둡니다.
+ */
+@Service
+public class PaymentBatchService {
+    private static final Logger log = LoggerFactory.getLogger(PaymentBatchService.class);
+    
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final PaymentGateway paymentGateway;
+    private final Executor paymentExecutor;
+    private final int maxConcurrency;
+    private final long lockTtlMillis;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> beginScript = PaymentService.loadScript("scripts/payment/idempotency_begin.lua", List.class);
+    private final RedisScript<Long> completeScript = PaymentService.loadScript("scripts/payment/idempotency_complete.lua", Long.class);
+    private final RedisScript<Long> releaseScript = PaymentService.loadScript("scripts/payment/idempotency_release.lua", Long.class);
+    
+    // PaymentService와 같은 카운터에 합산합니다
+    private final Counter idempotencyHitCounter;
+    private final Counter lockConflictCounter;
+    private final Counter processedCounter;
+    private final DistributionSummary batchItems;
+    
+    public PaymentBatchService(RedisTemplate<String, Object> redisTemplate,
+                               PaymentGateway paymentGateway,
+                               @Qualifier("paymentExecutor") Executor paymentExecutor,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.payment.batch.max-concurrency:64}") int maxConcurrency,
+                               @Value("${app.payment.batch.lock-ttl:120000}") long lockTtlMillis) {
+        this.redisTemplate = redisTemplate;
+        this.paymentGateway = paymentGateway;
+        this.paymentExecutor = paymentExecutor;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.lockTtlMillis = lockTtlMillis;
+        this.idempotencyHitCounter = createIdempotencyCounter(meterRegistry, "hit");
+        this.lockConflictCounter = createIdempotencyCounter(meterRegistry, "lock_conflict");
+        this.processedCounter = createIdempotencyCounter(meterRegistry, "processed");
+        this.batchItems = DistributionSummary.builder("payments.batch.items")
+                .description("Payments submitted in one batch request")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 배치 응답을 기다릴 최대 시간입니다. 이 시간이 지나면 락이 만료될 수 있으므로 요청도 끝냅니다.
+     */
+    public long timeoutMillis() {
+        return lockTtlMillis;
+    }
+    
+    /**
+     * 결제들을 일괄 처리합니다. 같은 멱등성 키가 여러 번 들어오면 처음 항목만 처리하고 나머지는 그 결과를 따릅니다.
+     * 
+     * 저장된 응답 확인과 락 획득은 호출한 스레드에서 바로 끝나고, 응답 저장은 paymentExecutor에서 실행됩니다.
+     * 결제가 끝난 뒤에는 실패로 끝내지 않습니다. 응답을 저장하지 못한 항목(Redis 오류, paymentExecutor 포화)은
+     * NOT_RECORDED와 결제 응답으로 돌려주므로, 호출자는 승인된 결제를 알 수 있습니다.
+     * 
+     * @param items 결제 항목 (항목마다 멱등성 키 포함)
+     * @return 요청 순서대로 항목별 결과로 완료되는 future
+     */
+    public CompletableFuture<List<PaymentBatchResult>> processBatchAsync(List<PaymentBatchItem> items) {
+        batchItems.record(items.size());
+        Map<String, Entry> entries = new LinkedHashMap<>();
+        for (PaymentBatchItem item : items) {
+            entries.putIfAbsent(item.getIdempotencyKey(), new Entry(item.getIdempotencyKey(), item.getPayment()));
+        }
+        
+        // 캐시된 응답 확인과 락 획득을 한 번의 왕복으로 처리
+        List<Entry> acquired = begin(new ArrayList<>(entries.values()));
+        log.info("Processing payment batch: items={}, new={}", items.size(), acquired.size());
+        
+        return PaymentService.handleOn(chargeAll(acquired), paymentExecutor, (ignored, error) -> {
+            // 응답 저장과 실패 항목의 락 해제를 한 번의 왕복으로 처리
+            finish(acquired);
+            return results(items, entries);
+        }, (ignored, error) -> {
+            // 타이머 스레드에서 Redis를 호출하지 않습니다. 락은 lock-ttl이 지나면 만료됩니다
+            log.error("Payment executor rejected batch post-processing: items={}", items.size());
+            markNotRecorded(acquired);
+            return results(items, entries);
+        });
+    }
+    
+    private static List<PaymentBatchResult> results(List<PaymentBatchItem> items, Map<String, Entry> entries) {
+        return items.stream()
+                .map(item -> entries.get(item.getIdempotencyKey()).result())
+                .toList();
+    }
+    
+    /**
+     * @return 락을 획득하여 결제해야 하는 항목
+     */
+    private List<Entry> begin(List<Entry> entries) {
+        byte[] lockTtl = bytes(String.valueOf(lockTtlMillis));
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisScriptingCommands scripting = connection.scriptingCommands();
+            // 스크립트가 Redis에 없어도(재시작 등) 이어지는 EVALSHA가 실패하지 않도록 같은 파이프라인에서 먼저 등록합니다
+            scripting.scriptLoad(bytes(beginScript.getScriptAsString()));
+            for (Entry entry : entries) {
+                scripting.evalSha(beginScript.getSha1(), ReturnType.MULTI, 2,
+                        bytes(PaymentService.IDEMPOTENCY_RESP_PREFIX + entry.key),
+                        bytes(PaymentService.IDEMPOTENCY_LOCK_PREFIX + entry.key),
+                        bytes(entry.lockToken), lockTtl);
+            }
+            return null;
+        }, null);
+        if (results.size() != entries.size() + 1) {
+            throw new IllegalStateException("Unexpected idempotency pipeline result size: " + results.size());
+        }
+        
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        List<Entry> acquired = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            List<?> begin = (List<?>) results.get(i + 1);
+            long state = ((Number) begin.get(0)).longValue();
+            if (state == PaymentService.BEGIN_CACHED) {
+                idempotencyHitCounter.increment();
+                entry.status = PaymentBatchResult.Status.CACHED;
+                entry.response = (PaymentResponse) valueSerializer.deserialize((byte[]) begin.get(1));
+            } else if (state == PaymentService.BEGIN_CONFLICT) {
+                lockConflictCounter.increment();
+                log.warn("Another request with the same idempotency key is being processed: {}", entry.key);
+                entry.status = PaymentBatchResult.Status.IN_PROGRESS;
+            } else {
+                acquired.add(entry);
+            }
+        }
+        return acquired;
+    }
+    
+    /**
+     * 결제를 max-concurrency건씩 진행하고, 모두 끝나면 완료되는 future를 반환합니다.
+     * 한 건이 끝날 때마다 다음 항목을 요청하므로 기다리는 동안 점유하는 스레드는 없습니다.
+     * 완료 콜백은 Redis를 호출하지 않으므로 결제 대행사 스레드에서 그대로 실행합니다.
+     */
+    private CompletableFuture<Void> chargeAll(List<Entry> entries) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (entries.isEmpty()) {
+            done.complete(null);
+            return done;
+        }
+        
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(entries.size());
+        for (int i = 0; i < Math.min(maxConcurrency, entries.size()); i++) {
+            chargeNext(entries, next, remaining, done);
+        }
+        return done;
+    }
+    
+    private void chargeNext(List<Entry> entries, AtomicInteger next, AtomicInteger remaining, CompletableFuture<Void> done) {
+        int index = next.getAndIncrement();
+        if (index >= entries.size()) {
+            return;
+        }
+        
+        Entry entry = entries.get(index);
+        paymentGateway.charge(entry.request).whenComplete((response, error) -> {
+            if (error == null) {
+                entry.status = PaymentBatchResult.Status.PROCESSED;
+                entry.response = response;
+            } else {
+                log.error("Payment processing failed for idempotency key: {}", entry.key, error);
+                entry.status = PaymentBatchResult.Status.FAILED;
+            }
+            
+            if (remaining.decrementAndGet() == 0) {
+                done.complete(null);
+            } else {
+                chargeNext(entries, next, remaining, done);
+            }
+        });
+    }
+    
+    /**
+     * 응답을 저장하고 실패 항목의 락을 해제합니다. 결제는 이미 끝났으므로 COMPLETE_ATTEMPTS번까지 다시 시도하고,
+     * 그래도 실패하면 결제된 항목을 NOT_RECORDED로 바꿉니다 (락은 lock-ttl이 지나면 만료됩니다).
+     */
+    private void finish(List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        
+        List<Object> results;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                results = writeBack(entries);
+                break;
+            } catch (RuntimeException e) {
+                if (attempt >= PaymentService.COMPLETE_ATTEMPTS) {
+                    log.error("Failed to store payment batch results: items={}", entries.size(), e);
+                    markNotRecorded(entries);
+                    return;
+                }
+                log.warn("Retrying to store payment batch results: items={}, reason={}", entries.size(), e.toString());
+            }
+        }
+        
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (entry.status != PaymentBatchResult.Status.PROCESSED) {
+                continue;
+            }
+            processedCounter.increment();
+            Object released = i + 2 < results.size() ? results.get(i + 2) : null;
+            if (!(released instanceof Number number) || number.longValue() == 0) {
+                log.warn("Idempotency lock expired before the response was stored: {}",
+                        PaymentService.IDEMPOTENCY_LOCK_PREFIX + entry.key);
+            }
+        }
+    }
+    
+    private List<Object> writeBack(List<Entry> entries) {
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            RedisScriptingCommands scripting = connection.scriptingCommands();
+            scripting.scriptLoad(bytes(completeScript.getScriptAsString()));
+            scripting.scriptLoad(bytes(releaseScript.getScriptAsString()));
+            for (Entry entry : entries) {
+                byte[] lockKey = bytes(PaymentService.IDEMPOTENCY_LOCK_PREFIX + entry.key);
+                byte[] channel = bytes(PaymentService.COMPLETION_CHANNEL_PREFIX + entry.key);
+                if (entry.status == PaymentBatchResult.Status.PROCESSED) {
+                    // 멱등성 키와 함께 응답을 저장하고, 이 배치가 잡은 락일 때만 해제
+                    scripting.evalSha(completeScript.getSha1(), ReturnType.INTEGER, 2,
+                            bytes(PaymentService.IDEMPOTENCY_RESP_PREFIX + entry.key), lockKey,
+                            bytes(entry.lockToken), valueSerializer.serialize(entry.response),
+                            PaymentService.RESPONSE_TTL_MILLIS, channel);
+                } else {
+                    scripting.evalSha(releaseScript.getSha1(), ReturnType.INTEGER, 1,
+                            lockKey, bytes(entry.lockToken), channel);
+                }
+            }
+            return null;
+        }, null);
+    }
+    
+    /**
+     * 결제되었지만 응답을 저장하지 못한 항목을 표시합니다. 결제 ID를 돌려주도록 응답은 그대로 둡니다.
+     */
+    private void markNotRecorded(List<Entry> entries) {
+        for (Entry entry : entries) {
+            if (entry.status == PaymentBatchResult.Status.PROCESSED) {
+                log.error("Payment charged but its response could not be stored: key={}, paymentId={}",
+                        entry.key, entry.response.getPaymentId());
+                entry.status = PaymentBatchResult.Status.NOT_RECORDED;
+            }
+        }
+    }
+    
+    private Counter createIdempotencyCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("idempotency.requests")
+                .tag("result", result)
+                .description("Idempotency-Key outcomes")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * 멱등성 키 하나의 처리 상태입니다. 결제 완료 콜백에서 쓰고, 모든 결제가 끝난 뒤에 읽습니다.
+     */
+    private static final class Entry {
+        private final String key;
+        private final PaymentRequest request;
+        private final String lockToken = UUID.randomUUID().toString();
+        private volatile PaymentBatchResult.Status status;
+        private volatile PaymentResponse response;
+        
+        private Entry(String key, PaymentRequest request) {
+            this.key = key;
+            this.request = request;
+        }
+        
+        PaymentBatchResult result() {
+            return new PaymentBatchResult(key, status, response);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.redispatterns.payment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 같은 멱등성 키로 처리 중인 요청이 있을 때, 409 대신 원래 요청의 결과를 기다렸다가 돌려줍니다.
+ *
+ * 기다리는 요청은 DeferredResult로 서블릿 스레드를 반납하고, 처리한 노드가 완료 알림 채널({@code idem:done:{key}})에
+ * 발행한 응답을 받으면 바로 응답합니다. 채널은 노드마다 패턴 구독 하나로 받고 키별 대기 목록으로 나눠 전달합니다.
+ * max-wait 안에 완료되지 않거나 원래 요청이 응답 없이 끝나면 409를 반환합니다.
+ */
+@Component
+public class PaymentCompletionWaiter implements MessageListener {
+    private static final Logger log = LoggerFactory.getLogger(PaymentCompletionWaiter.class);
+
+    private static final ResponseEntity<PaymentResponse> CONFLICT = ResponseEntity.status(HttpStatus.CONFLICT).body(null);
+
+    private final PaymentService paymentService;
+    private final RedisSerializer<Object> valueSerializer;
+    private final boolean enabled;
+    private final long maxWaitMillis;
+    // 키별로 기다리는 요청 (집합은 compute 안에서만 변경)
+    private final Map<String, Set<DeferredResult<ResponseEntity<PaymentResponse>>>> waiters = new ConcurrentHashMap<>();
+
+    private final Counter completedCounter;
+    private final Counter failedCounter;
+    private final Counter timeoutCounter;
+
+    public PaymentCompletionWaiter(PaymentService paymentService,
+                                   @Qualifier("redisValueSerializer") RedisSerializer<Object> valueSerializer,
+                                   RedisMessageListenerContainer redisMessageListenerContainer,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.payment.wait-for-completion.enabled:false}") boolean enabled,
+                                   @Value("${app.payment.wait-for-completion.max-wait:5000}") long maxWaitMillis) {
+        this.paymentService = paymentService;
+        this.valueSerializer = valueSerializer;
+        this.enabled = enabled;
+        this.maxWaitMillis = maxWaitMillis;
+        this.completedCounter = createWaitCounter(meterRegistry, "completed");
+        // 원래 요청이 응답 없이 끝나 409를 반환한 대기
+        this.failedCounter = createWaitCounter(meterRegistry, "failed");
+        this.timeoutCounter = createWaitCounter(meterRegistry, "timeout");
+
+        if (enabled) {
+            redisMessageListenerContainer.addMessageListener(this,
+                    new PatternTopic(PaymentService.COMPLETION_CHANNEL_PREFIX + "*"));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 같은 키로 처리 중인 요청이 끝나기를 기다립니다.
+     *
+     * @return 원래 요청의 응답(200) 또는 max-wait 초과 / 처리 실패 시 409로 완료되는 결과
+     */
+    public DeferredResult<ResponseEntity<PaymentResponse>> await(String idempotencyKey) {
+        DeferredResult<ResponseEntity<PaymentResponse>> result = new DeferredResult<>(maxWaitMillis, CONFLICT);
+        result.onTimeout(() -> {
+            timeoutCounter.increment();
+            log.warn("Timed out waiting for payment with idempotency key: {}", idempotencyKey);
+        });
+        result.onCompletion(() -> waiters.computeIfPresent(idempotencyKey, (key, pending) -> {
+            pending.remove(result);
+            return pending.isEmpty() ? null : pending;
+        }));
+        waiters.compute(idempotencyKey, (key, pending) -> {
+            Set<DeferredResult<ResponseEntity<PaymentResponse>>> updated = pending != null ? pending : new HashSet<>();
+            updated.add(result);
+            return updated;
+        });
+
+        // 등록하기 전에 완료 알림이 지나갔을 수 있으므로 저장된 응답을 한 번 확인합니다
+        try {
+            PaymentResponse stored = paymentService.findResponse(idempotencyKey);
+            if (stored != null && result.setResult(ResponseEntity.ok(stored))) {
+                completedCounter.increment();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to look up stored payment response: {}, reason={}", idempotencyKey, e.toString());
+        }
+        return result;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        Set<DeferredResult<ResponseEntity<PaymentResponse>>> pending =
+                waiters.remove(channel.substring(PaymentService.COMPLETION_CHANNEL_PREFIX.length()));
+        if (pending == null) {
+            return;
+        }
+
+        byte[] body = message.getBody();
+        ResponseEntity<PaymentResponse> response;
+        Counter counter;
+        if (body == null || body.length == 0) {
+            response = CONFLICT;
+            counter = failedCounter;
+        } else {
+            response = ResponseEntity.ok((PaymentResponse) valueSerializer.deserialize(body));
+            counter = completedCounter;
+        }
+        for (DeferredResult<ResponseEntity<PaymentResponse>> result : pending) {
+            if (result.setResult(response)) {
+                counter.increment();
+            }
+        }
+    }
+
+    private Counter createWaitCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("idempotency.waits")
+                .tag("result", result)
+                .description("Duplicate payment requests that waited for the original to complete")
+                .register(meterRegistry);
+    }
+}
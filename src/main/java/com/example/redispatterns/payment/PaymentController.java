@@ -6,6 +6,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/payments")
@@ -13,33 +18,125 @@ public class PaymentController {
     private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
     
     private final PaymentService paymentService;
+    private final PaymentCompletionWaiter completionWaiter;
+    private final PaymentStreamIntake streamIntake;
+    private final PaymentBatchService batchService;
     
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService,
+                             PaymentCompletionWaiter completionWaiter,
+                             PaymentStreamIntake streamIntake,
+                             PaymentBatchService batchService) {
         this.paymentService = paymentService;
+        this.completionWaiter = completionWaiter;
+        this.streamIntake = streamIntake;
+        this.batchService = batchService;
     }
     
     /**
      * 멱등성 키(Idempotency-Key)를 활용하여 결제를 처리합니다.
      * 
+     * 결제 대행사 응답을 기다리는 동안 요청 스레드를 반납하므로, 동시 결제 수가 서블릿 스레드 수에 묶이지 않습니다.
+     * 같은 키로 처리 중인 요청이 있으면 409를 반환하고, wait-for-completion이 켜져 있으면
+     * 스레드를 반납한 채 원래 요청이 끝나기를 기다렸다가 그 결과를 반환합니다.
+     * 
+     * stream 접수가 켜져 있으면 요청을 Redis Stream에 넣고 202와 상태 조회 URL(Location)을 바로 반환합니다.
+     * 이미 처리된 키는 저장된 응답(200)을, 처리 대기 건수가 가득 찼으면 503을 반환합니다.
+     * 
      * @param request 결제 요청 본문
      * @param idempotencyKey 클라이언트로부터 전달받은 멱등성 키(필수 헤더)
      * @return 결제 응답
      */
     @PostMapping
-    public ResponseEntity<PaymentResponse> processPayment(
+    public DeferredResult<ResponseEntity<PaymentResponse>> processPayment(
             @Valid @RequestBody PaymentRequest request,
             @RequestHeader(name = "Idempotency-Key", required = true) String idempotencyKey) {
         
         log.info("Received payment request with idempotency key: {}", idempotencyKey);
         
+        if (streamIntake.isEnabled()) {
+            DeferredResult<ResponseEntity<PaymentResponse>> accepted = new DeferredResult<>();
+            accepted.setResult(toResponse(streamIntake.submit(request, idempotencyKey), idempotencyKey));
+            return accepted;
+        }
+        
+        DeferredResult<ResponseEntity<PaymentResponse>> result = new DeferredResult<>();
         try {
-            PaymentResponse response = paymentService.processPayment(request, idempotencyKey);
-            return ResponseEntity.ok(response);
-        } catch (PaymentService.PaymentProcessingException e) {
+            paymentService.processPaymentAsync(request, idempotencyKey).whenComplete((response, error) -> {
+                if (error == null) {
+                    result.setResult(ResponseEntity.ok(response));
+                } else {
+                    // GlobalExceptionHandler가 처리하도록 원래 예외를 전달
+                    result.setErrorResult(error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error);
+                }
+            });
+        } catch (PaymentService.PaymentInProgressException e) {
+            if (completionWaiter.isEnabled()) {
+                return completionWaiter.await(idempotencyKey);
+            }
             // Return 409 Conflict if another request with the same key is being processed
-            return ResponseEntity
+            result.setResult(ResponseEntity
                     .status(HttpStatus.CONFLICT)
-                    .body(null);
+                    .body(null));
         }
+        return result;
+    }
+    
+    /**
+     * 여러 결제를 항목별 멱등성 키로 한 번에 처리합니다.
+     * 
+     * 항목 수와 관계없이 멱등성 확인과 응답 저장에 Redis 왕복 두 번만 사용하며,
+     * 항목별 결과(PROCESSED, CACHED, IN_PROGRESS, FAILED, NOT_RECORDED)를 요청 순서대로 반환합니다.
+     * 배치는 항목 수와 관계없이 /payments/** 요청 제한에 한 건으로 계산됩니다.
+     * 
+     * @param request 결제 항목 목록 (최대 {@value PaymentBatchRequest#MAX_ITEMS}건)
+     * @return 항목별 결과
+     */
+    @PostMapping("/batch")
+    public DeferredResult<ResponseEntity<List<PaymentBatchResult>>> processPaymentBatch(
+            @Valid @RequestBody PaymentBatchRequest request) {
+        
+        log.info("Received payment batch with {} items", request.getPayments().size());
+        
+        DeferredResult<ResponseEntity<List<PaymentBatchResult>>> result = new DeferredResult<>(batchService.timeoutMillis());
+        batchService.processBatchAsync(request.getPayments()).whenComplete((results, error) -> {
+            if (error == null) {
+                result.setResult(ResponseEntity.ok(results));
+            } else {
+                result.setErrorResult(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * 멱등성 키로 결제 상태를 조회합니다.
+     * 
+     * @return 처리된 결제는 200과 응답, 처리를 기다리는 결제는 202, 그 밖에는 404
+     */
+    @GetMapping("/{idempotencyKey}")
+    public ResponseEntity<PaymentResponse> getPayment(@PathVariable String idempotencyKey) {
+        PaymentIntakeStatus status = streamIntake.status(idempotencyKey);
+        return switch (status.state()) {
+            case COMPLETED -> ResponseEntity.ok(status.response());
+            case QUEUED -> ResponseEntity.status(HttpStatus.ACCEPTED).build();
+            default -> ResponseEntity.notFound().build();
+        };
+    }
+    
+    private ResponseEntity<PaymentResponse> toResponse(PaymentIntakeStatus status, String idempotencyKey) {
+        return switch (status.state()) {
+            case COMPLETED -> ResponseEntity.ok(status.response());
+            case QUEUED -> ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                            .path("/{key}")
+                            .buildAndExpand(idempotencyKey)
+                            .toUri())
+                    .build();
+            default -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "1")
+                    .build();
+        };
     }
-}
\ No newline at end of file
+}
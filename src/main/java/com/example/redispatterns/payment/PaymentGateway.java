@@ -0,0 +1,54 @@
+package com.example.redispatterns.payment;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 외부 결제 대행사 호출을 시뮬레이션합니다.
+ *
+ * 비동기 HTTP 클라이언트처럼 호출 즉시 future를 반환하고 processing-time이 지나면 완료하므로,
+ * 결제가 몇 건 진행 중이든 기다리는 동안 점유하는 스레드가 없습니다 (타이머 스레드 하나만 사용).
+ */
+@Component
+public class PaymentGateway implements DisposableBean {
+
+    private final long processingTimeMillis;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "payment-gateway");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public PaymentGateway(@Value("${app.payment.processing-time:1000}") long processingTimeMillis) {
+        this.processingTimeMillis = processingTimeMillis;
+    }
+
+    /**
+     * 결제를 요청하고, 승인되면 결제 응답으로 완료되는 future를 반환합니다.
+     */
+    public CompletableFuture<PaymentResponse> charge(PaymentRequest request) {
+        CompletableFuture<PaymentResponse> result = new CompletableFuture<>();
+        try {
+            timer.schedule(() -> result.complete(new PaymentResponse(
+                    request.getCustomerId(),
+                    request.getAmount(),
+                    request.getPaymentMethod()
+            )), processingTimeMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        timer.shutdownNow();
+    }
+}
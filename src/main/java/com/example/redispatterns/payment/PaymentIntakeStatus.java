@@ -0,0 +1,29 @@
+package com.example.redispatterns.payment;
+
+/**
+ * 스트림으로 접수한 결제의 상태입니다.
+ *
+ * @param state 상태
+ * @param response 처리가 끝난 경우 저장된 결제 응답, 그 외에는 null
+ */
+public record PaymentIntakeStatus(State state, PaymentResponse response) {
+
+    public enum State {
+        // 처리가 끝나 응답이 저장됨
+        COMPLETED,
+        // 접수되어 처리를 기다리거나 처리 중
+        QUEUED,
+        // 처리 대기 건수가 max-length에 도달하여 접수하지 않음
+        REJECTED,
+        // 접수된 적이 없거나 접수 기록이 만료됨
+        NOT_FOUND
+    }
+
+    static PaymentIntakeStatus of(State state) {
+        return new PaymentIntakeStatus(state, null);
+    }
+
+    static PaymentIntakeStatus completed(PaymentResponse response) {
+        return new PaymentIntakeStatus(State.COMPLETED, response);
+    }
+}
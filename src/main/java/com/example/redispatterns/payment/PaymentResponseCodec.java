@@ -0,0 +1,39 @@
+package com.example.redispatterns.payment;
+
+import com.example.redispatterns.codec.BinaryInput;
+import com.example.redispatterns.codec.BinaryOutput;
+import com.example.redispatterns.codec.TypeCodec;
+
+/**
+ * PaymentResponse 바이너리 스키마
+ * v1: paymentId, customerId, amount, paymentMethod, status, timestamp
+ */
+public class PaymentResponseCodec implements TypeCodec<PaymentResponse> {
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(PaymentResponse response, BinaryOutput out) {
+        out.writeString(response.getPaymentId());
+        out.writeString(response.getCustomerId());
+        out.writeBigDecimal(response.getAmount());
+        out.writeString(response.getPaymentMethod());
+        out.writeString(response.getStatus());
+        out.writeLocalDateTime(response.getTimestamp());
+    }
+
+    @Override
+    public PaymentResponse read(BinaryInput in, int version) {
+        PaymentResponse response = new PaymentResponse();
+        response.setPaymentId(in.readString());
+        response.setCustomerId(in.readString());
+        response.setAmount(in.readBigDecimal());
+        response.setPaymentMethod(in.readString());
+        response.setStatus(in.readString());
+        response.setTimestamp(in.readLocalDateTime());
+        return response;
+    }
+}
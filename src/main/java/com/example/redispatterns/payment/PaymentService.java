@@ -1,89 +1,352 @@
 package com.example.redispatterns.payment;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scripting.support.ResourceScriptSource;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
+/**
+ * Idempotency-Key 기반 결제 처리입니다.
+ *
+ * 요청당 Redis 왕복은 두 번입니다.
+ * 1. idempotency_begin.lua: 저장된 응답이 있으면 반환하고, 없으면 락을 잡습니다
+ * 2. idempotency_complete.lua: 응답을 저장하고, 락 토큰이 일치할 때만 락을 해제합니다
+ * 락이 TTL로 만료되어 다른 요청이 가져간 경우에도 그 락을 지우지 않습니다.
+ *
+ * 처리가 끝나면 완료 알림 채널({@code idem:done:{key}})에 응답을 발행하므로(실패 시 빈 메시지),
+ * 같은 키로 기다리는 요청은 {@link PaymentCompletionWaiter}가 폴링 없이 깨웁니다.
+ *
+ * 노드별로 진행 중인 결제 수를 max-in-flight로 제한하고, 가득 차면 결제 대행사를 호출하기 전에 거절합니다.
+ * 진행 중인 결제마다 후처리 작업은 하나뿐이므로 max-in-flight를 paymentExecutor의 큐 용량 이하로 두면
+ * 승인된 결제의 후처리가 거절되지 않습니다.
+ */
 @Service
 public class PaymentService {
     private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
     
     // Redis 키 prefix들
-    private static final String IDEMPOTENCY_LOCK_PREFIX = "idem:lock:";
-    private static final String IDEMPOTENCY_RESP_PREFIX = "idem:resp:";
+    static final String IDEMPOTENCY_LOCK_PREFIX = "idem:lock:";
+    static final String IDEMPOTENCY_RESP_PREFIX = "idem:resp:";
+    static final String COMPLETION_CHANNEL_PREFIX = "idem:done:";
     
     // TTL 값 설정
     private static final long LOCK_TTL_SECONDS = 30;
     private static final long RESPONSE_TTL_MINUTES = 10;
+    // 결제 후 응답 저장(idempotency_complete.lua) 시도 횟수
+    static final int COMPLETE_ATTEMPTS = 2;
+    
+    // idempotency_begin.lua 반환 상태
+    static final long BEGIN_CONFLICT = 0;
+    static final long BEGIN_CACHED = 1;
+    
+    private static final byte[] LOCK_TTL_MILLIS = bytes(String.valueOf(TimeUnit.SECONDS.toMillis(LOCK_TTL_SECONDS)));
+    static final byte[] RESPONSE_TTL_MILLIS = bytes(String.valueOf(TimeUnit.MINUTES.toMillis(RESPONSE_TTL_MINUTES)));
     
     private final RedisTemplate<String, Object> redisTemplate;
+    private final PaymentGateway paymentGateway;
+    private final Executor paymentExecutor;
+    private final Semaphore inFlight;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> beginScript = loadScript("scripts/payment/idempotency_begin.lua", List.class);
+    private final RedisScript<Long> completeScript = loadScript("scripts/payment/idempotency_complete.lua", Long.class);
+    private final RedisScript<Long> releaseScript = loadScript("scripts/payment/idempotency_release.lua", Long.class);
+    private final RedisSerializer<Long> longSerializer = new GenericToStringSerializer<>(Long.class);
+    
+    private final Counter idempotencyHitCounter;
+    private final Counter lockConflictCounter;
+    private final Counter processedCounter;
+    private final Counter overloadedCounter;
     
-    public PaymentService(RedisTemplate<String, Object> redisTemplate) {
+    public PaymentService(RedisTemplate<String, Object> redisTemplate,
+                          PaymentGateway paymentGateway,
+                          @Qualifier("paymentExecutor") Executor paymentExecutor,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.payment.max-in-flight:1000}") int maxInFlight) {
         this.redisTemplate = redisTemplate;
+        this.paymentGateway = paymentGateway;
+        this.paymentExecutor = paymentExecutor;
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.idempotencyHitCounter = createIdempotencyCounter(meterRegistry, "hit");
+        this.lockConflictCounter = createIdempotencyCounter(meterRegistry, "lock_conflict");
+        this.processedCounter = createIdempotencyCounter(meterRegistry, "processed");
+        this.overloadedCounter = Counter.builder("payments.overloaded")
+                .description("Payments rejected before charging because max-in-flight was reached")
+                .register(meterRegistry);
     }
     
     /**
-     * 멱등성 키를 활용하여 결제를 처리합니다.
+     * 멱등성 키를 활용하여 결제를 처리하고, 끝날 때까지 기다립니다.
      * 
      * @param request 결제 요청 객체
      * @param idempotencyKey 클라이언트가 제공한 멱등성 키
      * @return 결제 응답 객체
-     * @throws PaymentProcessingException 동일한 키로 다른 요청이 처리 중인 경우 발생
+     * @throws PaymentInProgressException 동일한 키로 다른 요청이 처리 중인 경우 발생
+     * @throws PaymentOverloadedException 진행 중인 결제 수가 max-in-flight에 도달한 경우 발생
      */
     public PaymentResponse processPayment(PaymentRequest request, String idempotencyKey) {
-        // 해당 멱등성 키에 대한 캐시된 응답이 이미 있는지 확인
-        String respKey = IDEMPOTENCY_RESP_PREFIX + idempotencyKey;
-        PaymentResponse cachedResponse = (PaymentResponse) redisTemplate.opsForValue().get(respKey);
-        
-        if (cachedResponse != null) {
-            log.info("Found cached response for idempotency key: {}", idempotencyKey);
-            return cachedResponse;
+        try {
+            return processPaymentAsync(request, idempotencyKey).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
-        
-        // 해당 멱등성 키에 대한 락을 획득 시도
+    }
+    
+    /**
+     * 멱등성 키를 활용하여 결제를 비동기로 처리합니다.
+     * 
+     * 멱등성 확인과 락 획득은 호출한 스레드에서 바로 끝나고, 결제 대행사 응답을 기다리는 동안에는 스레드를 점유하지 않습니다.
+     * 응답 저장과 락 해제는 paymentExecutor에서 실행됩니다.
+     * 결제는 승인되었지만 응답을 저장하지 못한 경우(저장 실패, paymentExecutor 포화)에는
+     * {@link PaymentNotRecordedException}으로 실패하므로, 호출자는 같은 키로 바로 재시도하지 않아야 합니다.
+     * 
+     * @param request 결제 요청 객체
+     * @param idempotencyKey 클라이언트가 제공한 멱등성 키
+     * @return 결제 응답으로 완료되는 future (저장된 응답이 있으면 이미 완료된 상태)
+     * @throws PaymentInProgressException 동일한 키로 다른 요청이 처리 중인 경우 발생
+     * @throws PaymentOverloadedException 진행 중인 결제 수가 max-in-flight에 도달한 경우 발생 (락을 잡기 전에 거절)
+     */
+    public CompletableFuture<PaymentResponse> processPaymentAsync(PaymentRequest request, String idempotencyKey) {
+        if (!inFlight.tryAcquire()) {
+            overloadedCounter.increment();
+            log.warn("Too many payments in flight, rejecting idempotency key: {}", idempotencyKey);
+            throw new PaymentOverloadedException("Too many payments in progress, retry later");
+        }
+        try {
+            CompletableFuture<PaymentResponse> result = charge(request, idempotencyKey);
+            result.whenComplete((response, error) -> inFlight.release());
+            return result;
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+    
+    private CompletableFuture<PaymentResponse> charge(PaymentRequest request, String idempotencyKey) {
+        String respKey = IDEMPOTENCY_RESP_PREFIX + idempotencyKey;
         String lockKey = IDEMPOTENCY_LOCK_PREFIX + idempotencyKey;
         String lockToken = UUID.randomUUID().toString();
+        byte[] channel = bytes(COMPLETION_CHANNEL_PREFIX + idempotencyKey);
         
-        Boolean lockAcquired = redisTemplate.opsForValue()
-                .setIfAbsent(lockKey, lockToken, LOCK_TTL_SECONDS, TimeUnit.SECONDS);
+        // 캐시된 응답 확인과 락 획득을 한 번의 왕복으로 처리
+        List<?> begin = begin(respKey, lockKey, lockToken);
+        long state = ((Number) begin.get(0)).longValue();
+        
+        if (state == BEGIN_CACHED) {
+            idempotencyHitCounter.increment();
+            log.info("Found cached response for idempotency key: {}", idempotencyKey);
+            return CompletableFuture.completedFuture((PaymentResponse) begin.get(1));
+        }
         
-        if (lockAcquired == null || !lockAcquired) {
+        if (state == BEGIN_CONFLICT) {
+            lockConflictCounter.increment();
             log.warn("Another request with the same idempotency key is being processed: {}", idempotencyKey);
-            throw new PaymentProcessingException("A payment with this idempotency key is already being processed");
+            throw new PaymentInProgressException("A payment with this idempotency key is already being processed");
         }
         
-        try {
-            // 결제 처리 로직을 시뮬레이션
-            log.info("Processing payment for customer: {}, amount: {}", request.getCustomerId(), request.getAmount());
-            Thread.sleep(1000); // 처리 시간 시뮬레이션
-            
-            // 결제 응답 생성
-            PaymentResponse response = new PaymentResponse(
-                    request.getCustomerId(),
-                    request.getAmount(),
-                    request.getPaymentMethod()
-            );
-            
-            // 멱등성 키와 함께 응답을 캐시에 저장
-            redisTemplate.opsForValue().set(respKey, response, RESPONSE_TTL_MINUTES, TimeUnit.MINUTES);
+        log.info("Processing payment for customer: {}, amount: {}", request.getCustomerId(), request.getAmount());
+        return handleOn(paymentGateway.charge(request), paymentExecutor, (response, error) -> {
+            if (error != null) {
+                release(lockKey, lockToken, channel);
+                log.error("Payment processing failed for idempotency key: {}", idempotencyKey, error);
+                throw new PaymentProcessingException("Payment processing failed");
+            }
             
+            // 멱등성 키와 함께 응답을 저장하고, 이 요청이 잡은 락일 때만 해제
+            try {
+                complete(respKey, lockKey, lockToken, channel, response);
+            } catch (RuntimeException e) {
+                // 기다리는 요청이 lock TTL까지 붙잡혀 있지 않도록 락을 풀고, 결제는 되었음을 구분해서 알립니다
+                release(lockKey, lockToken, channel);
+                log.error("Payment charged but its response could not be stored: key={}, paymentId={}",
+                        idempotencyKey, response.getPaymentId(), e);
+                throw new PaymentNotRecordedException(response.getPaymentId());
+            }
+            processedCounter.increment();
             return response;
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new PaymentProcessingException("Payment processing was interrupted");
-        } finally {
-            // Release the lock
-            redisTemplate.delete(lockKey);
+        }, (response, error) -> {
+            // 타이머 스레드에서 Redis를 호출하지 않습니다. 락은 TTL이 지나면 만료됩니다
+            log.error("Payment executor rejected post-processing for idempotency key: {}", idempotencyKey);
+            throw error == null
+                    ? new PaymentNotRecordedException(response.getPaymentId())
+                    : new PaymentProcessingException("Payment processing failed");
+        });
+    }
+    
+    /**
+     * source가 끝나면 executor에서 handler를 실행합니다.
+     * 
+     * handleAsync와 달리 executor가 작업을 거절해도 source를 완료한 스레드(결제 대행사 타이머 스레드)로 예외가 번지거나
+     * 이어지는 future가 끝나지 않는 일이 없고, 반환된 future는 rejected의 결과로 끝납니다.
+     * rejected는 source를 완료한 스레드에서 실행되므로 Redis를 호출하지 않아야 합니다.
+     * 실패한 future는 handleAsync와 같이 CompletionException으로 감싼 예외를 전달합니다.
+     */
+    static <T, R> CompletableFuture<R> handleOn(CompletableFuture<T> source, Executor executor,
+                                                BiFunction<? super T, Throwable, ? extends R> handler,
+                                                BiFunction<? super T, Throwable, ? extends R> rejected) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        source.whenComplete((value, error) -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        result.complete(handler.apply(value, error));
+                    } catch (Throwable t) {
+                        result.completeExceptionally(t instanceof CompletionException ? t : new CompletionException(t));
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                try {
+                    result.complete(rejected.apply(value, error));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t instanceof CompletionException ? t : new CompletionException(t));
+                }
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * 멱등성 키로 저장된 응답을 조회합니다.
+     * 
+     * @return 저장된 응답, 아직 처리 중이거나 처리된 적이 없으면 null
+     */
+    public PaymentResponse findResponse(String idempotencyKey) {
+        return (PaymentResponse) redisTemplate.opsForValue().get(IDEMPOTENCY_RESP_PREFIX + idempotencyKey);
+    }
+    
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private List<?> begin(String respKey, String lockKey, String lockToken) {
+        List<?> result = redisTemplate.execute(beginScript,
+                RedisSerializer.byteArray(),
+                (RedisSerializer) redisTemplate.getValueSerializer(),
+                List.of(respKey, lockKey),
+                bytes(lockToken), LOCK_TTL_MILLIS);
+        if (result == null || result.isEmpty()) {
+            throw new IllegalStateException("Unexpected idempotency script result: " + result);
+        }
+        return result;
+    }
+    
+    /**
+     * 응답을 저장합니다. 결제가 이미 끝났으므로 일시적인 Redis 오류는 COMPLETE_ATTEMPTS번까지 다시 시도합니다.
+     */
+    private void complete(String respKey, String lockKey, String lockToken, byte[] channel, PaymentResponse response) {
+        @SuppressWarnings("unchecked")
+        RedisSerializer<Object> valueSerializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+        byte[] serialized = valueSerializer.serialize(response);
+        Long released;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                released = redisTemplate.execute(completeScript,
+                        RedisSerializer.byteArray(),
+                        longSerializer,
+                        List.of(respKey, lockKey),
+                        bytes(lockToken), serialized, RESPONSE_TTL_MILLIS, channel);
+                break;
+            } catch (RuntimeException e) {
+                if (attempt >= COMPLETE_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Retrying to store payment response: {}, reason={}", respKey, e.toString());
+            }
+        }
+        if (released == null || released == 0) {
+            log.warn("Idempotency lock expired before the response was stored: {}", lockKey);
         }
     }
     
+    private void release(String lockKey, String lockToken, byte[] channel) {
+        try {
+            redisTemplate.execute(releaseScript,
+                    RedisSerializer.byteArray(),
+                    longSerializer,
+                    List.of(lockKey),
+                    bytes(lockToken), channel);
+        } catch (Exception e) {
+            // 해제하지 못한 락은 TTL이 지나면 만료됩니다
+            log.warn("Failed to release idempotency lock: {}, reason={}", lockKey, e.toString());
+        }
+    }
+    
+    static <T> RedisScript<T> loadScript(String path, Class<T> resultType) {
+        DefaultRedisScript<T> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(resultType);
+        return script;
+    }
+    
+    static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private Counter createIdempotencyCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("idempotency.requests")
+                .tag("result", result)
+                .description("Idempotency-Key outcomes")
+                .register(meterRegistry);
+    }
+    
     public static class PaymentProcessingException extends RuntimeException {
         public PaymentProcessingException(String message) {
             super(message);
         }
     }
+    
+    /**
+     * 결제는 승인되었지만 응답을 저장하지 못했을 때 발생합니다. 같은 키로 재시도하면 다시 결제될 수 있습니다.
+     */
+    public static class PaymentNotRecordedException extends PaymentProcessingException {
+        private final String paymentId;
+        
+        public PaymentNotRecordedException(String paymentId) {
+            super("Payment was charged but its result could not be recorded: paymentId=" + paymentId);
+            this.paymentId = paymentId;
+        }
+        
+        public String getPaymentId() {
+            return paymentId;
+        }
+    }
+    
+    /**
+     * 진행 중인 결제 수가 max-in-flight에 도달하여 결제 대행사를 호출하기 전에 거절했을 때 발생합니다.
+     * 결제되지 않았으므로 같은 키로 다시 시도해도 됩니다.
+     */
+    public static class PaymentOverloadedException extends RuntimeException {
+        public PaymentOverloadedException(String message) {
+            super(message);
+        }
+    }
+    
+    /**
+     * 같은 멱등성 키로 다른 요청이 처리 중일 때 발생합니다.
+     */
+    public static class PaymentInProgressException extends PaymentProcessingException {
+        public PaymentInProgressException(String message) {
+            super(message);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package com.example.redispatterns.payment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 결제 요청을 Redis Stream({@code payments:intake})에 접수만 하고 바로 반환합니다.
+ *
+ * 접수는 Lua 스크립트 한 번으로 처리합니다: 이미 저장된 응답이 있으면 그 응답을, 이미 접수된 키면 접수 상태를 반환하고,
+ * 처리 대기 건수가 max-length에 도달했으면 거절합니다. 실제 처리는 {@link PaymentStreamWorker}가
+ * {@link PaymentService}의 멱등성 처리를 그대로 사용하여 수행하고, 결과는 {@code idem:resp:{key}}에 저장됩니다.
+ */
+@Service
+public class PaymentStreamIntake {
+    private static final Logger log = LoggerFactory.getLogger(PaymentStreamIntake.class);
+
+    static final String STREAM_KEY = "payments:intake";
+    static final String CONSUMER_GROUP = "payment-workers";
+    static final String QUEUED_PREFIX = "idem:queued:";
+    static final String FIELD_KEY = "key";
+    static final String FIELD_REQUEST = "request";
+    // 결제는 되었지만 응답을 저장하지 못한 키의 접수 표시 값 접두사 (뒤에 결제 ID, intake_not_recorded.lua)
+    static final String NOT_RECORDED_MARKER = "unrecorded:";
+
+    // 처리를 기다리는 동안 같은 키의 재접수를 막는 표시 (처리되면 삭제)
+    private static final long QUEUED_TTL_MINUTES = 10;
+    private static final byte[] QUEUED_TTL_MILLIS =
+            PaymentService.bytes(String.valueOf(TimeUnit.MINUTES.toMillis(QUEUED_TTL_MINUTES)));
+
+    // intake_enqueue.lua 반환 상태
+    private static final long ENQUEUE_REJECTED = 0;
+    private static final long ENQUEUE_COMPLETED = 1;
+    private static final long ENQUEUE_DUPLICATE = 2;
+    private static final long ENQUEUE_NOT_RECORDED = 4;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final PaymentService paymentService;
+    private final boolean enabled;
+    private final byte[] maxLength;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> enqueueScript = PaymentService.loadScript("scripts/payment/intake_enqueue.lua", List.class);
+
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+
+    public PaymentStreamIntake(RedisTemplate<String, Object> redisTemplate,
+                               ObjectMapper objectMapper,
+                               PaymentService paymentService,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.payment.stream.enabled:false}") boolean enabled,
+                               @Value("${app.payment.stream.max-length:10000}") long maxLength) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.paymentService = paymentService;
+        this.enabled = enabled;
+        this.maxLength = PaymentService.bytes(String.valueOf(maxLength));
+        this.acceptedCounter = createIntakeCounter(meterRegistry, "accepted");
+        // 처리 대기 건수가 max-length에 도달하여 503으로 거절한 요청
+        this.rejectedCounter = createIntakeCounter(meterRegistry, "rejected");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 결제 요청을 접수합니다.
+     *
+     * @return COMPLETED(이미 처리된 키, 저장된 응답 포함) | QUEUED(접수됨 또는 이미 접수된 키) | REJECTED(대기열이 가득 참)
+     * @throws PaymentService.PaymentNotRecordedException 이 키로 결제는 되었지만 응답을 저장하지 못한 경우 (다시 접수하지 않음)
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public PaymentIntakeStatus submit(PaymentRequest request, String idempotencyKey) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize payment request", e);
+        }
+
+        List<?> result = redisTemplate.execute(enqueueScript,
+                RedisSerializer.byteArray(),
+                (RedisSerializer) redisTemplate.getValueSerializer(),
+                List.of(PaymentService.IDEMPOTENCY_RESP_PREFIX + idempotencyKey, QUEUED_PREFIX + idempotencyKey, STREAM_KEY),
+                maxLength, QUEUED_TTL_MILLIS, PaymentService.bytes(idempotencyKey), payload);
+        if (result == null || result.isEmpty()) {
+            throw new IllegalStateException("Unexpected intake script result: " + result);
+        }
+
+        long state = ((Number) result.get(0)).longValue();
+        if (state == ENQUEUE_COMPLETED) {
+            return PaymentIntakeStatus.completed((PaymentResponse) result.get(1));
+        }
+        if (state == ENQUEUE_NOT_RECORDED) {
+            throw notRecorded(idempotencyKey, readMarker(idempotencyKey));
+        }
+        if (state == ENQUEUE_REJECTED) {
+            rejectedCounter.increment();
+            log.warn("Payment intake stream is full, rejecting idempotency key: {}", idempotencyKey);
+            return PaymentIntakeStatus.of(PaymentIntakeStatus.State.REJECTED);
+        }
+        if (state != ENQUEUE_DUPLICATE) {
+            acceptedCounter.increment();
+        }
+        return PaymentIntakeStatus.of(PaymentIntakeStatus.State.QUEUED);
+    }
+
+    /**
+     * 멱등성 키로 결제 상태를 조회합니다.
+     *
+     * @throws PaymentService.PaymentNotRecordedException 결제는 되었지만 응답을 저장하지 못한 경우
+     */
+    public PaymentIntakeStatus status(String idempotencyKey) {
+        PaymentResponse response = paymentService.findResponse(idempotencyKey);
+        if (response != null) {
+            return PaymentIntakeStatus.completed(response);
+        }
+        String marker = readMarker(idempotencyKey);
+        if (marker == null) {
+            return PaymentIntakeStatus.of(PaymentIntakeStatus.State.NOT_FOUND);
+        }
+        if (marker.startsWith(NOT_RECORDED_MARKER)) {
+            throw notRecorded(idempotencyKey, marker);
+        }
+        return PaymentIntakeStatus.of(PaymentIntakeStatus.State.QUEUED);
+    }
+
+    /**
+     * 접수 표시는 스크립트가 문자열로 쓰므로 값 직렬화기를 거치지 않고 읽습니다.
+     */
+    private String readMarker(String idempotencyKey) {
+        byte[] marker = redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(PaymentService.bytes(QUEUED_PREFIX + idempotencyKey)));
+        return marker == null ? null : new String(marker, StandardCharsets.UTF_8);
+    }
+
+    private PaymentService.PaymentNotRecordedException notRecorded(String idempotencyKey, String marker) {
+        String paymentId = marker != null && marker.startsWith(NOT_RECORDED_MARKER)
+                ? marker.substring(NOT_RECORDED_MARKER.length()) : null;
+        log.warn("Payment was charged but not recorded for idempotency key: {}, paymentId={}", idempotencyKey, paymentId);
+        return new PaymentService.PaymentNotRecordedException(paymentId);
+    }
+
+    private Counter createIntakeCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payments.intake.requests")
+                .tag("result", result)
+                .description("Payment requests offered to the intake stream")
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.redispatterns.payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 결제 접수 스트림({@code payments:intake})을 컨슈머 그룹으로 읽어 처리하는 노드 내부 워커입니다.
+ *
+ * 1. 노드마다 workers개의 컨슈머가 XREADGROUP으로 새 메시지를 읽고, {@link PaymentService#processPaymentAsync}로 처리합니다
+ *    결제 대행사 응답을 기다리는 동안 스레드를 점유하지 않으며, 노드별 동시 처리 수는 max-in-flight로 제한합니다
+ * 2. 처리가 끝나면(응답 저장 또는 결제 실패) 메시지를 ACK하고 스트림에서 지웁니다
+ *    결제는 되었지만 응답을 저장하지 못했으면 다시 결제하지 않도록 ACK하고, 접수 표시에 결제 ID를 남깁니다
+ * 3. 다른 노드가 처리 중이거나 Redis 오류로 끝나지 않은 메시지는 ACK하지 않고 남겨 두며,
+ *    reclaim-interval마다 reclaim-idle 이상 ACK되지 않은 메시지를 XAUTOCLAIM으로 가져와 다시 처리합니다
+ *    (죽은 워커의 메시지 포함, 이미 처리된 키는 저장된 응답으로 끝나므로 중복 결제되지 않음)
+ *
+ * 동시 처리 수가 가득 차면 컨슈머는 자리가 날 때까지 acquire-timeout 단위로 기다리고,
+ * reclaim은 스케줄러 스레드를 붙잡지 않도록 한 번만 기다린 뒤 남은 메시지를 다음 reclaim으로 넘깁니다.
+ */
+@Component
+public class PaymentStreamWorker implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(PaymentStreamWorker.class);
+
+    // XAUTOCLAIM 시작 커서이자, 대기 목록을 끝까지 훑었을 때 돌아오는 커서
+    private static final String CURSOR_START = "0-0";
+
+    private final RedisConnectionFactory connectionFactory;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final PaymentService paymentService;
+    private final boolean enabled;
+    private final int workers;
+    private final int batchSize;
+    private final long pollTimeoutMillis;
+    private final long reclaimIdleMillis;
+    private final long acquireTimeoutMillis;
+    private final Semaphore inFlight;
+    private final String consumerName = "worker-" + UUID.randomUUID();
+    private final RedisScript<Long> ackScript = PaymentService.loadScript("scripts/payment/intake_ack.lua", Long.class);
+    private final RedisScript<Long> notRecordedScript = PaymentService.loadScript("scripts/payment/intake_not_recorded.lua", Long.class);
+
+    private final Counter processedCounter;
+    private final Counter retryCounter;
+    private final Counter droppedCounter;
+    private final Counter reclaimedCounter;
+    private final Counter notRecordedCounter;
+
+    private volatile StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+    private volatile boolean stopping;
+
+    public PaymentStreamWorker(RedisConnectionFactory connectionFactory,
+                               StringRedisTemplate redisTemplate,
+                               ObjectMapper objectMapper,
+                               PaymentService paymentService,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.payment.stream.enabled:false}") boolean enabled,
+                               @Value("${app.payment.stream.workers:2}") int workers,
+                               @Value("${app.payment.stream.batch-size:10}") int batchSize,
+                               @Value("${app.payment.stream.max-in-flight:256}") int maxInFlight,
+                               @Value("${app.payment.stream.poll-timeout:1000}") long pollTimeoutMillis,
+                               @Value("${app.payment.stream.reclaim-idle:60000}") long reclaimIdleMillis,
+                               @Value("${app.payment.stream.acquire-timeout:1000}") long acquireTimeoutMillis) {
+        this.connectionFactory = connectionFactory;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.paymentService = paymentService;
+        this.enabled = enabled;
+        this.workers = Math.max(1, workers);
+        this.batchSize = Math.max(1, batchSize);
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.reclaimIdleMillis = reclaimIdleMillis;
+        this.acquireTimeoutMillis = Math.max(1, acquireTimeoutMillis);
+        this.inFlight = new Semaphore(Math.max(1, maxInFlight));
+        this.processedCounter = createMessageCounter(meterRegistry, "processed");
+        // ACK하지 않고 남겨 두어 reclaim에서 다시 처리할 메시지
+        this.retryCounter = createMessageCounter(meterRegistry, "retry");
+        // 읽을 수 없는 메시지 (ACK하고 버림)
+        this.droppedCounter = createMessageCounter(meterRegistry, "dropped");
+        this.reclaimedCounter = createMessageCounter(meterRegistry, "reclaimed");
+        // 결제는 되었지만 응답을 저장하지 못한 메시지 (결제 ID를 접수 표시에 남기고 ACK)
+        this.notRecordedCounter = createMessageCounter(meterRegistry, "not_recorded");
+    }
+
+    /**
+     * 컨슈머 그룹을 만들고(이미 있으면 그대로 사용) 컨슈머들을 시작합니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForStream().createGroup(PaymentStreamIntake.STREAM_KEY, ReadOffset.from("0"),
+                    PaymentStreamIntake.CONSUMER_GROUP);
+        } catch (Exception e) {
+            // BUSYGROUP: 다른 노드가 이미 만든 그룹
+            log.debug("Payment consumer group already exists or could not be created: {}", e.toString());
+        }
+
+        StreamMessageListenerContainer.StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(Duration.ofMillis(pollTimeoutMillis))
+                        .batchSize(batchSize)
+                        .build();
+        StreamMessageListenerContainer<String, MapRecord<String, String, String>> created =
+                StreamMessageListenerContainer.create(connectionFactory, options);
+        for (int i = 0; i < workers; i++) {
+            created.register(StreamMessageListenerContainer.StreamReadRequest
+                            .builder(StreamOffset.create(PaymentStreamIntake.STREAM_KEY, ReadOffset.lastConsumed()))
+                            .consumer(Consumer.from(PaymentStreamIntake.CONSUMER_GROUP, consumerName + "-" + i))
+                            .autoAcknowledge(false)
+                            .cancelOnError(error -> false)
+                            .errorHandler(error -> log.warn("[PaymentStream] 읽기 실패 - reason={}", error.toString()))
+                            .build(),
+                    record -> onMessage(record, true));
+        }
+        created.start();
+        container = created;
+        log.info("[PaymentStream] 컨슈머 {}개 시작 - group={}, consumer={}", workers, PaymentStreamIntake.CONSUMER_GROUP, consumerName);
+    }
+
+    /**
+     * reclaim-idle 이상 ACK되지 않은 메시지(죽은 워커, 처리 실패)를 가져와 다시 처리합니다.
+     * 메시지마다 Redis 왕복이 있어 한 회차가 길어질 수 있으므로, 스케줄러 풀(spring.task.scheduling.pool.size)은
+     * 다른 주기 작업(hybrid 토큰 반환, write-behind 플러시 등)이 밀리지 않도록 작업 수만큼 둡니다.
+     */
+    @Scheduled(fixedDelayString = "${app.payment.stream.reclaim-interval:30000}")
+    public void reclaim() {
+        if (container == null || stopping) {
+            return;
+        }
+        reclaimPending();
+    }
+
+    /**
+     * XAUTOCLAIM 커서를 따라 대기 목록 끝까지(커서가 0-0으로 돌아올 때까지) batch-size건씩 가져와 처리합니다.
+     * 동시 처리 수가 가득 차면 나머지는 ACK하지 않은 채 다음 reclaim으로 넘깁니다.
+     *
+     * @return 다시 처리를 시작한 메시지 수
+     */
+    int reclaimPending() {
+        int started = 0;
+        String cursor = CURSOR_START;
+        do {
+            AutoClaimBatch batch;
+            try {
+                batch = autoClaim(cursor);
+            } catch (Exception e) {
+                log.warn("[PaymentStream] XAUTOCLAIM 실패 - reason={}", e.toString());
+                break;
+            }
+            reclaimedCounter.increment(batch.records().size());
+            for (MapRecord<String, String, String> record : batch.records()) {
+                if (!onMessage(record, false)) {
+                    log.info("[PaymentStream] 동시 처리 수가 가득 차 다음 reclaim에서 이어서 처리합니다 - 이번 회차 {}건", started);
+                    return started;
+                }
+                started++;
+            }
+            cursor = batch.nextCursor();
+        } while (!CURSOR_START.equals(cursor) && !stopping);
+
+        if (started > 0) {
+            log.info("[PaymentStream] 처리되지 않은 메시지 {}건을 다시 처리했습니다", started);
+        }
+        return started;
+    }
+
+    @Override
+    public void destroy() {
+        // 자리를 기다리는 컨슈머와 reclaim이 빠져나오도록 먼저 표시합니다
+        stopping = true;
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    /**
+     * 메시지 하나의 처리를 시작합니다.
+     *
+     * @param waitUntilStopped true면 동시 처리 수에 자리가 날 때까지(종료 전까지) 기다리고, false면 acquire-timeout만큼만 기다립니다
+     * @return 처리를 시작했거나 메시지를 끝냈으면 true, 자리가 나지 않아 ACK하지 않고 남겨 두었으면 false
+     */
+    boolean onMessage(MapRecord<String, String, String> record, boolean waitUntilStopped) {
+        String idempotencyKey = record.getValue().get(PaymentStreamIntake.FIELD_KEY);
+        PaymentRequest request;
+        try {
+            request = objectMapper.readValue(record.getValue().get(PaymentStreamIntake.FIELD_REQUEST), PaymentRequest.class);
+        } catch (Exception e) {
+            droppedCounter.increment();
+            log.error("[PaymentStream] 읽을 수 없는 메시지를 버립니다 - id={}, key={}", record.getId(), idempotencyKey, e);
+            acknowledge(record.getId(), idempotencyKey);
+            return true;
+        }
+
+        // 노드별 동시 처리 수 제한 (가득 차면 컨슈머가 다음 메시지를 읽지 않고 기다림)
+        if (!acquireSlot(waitUntilStopped)) {
+            // ACK하지 않은 메시지는 reclaim-idle이 지나면 reclaim에서 다시 처리합니다
+            retryCounter.increment();
+            return false;
+        }
+        try {
+            paymentService.processPaymentAsync(request, idempotencyKey).whenComplete((response, error) -> {
+                inFlight.release();
+                if (error != null && error.getCause() instanceof PaymentService.PaymentNotRecordedException notRecorded) {
+                    // 다시 처리하면 다시 결제되므로 ACK하되, 상태 조회와 재접수가 결제 ID를 받도록 표시를 남깁니다
+                    notRecordedCounter.increment();
+                    markNotRecorded(record.getId(), idempotencyKey, notRecorded.getPaymentId());
+                } else if (error == null || error.getCause() instanceof PaymentService.PaymentProcessingException) {
+                    // 응답이 저장되었거나 결제가 실패로 끝난 경우 (실패는 다시 시도하지 않음)
+                    processedCounter.increment();
+                    acknowledge(record.getId(), idempotencyKey);
+                } else {
+                    retryCounter.increment();
+                    log.warn("[PaymentStream] 처리 실패, reclaim에서 다시 시도합니다 - id={}, key={}, reason={}",
+                            record.getId(), idempotencyKey, error.toString());
+                }
+            });
+        } catch (PaymentService.PaymentInProgressException e) {
+            // 같은 키를 다른 요청이 처리 중: 그 결과가 저장된 뒤 reclaim에서 저장된 응답으로 끝납니다
+            inFlight.release();
+            retryCounter.increment();
+        } catch (Exception e) {
+            inFlight.release();
+            retryCounter.increment();
+            log.warn("[PaymentStream] 처리 시작 실패, reclaim에서 다시 시도합니다 - id={}, key={}, reason={}",
+                    record.getId(), idempotencyKey, e.toString());
+        }
+        return true;
+    }
+
+    private boolean acquireSlot(boolean waitUntilStopped) {
+        try {
+            do {
+                if (inFlight.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            } while (waitUntilStopped && !stopping);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private void acknowledge(RecordId id, String idempotencyKey) {
+        try {
+            redisTemplate.execute(ackScript,
+                    List.of(PaymentStreamIntake.STREAM_KEY, PaymentStreamIntake.QUEUED_PREFIX + idempotencyKey),
+                    PaymentStreamIntake.CONSUMER_GROUP, id.getValue());
+        } catch (Exception e) {
+            // ACK하지 못한 메시지는 reclaim에서 저장된 응답으로 다시 끝납니다
+            log.warn("[PaymentStream] ACK 실패 - id={}, reason={}", id, e.toString());
+        }
+    }
+
+    private void markNotRecorded(RecordId id, String idempotencyKey, String paymentId) {
+        try {
+            redisTemplate.execute(notRecordedScript,
+                    List.of(PaymentStreamIntake.STREAM_KEY, PaymentStreamIntake.QUEUED_PREFIX + idempotencyKey),
+                    PaymentStreamIntake.CONSUMER_GROUP, id.getValue(), paymentId, string(PaymentService.RESPONSE_TTL_MILLIS));
+        } catch (Exception e) {
+            // 표시하지 못하면 메시지가 남아 reclaim에서 다시 결제될 수 있으므로 결제 ID를 반드시 남깁니다
+            log.error("[PaymentStream] 결제는 되었지만 기록하지 못했습니다 - id={}, key={}, paymentId={}, reason={}",
+                    id, idempotencyKey, paymentId, e.toString());
+        }
+    }
+
+    /**
+     * XAUTOCLAIM으로 cursor부터 reclaim-idle 이상 ACK되지 않은 메시지를 최대 batch-size건 가져옵니다.
+     */
+    private AutoClaimBatch autoClaim(String cursor) {
+        Object reply = redisTemplate.execute((RedisCallback<Object>) connection -> connection.execute("XAUTOCLAIM",
+                bytes(PaymentStreamIntake.STREAM_KEY),
+                bytes(PaymentStreamIntake.CONSUMER_GROUP),
+                bytes(consumerName + "-reclaim"),
+                bytes(String.valueOf(reclaimIdleMillis)),
+                bytes(cursor),
+                bytes("COUNT"),
+                bytes(String.valueOf(batchSize))));
+        return parseAutoClaim(reply);
+    }
+
+    /**
+     * XAUTOCLAIM 응답을 읽습니다.
+     * 응답 형식: {@code [nextCursor, [[id, [field, value, ...]], ...], (Redis 7+) [deletedIds]]}
+     * 형식이 맞지 않으면 더 가져올 것이 없는 것(커서 0-0)으로 봅니다.
+     */
+    @SuppressWarnings("unchecked")
+    static AutoClaimBatch parseAutoClaim(Object reply) {
+        List<MapRecord<String, String, String>> records = new ArrayList<>();
+        if (!(reply instanceof List<?> parts) || parts.size() < 2 || !(parts.get(1) instanceof List<?> entries)) {
+            return new AutoClaimBatch(CURSOR_START, records);
+        }
+        for (Object entry : entries) {
+            List<Object> idAndFields = (List<Object>) entry;
+            // Redis 6.2는 삭제된 메시지의 필드를 nil로 반환합니다
+            if (idAndFields.size() < 2 || !(idAndFields.get(1) instanceof List<?> fields)) {
+                continue;
+            }
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i + 1 < fields.size(); i += 2) {
+                values.put(string(fields.get(i)), string(fields.get(i + 1)));
+            }
+            records.add(StreamRecords.newRecord()
+                    .in(PaymentStreamIntake.STREAM_KEY)
+                    .withId(RecordId.of(string(idAndFields.get(0))))
+                    .ofMap(values));
+        }
+        return new AutoClaimBatch(parts.get(0) == null ? CURSOR_START : string(parts.get(0)), records);
+    }
+
+    record AutoClaimBatch(String nextCursor, List<MapRecord<String, String, String>> records) {
+    }
+
+    private Counter createMessageCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payments.stream.messages")
+                .tag("result", result)
+                .description("Payment intake stream messages handled by this node")
+                .register(meterRegistry);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(Object value) {
+        return value instanceof byte[] raw ? new String(raw, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+}
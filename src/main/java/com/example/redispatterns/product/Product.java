@@ -1,5 +1,9 @@
 package com.example.redispatterns.product;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -8,8 +12,14 @@ public class Product implements Serializable {
     private static final long serialVersionUID = 1L;
     
     private Long id;
+    
+    @NotBlank(message = "Name is required")
     private String name;
+    
+    @NotNull(message = "Price is required")
+    @Positive(message = "Price must be positive")
     private BigDecimal price;
+    
     private String description;
     private LocalDateTime createdAt;
     
@@ -0,0 +1,130 @@
+package com.example.redispatterns.product;
+
+import com.example.redispatterns.cache.BatchCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 배포 직후 상품 캐시를 미리 채웁니다.
+ *
+ * 저장소에서 페이지 단위로 상품을 읽어 페이지마다 파이프라인 한 번으로 캐시에 저장합니다 (TTL은 jitter 적용).
+ * ApplicationRunner로 실행되므로 warm-up이 끝나거나 제한 시간이 지나야 애플리케이션이 ready 상태가 됩니다.
+ */
+@Component
+public class ProductCacheWarmer implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(ProductCacheWarmer.class);
+
+    private static final String PRODUCT_CACHE = "product";
+
+    private final ProductRepository productRepository;
+    private final CacheManager cacheManager;
+
+    @Value("${app.cache.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.cache.warmup.page-size:100}")
+    private int pageSize;
+
+    @Value("${app.cache.warmup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.cache.warmup.timeout:30000}")
+    private long timeoutMillis;
+
+    public ProductCacheWarmer(ProductRepository productRepository, CacheManager cacheManager) {
+        this.productRepository = productRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        Cache cache = cacheManager.getCache(PRODUCT_CACHE);
+        if (cache == null) {
+            log.warn("[WarmUp] '{}' 캐시를 찾을 수 없어 warm-up을 건너뜁니다", PRODUCT_CACHE);
+            return;
+        }
+
+        long total = productRepository.count();
+        int pages = (int) ((total + pageSize - 1) / pageSize);
+        log.info("[WarmUp] 시작 - products={}, pages={}, pageSize={}, parallelism={}", total, pages, pageSize, parallelism);
+
+        AtomicLong warmedKeys = new AtomicLong();
+        AtomicInteger completedPages = new AtomicInteger();
+        long startTime = System.nanoTime();
+
+        // 저장소와 Redis에 동시에 가해지는 부하를 parallelism 이내로 제한합니다
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("cache-warmup-"));
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>(pages);
+            for (int page = 0; page < pages; page++) {
+                int currentPage = page;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    int warmed = warmPage(cache, currentPage);
+                    long totalWarmed = warmedKeys.addAndGet(warmed);
+                    log.info("[WarmUp] 진행 - pages={}/{}, keys={}/{}, {} keys/s",
+                            completedPages.incrementAndGet(), pages, totalWarmed, total,
+                            keysPerSecond(totalWarmed, startTime));
+                }, executor));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(timeoutMillis, TimeUnit.MILLISECONDS);
+            log.info("[WarmUp] 완료 - keys={}, elapsed={}ms, {} keys/s",
+                    warmedKeys.get(), elapsedMillis(startTime), keysPerSecond(warmedKeys.get(), startTime));
+        } catch (TimeoutException e) {
+            log.warn("[WarmUp] 제한 시간 {}ms 초과, 남은 작업을 취소하고 트래픽을 받습니다 - keys={}/{}",
+                    timeoutMillis, warmedKeys.get(), total);
+        } catch (ExecutionException e) {
+            log.warn("[WarmUp] 일부 페이지 실패 - keys={}/{}, reason={}", warmedKeys.get(), total, e.getCause().toString());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("[WarmUp] 중단됨 - keys={}/{}", warmedKeys.get(), total);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private int warmPage(Cache cache, int page) {
+        long startTime = System.currentTimeMillis();
+        Map<Long, Product> products = new LinkedHashMap<>();
+        for (Product product : productRepository.findPage(page, pageSize)) {
+            products.put(product.getId(), product);
+        }
+        // 페이지 로드 시간을 함께 저장하여 warm-up 항목도 만료 전에 갱신되게 합니다 (refresh-ahead)
+        BatchCache.putAllLoadedTo(cache, products, System.currentTimeMillis() - startTime);
+        return products.size();
+    }
+
+    private long elapsedMillis(long startTime) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+    }
+
+    private long keysPerSecond(long keys, long startTime) {
+        long elapsed = Math.max(1, elapsedMillis(startTime));
+        return keys * 1000 / elapsed;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.redispatterns.product;
+
+import com.example.redispatterns.codec.BinaryInput;
+import com.example.redispatterns.codec.BinaryOutput;
+import com.example.redispatterns.codec.TypeCodec;
+
+/**
+ * Product 바이너리 스키마
+ * v1: id, name, price, description, createdAt
+ */
+public class ProductCodec implements TypeCodec<Product> {
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(Product product, BinaryOutput out) {
+        out.writeLong(product.getId());
+        out.writeString(product.getName());
+        out.writeBigDecimal(product.getPrice());
+        out.writeString(product.getDescription());
+        out.writeLocalDateTime(product.getCreatedAt());
+    }
+
+    @Override
+    public Product read(BinaryInput in, int version) {
+        Product product = new Product();
+        product.setId(in.readLong());
+        product.setName(in.readString());
+        product.setPrice(in.readBigDecimal());
+        product.setDescription(in.readString());
+        product.setCreatedAt(in.readLocalDateTime());
+        return product;
+    }
+}
@@ -1,18 +1,28 @@
 package com.example.redispatterns.product;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/products")
 public class ProductController {
     private static final Logger log = LoggerFactory.getLogger(ProductController.class);
     
+    // 한 번에 조회할 수 있는 최대 상품 수 (MGET 한 번과 저장소 조회 한 번의 크기를 제한)
+    static final int MAX_BATCH_IDS = 100;
+    
     private final ProductService productService;
     
     public ProductController(ProductService productService) {
@@ -32,4 +42,34 @@ public class ProductController {
         
         return ResponseEntity.ok(product);
     }
+    
+    /**
+     * 여러 상품을 한 번에 조회합니다. EX) GET /products?ids=1,2,3
+     * ID는 최대 {@value #MAX_BATCH_IDS}개까지 받으며, 넘으면 400을 반환합니다.
+     */
+    @GetMapping
+    public ResponseEntity<List<Product>> getProducts(
+            @RequestParam @Size(max = MAX_BATCH_IDS, message = "Too many product IDs in one request") List<Long> ids) {
+        log.info("Received batch request for product IDs: {}", ids);
+        
+        long startTime = System.currentTimeMillis();
+        List<Product> products = productService.getProducts(ids);
+        long endTime = System.currentTimeMillis();
+        
+        log.info("Batch request for {} product IDs completed in {} ms", ids.size(), (endTime - startTime));
+        
+        return ResponseEntity.ok(products);
+    }
+    
+    /**
+     * 상품을 수정합니다. 캐시는 바로 갱신되고 저장소 반영은 write-behind로 모아서 처리됩니다.
+     * 저장 대기 건수가 가득 차면 503을 반환합니다.
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product product) {
+        log.info("Received update request for product ID: {}", id);
+        
+        product.setId(id);
+        return ResponseEntity.ok(productService.updateProduct(product));
+    }
 }
\ No newline at end of file
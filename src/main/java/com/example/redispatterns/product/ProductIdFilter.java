@@ -0,0 +1,127 @@
+package com.example.redispatterns.product;
+
+import com.example.redispatterns.cache.RedisBloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 존재하는 상품 ID의 Bloom filter입니다 (Redis 키: {@code bloom:product:ids}).
+ *
+ * 존재하지 않는 ID는 저장소(2초 지연)를 거치지 않고 바로 거절합니다.
+ * 초기화 전이거나 비활성화된 경우에는 모든 ID를 통과시킵니다 (fail-open).
+ */
+@Component
+public class ProductIdFilter {
+    private static final Logger log = LoggerFactory.getLogger(ProductIdFilter.class);
+
+    private static final String FILTER_KEY = "bloom:product:ids";
+
+    private final ProductRepository productRepository;
+    private final RedisBloomFilter bloomFilter;
+    private final boolean enabled;
+    private volatile boolean initialized;
+    private final LongAdder rejected = new LongAdder();
+
+    public ProductIdFilter(ProductRepository productRepository,
+                           StringRedisTemplate stringRedisTemplate,
+                           @Value("${app.product.id-filter.enabled:true}") boolean enabled,
+                           @Value("${app.product.id-filter.expected-insertions:100000}") long expectedInsertions,
+                           @Value("${app.product.id-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.bloomFilter = new RedisBloomFilter(stringRedisTemplate, FILTER_KEY, expectedInsertions, falsePositiveRate);
+    }
+
+    /**
+     * 존재할 수도 있는 ID면 true, 확실히 존재하지 않는 ID면 false를 반환합니다.
+     */
+    public boolean mightContain(Long id) {
+        if (!enabled || !initialized) {
+            return true;
+        }
+        boolean result = bloomFilter.mightContain(String.valueOf(id));
+        if (!result) {
+            rejected.increment();
+        }
+        return result;
+    }
+
+    /**
+     * 저장소의 전체 ID로 로컬 필터를 채우고 Redis 비트맵에 병합합니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+
+        int count = 0;
+        for (Long id : productRepository.findAllIds()) {
+            bloomFilter.addLocal(String.valueOf(id));
+            count++;
+        }
+        initialized = true;
+        log.info("[BloomFilter] 상품 ID {}건으로 초기화 - bits={}, hashes={}",
+                count, bloomFilter.getBitSize(), bloomFilter.getHashCount());
+
+        try {
+            bloomFilter.publishToRedis();
+            bloomFilter.syncFromRedis();
+        } catch (Exception e) {
+            log.warn("[BloomFilter] Redis 동기화 실패, 로컬 필터만 사용합니다 - reason={}", e.toString());
+        }
+    }
+
+    /**
+     * 새 ID를 필터에 추가합니다 (로컬 + Redis 비트맵).
+     */
+    public void add(Long id) {
+        if (enabled) {
+            bloomFilter.add(String.valueOf(id));
+        }
+    }
+
+    @EventListener
+    public void onProductSaved(ProductSavedEvent event) {
+        add(event.product().getId());
+    }
+
+    /**
+     * 다른 노드에서 추가된 ID를 로컬 필터에 반영합니다.
+     */
+    @Scheduled(fixedDelayString = "${app.product.id-filter.sync-interval:30000}")
+    public void syncFromRedis() {
+        if (!enabled || !initialized) {
+            return;
+        }
+        try {
+            bloomFilter.syncFromRedis();
+        } catch (Exception e) {
+            log.warn("[BloomFilter] Redis 동기화 실패 - reason={}", e.toString());
+        }
+    }
+
+    public long getBitSize() {
+        return bloomFilter.getBitSize();
+    }
+
+    public double getEstimatedFalsePositiveRate() {
+        return bloomFilter.getEstimatedFalsePositiveRate();
+    }
+
+    public long getEstimatedElementCount() {
+        return bloomFilter.getEstimatedElementCount();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+}
@@ -2,22 +2,30 @@ package com.example.redispatterns.product;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Repository
 public class ProductRepository {
     private static final Logger log = LoggerFactory.getLogger(ProductRepository.class);
     
-    // 인메모리 Map (간단한 DB 대체 용도)
-    private final Map<Long, Product> productMap = new HashMap<>();
+    // 인메모리 Map (간단한 DB 대체 용도, write-behind 플러시 스레드와 동시에 접근)
+    private final Map<Long, Product> productMap = new ConcurrentHashMap<>();
     
-    public ProductRepository() {
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public ProductRepository(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
         productMap.put(1L, new Product(1L, "Laptop", new BigDecimal("1299.99"), "High-performance laptop"));
         productMap.put(2L, new Product(2L, "Smartphone", new BigDecimal("799.99"), "Latest smartphone model"));
         productMap.put(3L, new Product(3L, "Headphones", new BigDecimal("199.99"), "Noise-cancelling headphones"));
@@ -39,9 +47,91 @@ public class ProductRepository {
         return Optional.ofNullable(productMap.get(id));
     }
     
+    /**
+     * 여러 ID를 한 번의 조회로 가져옵니다 (IN 쿼리 시뮬레이션). 존재하지 않는 ID는 결과에서 빠집니다.
+     */
+    public List<Product> findAllById(Collection<Long> ids) {
+        log.info("Fetching {} products with IDs: {} from database", ids.size(), ids);
+        
+        // 느린 데이터베이스 조회를 시뮬레이션 (ID 개수와 무관하게 한 번의 왕복)
+        try {
+            TimeUnit.SECONDS.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Thread interrupted during simulated database delay", e);
+        }
+        
+        List<Product> products = new ArrayList<>();
+        for (Long id : ids) {
+            Product product = productMap.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
+    
+    /**
+     * ID 순서로 한 페이지의 상품을 조회합니다 (페이지 쿼리 시뮬레이션).
+     * 
+     * @param page 0부터 시작하는 페이지 번호
+     * @param size 페이지 크기
+     */
+    public List<Product> findPage(int page, int size) {
+        log.info("Fetching product page {} (size {}) from database", page, size);
+        
+        // 느린 데이터베이스 조회를 시뮬레이션 (페이지당 한 번의 왕복)
+        try {
+            TimeUnit.SECONDS.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Thread interrupted during simulated database delay", e);
+        }
+        
+        return productMap.keySet().stream()
+                .sorted()
+                .skip((long) page * size)
+                .limit(size)
+                .map(productMap::get)
+                .toList();
+    }
+    
+    public long count() {
+        return productMap.size();
+    }
+    
+    /**
+     * 전체 상품 ID를 조회합니다 (인덱스만 읽는 가벼운 조회이므로 지연 없음).
+     */
+    public Set<Long> findAllIds() {
+        return Set.copyOf(productMap.keySet());
+    }
+    
     public Product save(Product product) {
         log.info("Saving product: {}", product);
         productMap.put(product.getId(), product);
+        eventPublisher.publishEvent(new ProductSavedEvent(product));
         return product;
     }
+    
+    /**
+     * 여러 상품을 한 번의 쓰기로 저장합니다 (배치 INSERT/UPDATE 시뮬레이션).
+     */
+    public List<Product> saveAll(Collection<Product> products) {
+        log.info("Saving {} products in one batch", products.size());
+        
+        // 느린 데이터베이스 쓰기를 시뮬레이션 (상품 개수와 무관하게 한 번의 왕복)
+        try {
+            TimeUnit.SECONDS.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Thread interrupted during simulated database delay", e);
+        }
+        
+        for (Product product : products) {
+            productMap.put(product.getId(), product);
+            eventPublisher.publishEvent(new ProductSavedEvent(product));
+        }
+        return List.copyOf(products);
+    }
 }
\ No newline at end of file
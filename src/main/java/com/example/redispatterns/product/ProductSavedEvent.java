@@ -0,0 +1,7 @@
+package com.example.redispatterns.product;
+
+/**
+ * ProductRepository에 상품이 저장되었음을 알리는 이벤트입니다.
+ */
+public record ProductSavedEvent(Product product) {
+}
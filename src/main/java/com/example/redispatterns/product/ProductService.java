@@ -1,20 +1,40 @@
 package com.example.redispatterns.product;
 
+import com.example.redispatterns.cache.BatchCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 
 @Service
 public class ProductService {
     private static final Logger log = LoggerFactory.getLogger(ProductService.class);
     
+    private static final String PRODUCT_CACHE = "product";
+    
     private final ProductRepository productRepository;
+    private final CacheManager cacheManager;
+    private final ProductIdFilter productIdFilter;
+    private final ProductWriteBehindBuffer writeBehindBuffer;
     
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, CacheManager cacheManager,
+                          ProductIdFilter productIdFilter, ProductWriteBehindBuffer writeBehindBuffer) {
         this.productRepository = productRepository;
+        this.cacheManager = cacheManager;
+        this.productIdFilter = productIdFilter;
+        this.writeBehindBuffer = writeBehindBuffer;
     }
     
     /**
@@ -24,11 +44,144 @@ public class ProductService {
      * 1. 캐시에 상품이 있는지 확인
      * 2. 있으면 메서드 호출 없이 바로 반환
      * 3. 없으면 메서드를 실행하고 결과를 캐시에 저장
+     *
+     * sync = true이므로 같은 키의 동시 미스는 하나의 로드로 합쳐집니다 (SingleFlightCache).
+     * 캐시 미스여도 Bloom filter에 없는 ID는 저장소를 거치지 않고 바로 거절합니다.
+     * 저장소에 아직 반영되지 않은 변경(write-behind)이 있으면 저장소 대신 그 값을 반환합니다.
      */
-    @Cacheable(cacheNames = "product", key = "#id")
+    @Cacheable(cacheNames = PRODUCT_CACHE, key = "#id", sync = true)
     public Product getProduct(Long id) {
+        Product pendingProduct = writeBehindBuffer.find(id);
+        if (pendingProduct != null) {
+            return pendingProduct;
+        }
+        
+        if (!productIdFilter.mightContain(id)) {
+            throw new NoSuchElementException("Product not found with ID: " + id);
+        }
+        
         log.info("Cache miss for product ID: {}, fetching from repository", id);
         return productRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Product not found with ID: " + id));
     }
-}
\ No newline at end of file
+    
+    /**
+     * 여러 상품을 한 번에 조회합니다.
+     * 
+     * 1. 캐시 적중은 한 번의 MGET으로 확인
+     * 2. 미스는 write-behind 대기 값을 먼저 확인하고, 나머지만 한 번의 findAllById로 저장소에서 조회
+     * 3. 조회 결과는 한 번의 파이프라인으로 캐시에 저장 (TTL 포함)
+     * 
+     * @param ids 조회할 상품 ID 목록 (중복은 한 번만 조회)
+     * @return 요청 순서대로 정렬된 상품 목록 (존재하지 않는 ID는 제외)
+     */
+    public List<Product> getProducts(Collection<Long> ids) {
+        List<Long> distinctIds = ids.stream()
+                .distinct()
+                .filter(productIdFilter::mightContain)
+                .toList();
+        Map<Long, Product> products = new HashMap<>();
+        
+        Cache cache = cacheManager.getCache(PRODUCT_CACHE);
+        if (cache != null) {
+            try {
+                BatchCache.getAllFrom(cache, distinctIds)
+                        .forEach((key, value) -> products.put((Long) key, (Product) value));
+            } catch (RuntimeException e) {
+                log.warn("[CacheFallback] 배치 GET 실패 - cache={}, ids={}, reason={}",
+                        PRODUCT_CACHE, distinctIds, e.toString());
+            }
+        }
+        
+        List<Long> missingIds = distinctIds.stream()
+                .filter(id -> !products.containsKey(id))
+                .toList();
+        
+        if (!missingIds.isEmpty()) {
+            log.info("Cache miss for product IDs: {}, fetching from repository", missingIds);
+            long startTime = System.currentTimeMillis();
+            Map<Long, Product> loaded = new HashMap<>();
+            List<Long> storedIds = new ArrayList<>();
+            for (Long id : missingIds) {
+                Product pendingProduct = writeBehindBuffer.find(id);
+                if (pendingProduct != null) {
+                    loaded.put(id, pendingProduct);
+                } else {
+                    storedIds.add(id);
+                }
+            }
+            if (!storedIds.isEmpty()) {
+                for (Product product : productRepository.findAllById(storedIds)) {
+                    loaded.put(product.getId(), product);
+                }
+            }
+            long loadMillis = System.currentTimeMillis() - startTime;
+            products.putAll(loaded);
+            
+            if (cache != null && !loaded.isEmpty()) {
+                try {
+                    BatchCache.putAllLoadedTo(cache, loaded, loadMillis);
+                } catch (RuntimeException e) {
+                    log.warn("[CacheFallback] 배치 PUT 실패 - cache={}, ids={}, reason={}",
+                            PRODUCT_CACHE, loaded.keySet(), e.toString());
+                }
+            }
+        }
+        
+        return distinctIds.stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+    
+    /**
+     * 상품을 수정합니다.
+     * 
+     * 1. 반환값을 캐시에 바로 저장 (write-through, @CachePut)
+     * 2. 저장소 쓰기는 write-behind 버퍼에 넣고, 같은 ID의 연속 변경은 마지막 값으로 합쳐서 배치로 반영
+     * 
+     * 저장소 반영 전이라도 캐시와 Bloom filter에는 이미 반영되어 있으므로 바로 조회할 수 있고,
+     * 캐시 항목이 만료·삭제되어도 로더가 write-behind 대기 값을 먼저 확인합니다.
+     * 생성 시각은 기존 상품의 값을 유지합니다 (새 상품이면 현재 시각).
+     * 
+     * @throws ProductWriteBehindBuffer.WriteBehindFullException 저장 대기 건수가 가득 찬 경우 (캐시는 갱신되지 않음)
+     */
+    @CachePut(cacheNames = PRODUCT_CACHE, key = "#product.id")
+    public Product updateProduct(Product product) {
+        if (product.getId() == null) {
+            throw new IllegalArgumentException("Product ID must not be null");
+        }
+        
+        log.info("Updating product ID: {} (write-behind)", product.getId());
+        Product existing = findExisting(product.getId());
+        product.setCreatedAt(existing != null && existing.getCreatedAt() != null
+                ? existing.getCreatedAt() : LocalDateTime.now());
+        
+        writeBehindBuffer.enqueue(product);
+        productIdFilter.add(product.getId());
+        return product;
+    }
+    
+    /**
+     * write-behind 대기 값, 캐시, 저장소 순으로 현재 상품을 찾습니다.
+     */
+    private Product findExisting(Long id) {
+        Product pendingProduct = writeBehindBuffer.find(id);
+        if (pendingProduct != null) {
+            return pendingProduct;
+        }
+        
+        Cache cache = cacheManager.getCache(PRODUCT_CACHE);
+        if (cache != null) {
+            try {
+                Product cached = cache.get(id, Product.class);
+                if (cached != null) {
+                    return cached;
+                }
+            } catch (RuntimeException e) {
+                log.warn("[CacheFallback] GET 실패 - cache={}, id={}, reason={}", PRODUCT_CACHE, id, e.toString());
+            }
+        }
+        return productRepository.findById(id).orElse(null);
+    }
+}
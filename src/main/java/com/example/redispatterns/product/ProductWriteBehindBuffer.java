@@ -0,0 +1,220 @@
+package com.example.redispatterns.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 상품 저장을 모아서 저장소에 배치로 반영하는 write-behind 버퍼입니다.
+ *
+ * 같은 ID의 변경은 마지막 값 하나로 합쳐지고(coalescing), 대기 건수가 batch-size에 도달하거나
+ * flush-interval이 지나면 한 번의 {@link ProductRepository#saveAll}로 플러시합니다.
+ * 플러시에 실패한 항목은 그 사이 더 새로운 값이 들어오지 않았다면 다시 대기열에 넣습니다.
+ *
+ * 저장소에 반영되기 전의 값은 {@link #find(Long)}로 조회할 수 있으며(플러시 중인 값 포함), 캐시 로더는 저장소보다
+ * 먼저 이 값을 확인합니다. 대기 건수가 max-pending에 도달하면(저장소 장애 등) 새 ID의 변경은 거절합니다.
+ */
+@Component
+public class ProductWriteBehindBuffer implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(ProductWriteBehindBuffer.class);
+
+    private final ProductRepository productRepository;
+    private final int batchSize;
+    private final int maxPending;
+    private final Map<Long, Product> pending = new ConcurrentHashMap<>();
+    // 꺼내서 저장 중인 값 (저장이 끝나거나 다시 대기열에 넣을 때까지 조회 가능)
+    private final Map<Long, Product> flushing = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder flushed = new LongAdder();
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ProductWriteBehindBuffer(ProductRepository productRepository,
+                                    @Value("${app.product.write-behind.batch-size:100}") int batchSize,
+                                    @Value("${app.product.write-behind.max-pending:10000}") int maxPending) {
+        this.productRepository = productRepository;
+        this.batchSize = batchSize;
+        this.maxPending = Math.max(1, maxPending);
+    }
+
+    /**
+     * 저장할 상품을 대기열에 넣습니다. 같은 ID가 이미 대기 중이면 새 값으로 덮어씁니다.
+     *
+     * @throws WriteBehindFullException 대기 건수가 max-pending에 도달했고 같은 ID가 대기 중이 아닌 경우
+     */
+    public void enqueue(Product product) {
+        // 같은 ID의 변경은 기존 항목을 덮어쓰므로 대기 건수가 늘지 않아 계속 받습니다
+        if (pending.size() >= maxPending && !pending.containsKey(product.getId())) {
+            rejected.increment();
+            requestFlush();
+            throw new WriteBehindFullException("Too many product updates waiting to be stored");
+        }
+
+        enqueued.increment();
+        if (pending.put(product.getId(), product) != null) {
+            coalesced.increment();
+        }
+
+        if (pending.size() >= batchSize) {
+            requestFlush();
+        }
+    }
+
+    /**
+     * 아직 저장소에 반영되지 않은 값을 조회합니다 (대기 중인 값이 플러시 중인 값보다 새롭습니다).
+     *
+     * @return 반영 대기 중인 상품, 없으면 null
+     */
+    public Product find(Long id) {
+        Product product = pending.get(id);
+        return product != null ? product : flushing.get(id);
+    }
+
+    /**
+     * 대기 중인 변경을 batch-size 단위로 저장소에 반영합니다. 동시에 하나의 플러시만 실행됩니다.
+     *
+     * @return 저장소에 반영된 상품 수
+     */
+    @Scheduled(fixedDelayString = "${app.product.write-behind.flush-interval:1000}")
+    public int flush() {
+        flushLock.lock();
+        try {
+            int total = 0;
+            while (!pending.isEmpty()) {
+                List<Product> batch = drain();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                try {
+                    productRepository.saveAll(batch);
+                    flushed.add(batch.size());
+                    total += batch.size();
+                } catch (RuntimeException e) {
+                    flushFailures.increment();
+                    requeue(batch);
+                    log.warn("[WriteBehind] 플러시 실패, {}건을 다시 대기열에 넣습니다 - pending={}, reason={}",
+                            batch.size(), pending.size(), e.toString());
+                    break;
+                } finally {
+                    // 저장되었거나 다시 대기열에 들어갔으므로 더 이상 플러시 중인 값으로 조회하지 않습니다
+                    batch.forEach(product -> flushing.remove(product.getId(), product));
+                }
+            }
+            if (total > 0) {
+                log.info("[WriteBehind] 상품 {}건 플러시 완료", total);
+            }
+            return total;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 종료 직전에 남은 변경을 반영합니다
+        flush();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getEnqueuedCount() {
+        return enqueued.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    public long getFlushedCount() {
+        return flushed.sum();
+    }
+
+    public long getFlushFailureCount() {
+        return flushFailures.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private void requestFlush() {
+        if (flushRequested.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(() -> {
+                    flushRequested.set(false);
+                    flush();
+                });
+            } catch (RejectedExecutionException e) {
+                // 종료 중: 남은 변경은 destroy()에서 반영합니다
+                flushRequested.set(false);
+            }
+        }
+    }
+
+    /**
+     * 키별로 꺼내므로, 꺼내는 도중 들어온 새 값은 이번 배치나 다음 배치 중 한 곳에만 들어갑니다.
+     * 대기열에서 빼기 전에 플러시 중인 값으로 옮기므로 {@link #find(Long)}에서 사라지는 순간이 없습니다.
+     */
+    private List<Product> drain() {
+        List<Product> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        for (Long id : pending.keySet()) {
+            pending.computeIfPresent(id, (key, product) -> {
+                flushing.put(key, product);
+                batch.add(product);
+                return null;
+            });
+            if (batch.size() >= batchSize) {
+                break;
+            }
+        }
+        return batch;
+    }
+
+    private void requeue(List<Product> batch) {
+        for (Product product : batch) {
+            // 실패한 값보다 새로운 변경이 이미 들어왔다면 그 값을 유지합니다
+            pending.putIfAbsent(product.getId(), product);
+        }
+    }
+
+    /**
+     * 대기 건수가 max-pending에 도달하여 변경을 받을 수 없을 때 발생합니다.
+     */
+    public static class WriteBehindFullException extends RuntimeException {
+        public WriteBehindFullException(String message) {
+            super(message);
+        }
+    }
+}
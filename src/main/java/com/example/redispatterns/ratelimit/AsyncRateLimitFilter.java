@@ -0,0 +1,184 @@
+package com.example.redispatterns.ratelimit;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ASYNC / THROTTLE 모드 정책의 속도 제한을 요청 스레드를 막지 않고 처리하는 필터입니다.
+ *
+ * HandlerInterceptor는 판정을 기다리는 동안 요청을 중단할 수 없으므로, 서블릿 비동기 처리로 요청 스레드를 먼저 반납하고
+ * 판정이 끝나면 허용된 요청만 같은 경로로 다시 디스패치합니다. 다시 디스패치된 요청은 이 필터를 거치지 않고
+ * (OncePerRequestFilter의 ASYNC 디스패치 생략), {@link RateLimitInterceptor}도 이 모드의 정책은 건너뜁니다.
+ *
+ * THROTTLE 정책은 한도를 넘은 요청을 거절하는 대신 GCRA로 예약한 자리까지 기다렸다가 디스패치합니다.
+ * 대기는 스케줄러에 걸어 두므로 스레드를 점유하지 않으며, max-delay를 넘기거나 이 노드에서 키별로 대기 중인 요청이
+ * max-queue-depth에 도달하면 429로 거절합니다.
+ */
+@Component
+public class AsyncRateLimitFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(AsyncRateLimitFilter.class);
+
+    private final RateLimitService rateLimitService;
+    private final RateLimitPolicyRegistry policyRegistry;
+    private final HeavyHitterDetector heavyHitterDetector;
+    // THROTTLE 모드에서 이 노드에 대기 중인 키별 요청 수 (0이 되면 항목 제거)
+    private final Map<String, Integer> parked = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService throttleExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ratelimit-throttle");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public AsyncRateLimitFilter(RateLimitService rateLimitService,
+                                RateLimitPolicyRegistry policyRegistry,
+                                HeavyHitterDetector heavyHitterDetector) {
+        this.rateLimitService = rateLimitService;
+        this.policyRegistry = policyRegistry;
+        this.heavyHitterDetector = heavyHitterDetector;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestPath = request.getRequestURI();
+        RateLimitPolicy policy = policyRegistry.resolve(request.getMethod(), requestPath);
+        if (policy == null || !policy.mode().usesServletAsync()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        // 인터셉터보다 먼저 실행되므로 heavy hitter 집계와 로컬 차단도 여기서 처리합니다
+        if (heavyHitterDetector.recordAndCheckDenied(request)) {
+            RateLimitInterceptor.reject(response, heavyHitterDetector.denyRetryAfterSeconds());
+            return;
+        }
+
+        String identity = policy.identify(request);
+        if (policy.mode() == RateLimitMode.THROTTLE) {
+            throttle(request, response, filterChain, policy, identity);
+            return;
+        }
+
+        CompletableFuture<RateLimitResult> decision = rateLimitService.checkAsync(
+                policy.bucketKey(identity), policy.limitFor(identity), policy.windowSeconds());
+
+        // 서킷 OPEN 등으로 이미 판정된 경우에는 비동기 전환 없이 바로 처리합니다
+        if (decision.isDone()) {
+            RateLimitResult result = decision.join();
+            RateLimitInterceptor.writeHeaders(response, result);
+            if (result.allowed()) {
+                filterChain.doFilter(request, response);
+            } else {
+                log.warn("Rate limit exceeded for policy: {}, key: {}, Path: {}", policy.name(), identity, requestPath);
+                RateLimitInterceptor.reject(response, result);
+            }
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync();
+        decision.whenComplete((result, error) -> {
+            HttpServletResponse asyncResponse = (HttpServletResponse) asyncContext.getResponse();
+            RateLimitInterceptor.writeHeaders(asyncResponse, result);
+            if (result.allowed()) {
+                asyncContext.dispatch();
+                return;
+            }
+            try {
+                log.warn("Rate limit exceeded for policy: {}, key: {}, Path: {}", policy.name(), identity, requestPath);
+                RateLimitInterceptor.reject(asyncResponse, result);
+            } catch (IOException e) {
+                log.debug("Failed to write rate limit response: {}", e.toString());
+            } finally {
+                asyncContext.complete();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        throttleExecutor.shutdownNow();
+    }
+
+    private void throttle(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                          RateLimitPolicy policy, String identity) throws ServletException, IOException {
+        String key = policy.bucketKey(identity);
+        if (!enterQueue(key, policy.maxQueueDepth())) {
+            log.warn("Throttle queue full for policy: {}, key: {}, Path: {}", policy.name(), identity, request.getRequestURI());
+            RateLimitInterceptor.reject(response, 1);
+            return;
+        }
+
+        ThrottleReservation reservation;
+        try {
+            reservation = rateLimitService.reserve(key, policy.limitFor(identity), policy.windowSeconds(), policy.maxDelayMillis());
+        } catch (RuntimeException e) {
+            leaveQueue(key);
+            throw e;
+        }
+        RateLimitResult result = reservation.result();
+        RateLimitInterceptor.writeHeaders(response, result);
+
+        if (!result.allowed() || reservation.delayMillis() == 0) {
+            leaveQueue(key);
+            if (result.allowed()) {
+                filterChain.doFilter(request, response);
+            } else {
+                log.warn("Rate limit exceeded for policy: {}, key: {}, Path: {}", policy.name(), identity, request.getRequestURI());
+                RateLimitInterceptor.reject(response, result);
+            }
+            return;
+        }
+
+        // 예약한 자리까지 스레드를 반납하고 기다립니다 (자리는 이미 차지했으므로 다시 판정하지 않습니다)
+        AsyncContext asyncContext = request.startAsync();
+        asyncContext.setTimeout(reservation.delayMillis() + 1000);
+        try {
+            throttleExecutor.schedule(() -> {
+                leaveQueue(key);
+                asyncContext.dispatch();
+            }, reservation.delayMillis(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            leaveQueue(key);
+            RateLimitInterceptor.reject((HttpServletResponse) asyncContext.getResponse(), 1);
+            asyncContext.complete();
+        }
+    }
+
+    private boolean enterQueue(String key, int maxQueueDepth) {
+        boolean[] entered = new boolean[1];
+        parked.compute(key, (k, depth) -> {
+            int current = depth != null ? depth : 0;
+            if (current >= maxQueueDepth) {
+                return depth;
+            }
+            entered[0] = true;
+            return current + 1;
+        });
+        return entered[0];
+    }
+
+    private void leaveQueue(String key) {
+        parked.computeIfPresent(key, (k, depth) -> depth <= 1 ? null : depth - 1);
+    }
+}
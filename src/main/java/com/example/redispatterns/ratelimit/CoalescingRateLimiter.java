@@ -0,0 +1,249 @@
+package com.example.redispatterns.ratelimit;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.StringCodec;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 고정 윈도우 판정을 짧은 간격(batch-window)마다 모아서 비동기로 보내는 속도 제한기입니다 (ASYNC 모드).
+ *
+ * 1. 요청 스레드는 대기열에 넣고 CompletableFuture를 받아 바로 돌아갑니다
+ * 2. 같은 키에 모인 요청 n건은 {@code INCRBY n} 스크립트 한 번으로 합치고, 반영 후 카운트에서 요청별 순번을 계산합니다
+ * 3. 한 번에 모인 키들은 자동 flush를 끈 전용 연결에 EVALSHA로 쌓은 뒤 한 번에 flush합니다 (파이프라인)
+ *
+ * 스크립트가 Redis에 없으면(NOSCRIPT, 재시작 등) 그 키만 EVAL로 다시 보냅니다.
+ * 응답은 call-timeout 안에 오지 않으면 예외로 완료되므로, 호출자가 로컬 제한기로 판정할 수 있습니다.
+ */
+@Component
+public class CoalescingRateLimiter implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(CoalescingRateLimiter.class);
+
+    // FIXED_WINDOW 알고리즘과 같은 카운터를 사용합니다
+    private static final String KEY_PREFIX = "rl:";
+
+    private final LettuceConnectionFactory connectionFactory;
+    private final long batchWindowMillis;
+    private final int maxBatchSize;
+    private final long callTimeoutMillis;
+    private final String scriptText;
+    private final String scriptSha;
+    private final DistributionSummary batchKeys;
+    private final DistributionSummary coalescedHits;
+    private final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ratelimit-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Object lock = new Object();
+    private Map<String, PendingKey> pending = new HashMap<>();
+    private int pendingCount;
+    private boolean flushScheduled;
+
+    // flush 스레드에서만 사용합니다
+    private StatefulRedisConnection<String, String> connection;
+
+    public CoalescingRateLimiter(@Qualifier("rateLimitConnectionFactory") LettuceConnectionFactory connectionFactory,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.ratelimit.async.batch-window:1}") long batchWindowMillis,
+                                 @Value("${app.ratelimit.async.max-batch-size:256}") int maxBatchSize,
+                                 @Value("${app.ratelimit.circuit-breaker.call-timeout:100}") long callTimeoutMillis) {
+        this.connectionFactory = connectionFactory;
+        this.batchWindowMillis = batchWindowMillis;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.callTimeoutMillis = callTimeoutMillis;
+
+        @SuppressWarnings("rawtypes")
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("scripts/ratelimit/fixed_window_incrby.lua")));
+        script.setResultType(List.class);
+        this.scriptText = script.getScriptAsString();
+        this.scriptSha = script.getSha1();
+
+        this.batchKeys = DistributionSummary.builder("ratelimit.async.batch.keys")
+                .description("Keys sent in one pipelined flush")
+                .register(meterRegistry);
+        this.coalescedHits = DistributionSummary.builder("ratelimit.async.coalesced.hits")
+                .description("Requests combined into one INCRBY per key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 요청 한 건을 대기열에 넣고, 판정 결과를 비동기로 반환합니다.
+     */
+    public CompletableFuture<RateLimitResult> acquire(String key, int limit, int windowSeconds) {
+        CompletableFuture<RateLimitResult> future = new CompletableFuture<>();
+        boolean flushNow = false;
+        boolean scheduleFlush = false;
+        synchronized (lock) {
+            pending.computeIfAbsent(key, k -> new PendingKey(windowSeconds)).waiters.add(new Waiter(limit, future));
+            if (++pendingCount >= maxBatchSize) {
+                flushNow = true;
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                scheduleFlush = true;
+            }
+        }
+
+        try {
+            if (flushNow) {
+                flushExecutor.execute(this::flush);
+            } else if (scheduleFlush) {
+                flushExecutor.schedule(this::flush, batchWindowMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future.orTimeout(callTimeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        flushExecutor.shutdownNow();
+        if (connection != null) {
+            connection.closeAsync();
+        }
+    }
+
+    private void flush() {
+        Map<String, PendingKey> batch;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                flushScheduled = false;
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+            pendingCount = 0;
+            flushScheduled = false;
+        }
+
+        StatefulRedisConnection<String, String> current;
+        try {
+            current = connection();
+        } catch (Exception e) {
+            log.warn("[RateLimit] 비동기 연결 실패 - reason={}", e.toString());
+            batch.values().forEach(pendingKey -> pendingKey.fail(e));
+            return;
+        }
+
+        RedisAsyncCommands<String, String> commands = current.async();
+        batchKeys.record(batch.size());
+        batch.forEach((key, pendingKey) -> {
+            coalescedHits.record(pendingKey.waiters.size());
+            String[] keys = {KEY_PREFIX + key};
+            String hits = String.valueOf(pendingKey.waiters.size());
+            String window = String.valueOf(pendingKey.windowSeconds);
+
+            commands.<List<Object>>evalsha(scriptSha, ScriptOutputType.MULTI, keys, hits, window)
+                    .whenComplete((values, error) -> {
+                        if (error == null) {
+                            pendingKey.complete(values);
+                        } else if (unwrap(error) instanceof RedisNoScriptException) {
+                            evalOnFlushThread(pendingKey, keys, hits, window);
+                        } else {
+                            pendingKey.fail(error);
+                        }
+                    });
+        });
+        current.flushCommands();
+    }
+
+    private void evalOnFlushThread(PendingKey pendingKey, String[] keys, String hits, String window) {
+        try {
+            flushExecutor.execute(() -> {
+                connection.async().<List<Object>>eval(scriptText, ScriptOutputType.MULTI, keys, hits, window)
+                        .whenComplete((values, error) -> {
+                            if (error == null) {
+                                pendingKey.complete(values);
+                            } else {
+                                pendingKey.fail(error);
+                            }
+                        });
+                connection.flushCommands();
+            });
+        } catch (RejectedExecutionException e) {
+            pendingKey.fail(e);
+        }
+    }
+
+    private StatefulRedisConnection<String, String> connection() {
+        if (connection == null || !connection.isOpen()) {
+            AbstractRedisClient client = connectionFactory.getNativeClient();
+            if (!(client instanceof RedisClient redisClient)) {
+                throw new IllegalStateException("Standalone Lettuce client is required: " + client);
+            }
+            StatefulRedisConnection<String, String> created = redisClient.connect(StringCodec.UTF8);
+            // 명령을 쌓아 두었다가 flushCommands()로 한 번에 보냅니다
+            created.setAutoFlushCommands(false);
+            connection = created;
+        }
+        return connection;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static final class PendingKey {
+        private final int windowSeconds;
+        private final List<Waiter> waiters = new ArrayList<>();
+
+        private PendingKey(int windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        /**
+         * 반영 후 카운트에서 거꾸로 계산하여 먼저 들어온 요청부터 순번을 매깁니다.
+         */
+        void complete(List<Object> values) {
+            if (values == null || values.size() < 2) {
+                fail(new IllegalStateException("Unexpected rate limit script result: " + values));
+                return;
+            }
+            long count = ((Number) values.get(0)).longValue();
+            long ttl = Math.max(((Number) values.get(1)).longValue(), 0);
+            long position = count - waiters.size();
+            for (Waiter waiter : waiters) {
+                position++;
+                boolean allowed = position <= waiter.limit;
+                waiter.future.complete(new RateLimitResult(allowed, waiter.limit,
+                        Math.max(waiter.limit - position, 0), ttl, allowed ? 0 : ttl));
+            }
+        }
+
+        void fail(Throwable error) {
+            waiters.forEach(waiter -> waiter.future.completeExceptionally(error));
+        }
+    }
+
+    private record Waiter(int limit, CompletableFuture<RateLimitResult> future) {
+    }
+}
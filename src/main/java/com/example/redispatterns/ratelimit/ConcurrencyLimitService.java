@@ -0,0 +1,161 @@
+package com.example.redispatterns.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 키별 동시 실행 수를 모든 노드에 걸쳐 제한하는 분산 세마포어입니다.
+ *
+ * 요청마다 정렬 집합({@code rl:conc:{key}})에 만료 시각을 score로 갖는 리스를 넣고, 요청이 끝나면 리스를 뺍니다.
+ * 노드가 죽어 반납되지 않은 리스는 lease-ttl이 지나면 다음 획득 시 스크립트가 회수합니다.
+ * 따라서 lease-ttl은 가장 오래 걸리는 요청보다 길어야 합니다.
+ *
+ * Redis 호출은 {@link RateLimitService}와 같은 서킷 브레이커로 감싸고, 실패하거나 서킷이 열려 있으면
+ * 노드 로컬 카운터로 max-concurrent / node-count(올림)까지만 허용합니다.
+ */
+@Service
+public class ConcurrencyLimitService {
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitService.class);
+
+    private static final String KEY_PREFIX = "rl:conc:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimitCircuitBreaker circuitBreaker;
+    private final long leaseTtlMillis;
+    private final int nodeCount;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> acquireScript;
+    // Redis로 판정할 수 없을 때 이 노드에서 로컬 리스로 실행 중인 요청 수 (0이 되면 항목 제거)
+    private final Map<String, Integer> localInFlight = new ConcurrentHashMap<>();
+
+    private final Counter acquiredCounter;
+    private final Counter rejectedCounter;
+    private final Counter errorCounter;
+    private final Counter fallbackCounter;
+
+    public ConcurrencyLimitService(@Qualifier("rateLimitStringRedisTemplate") StringRedisTemplate redisTemplate,
+                                   RateLimitCircuitBreaker circuitBreaker,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.ratelimit.concurrency.lease-ttl:30000}") long leaseTtlMillis,
+                                   @Value("${app.ratelimit.fallback.node-count:1}") int nodeCount) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.leaseTtlMillis = leaseTtlMillis;
+        this.nodeCount = Math.max(1, nodeCount);
+        this.acquireScript = RateLimitAlgorithm.loadScript("scripts/ratelimit/concurrency_acquire.lua");
+        this.acquiredCounter = createDecisionCounter(meterRegistry, "acquired");
+        this.rejectedCounter = createDecisionCounter(meterRegistry, "rejected");
+        // Redis 호출이 실패하여 로컬 카운터로 판정한 요청
+        this.errorCounter = createDecisionCounter(meterRegistry, "error");
+        // 서킷이 열려 있어 Redis를 호출하지 않고 로컬 카운터로 판정한 요청
+        this.fallbackCounter = createDecisionCounter(meterRegistry, "fallback");
+    }
+
+    /**
+     * 동시 실행 리스를 획득합니다. 획득한 리스는 요청이 끝날 때 반드시 {@link #release(ConcurrencyLease)}로 반납해야 합니다.
+     *
+     * @param key 제한 키 (예: "payments:10.0.0.1")
+     * @param maxConcurrent 키별 최대 동시 실행 수
+     * @return 획득한 리스, 최대 동시 실행 수에 도달했으면 null
+     */
+    public ConcurrencyLease tryAcquire(String key, int maxConcurrent) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            fallbackCounter.increment();
+            return tryAcquireLocal(key, maxConcurrent);
+        }
+
+        String leaseId = UUID.randomUUID().toString();
+        long startNanos = System.nanoTime();
+        try {
+            List<?> values = redisTemplate.execute(acquireScript,
+                    Collections.singletonList(KEY_PREFIX + key),
+                    String.valueOf(maxConcurrent),
+                    String.valueOf(leaseTtlMillis),
+                    leaseId);
+            circuitBreaker.onSuccess(System.nanoTime() - startNanos);
+
+            if (values == null || values.isEmpty() || ((Number) values.get(0)).longValue() != 1) {
+                rejectedCounter.increment();
+                log.warn("Concurrency limit reached for key: {}, maxConcurrent: {}", key, maxConcurrent);
+                return null;
+            }
+            acquiredCounter.increment();
+            return new ConcurrencyLease(key, leaseId, false);
+        } catch (Exception e) {
+            circuitBreaker.onError();
+            errorCounter.increment();
+            log.error("Error acquiring concurrency lease", e);
+            return tryAcquireLocal(key, maxConcurrent);
+        }
+    }
+
+    /**
+     * 리스를 반납합니다. 획득과 같은 서킷 브레이커를 거치며, 서킷이 열려 있거나 반납에 실패한 리스는 lease-ttl이 지나면 회수됩니다.
+     */
+    public void release(ConcurrencyLease lease) {
+        if (lease.local()) {
+            localInFlight.computeIfPresent(lease.key(), (key, inFlight) -> inFlight <= 1 ? null : inFlight - 1);
+            return;
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            redisTemplate.opsForZSet().remove(KEY_PREFIX + lease.key(), lease.id());
+            circuitBreaker.onSuccess(System.nanoTime() - startNanos);
+        } catch (Exception e) {
+            circuitBreaker.onError();
+            log.warn("[RateLimit] 동시 실행 리스 반납 실패 - key={}, reason={}", lease.key(), e.toString());
+        }
+    }
+
+    private ConcurrencyLease tryAcquireLocal(String key, int maxConcurrent) {
+        int share = Math.max(1, (maxConcurrent + nodeCount - 1) / nodeCount);
+        boolean[] acquired = new boolean[1];
+        localInFlight.compute(key, (k, inFlight) -> {
+            int current = inFlight != null ? inFlight : 0;
+            if (current >= share) {
+                return inFlight;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        if (!acquired[0]) {
+            rejectedCounter.increment();
+            log.warn("Concurrency limit reached for key: {}, nodeShare: {} (local fallback)", key, share);
+            return null;
+        }
+        return new ConcurrencyLease(key, null, true);
+    }
+
+    private Counter createDecisionCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("ratelimit.concurrency.requests")
+                .tag("result", result)
+                .description("Concurrency limit decisions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 획득한 동시 실행 리스입니다.
+     *
+     * @param key 제한 키
+     * @param id Redis 정렬 집합 멤버 (로컬 리스는 null)
+     * @param local Redis 대신 노드 로컬 카운터로 획득한 리스인지 여부
+     */
+    public record ConcurrencyLease(String key, String id, boolean local) {
+    }
+}
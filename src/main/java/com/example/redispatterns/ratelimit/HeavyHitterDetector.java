@@ -0,0 +1,299 @@
+package com.example.redispatterns.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 요청을 가장 많이 보내는 {@code clientIp:path} 키(heavy hitter)를 찾습니다.
+ *
+ * 1. 요청마다 노드 로컬 Count-Min Sketch(깊이 4 × 너비 2048 원자 카운터)에 더하고, 추정값으로 top-K 후보를 갱신합니다
+ *    후보 갱신은 Space-Saving 방식(가득 차면 가장 작은 후보를 교체)이며, 교체만 tryLock으로 직렬화하므로 요청 스레드는 기다리지 않습니다
+ * 2. sync-interval마다 스케치를 새것으로 바꾸고, 끝난 구간의 후보 카운트를 Redis 정렬 집합({@code rl:hh:{window}})에 ZINCRBY로 합칩니다
+ *    교체 전에 스케치를 읽은 요청 스레드가 더하기를 마칠 때까지 기다린 뒤 후보를 복사하므로 집계가 유실되지 않습니다
+ * 3. 합쳐진 클러스터 top-N에서 deny.threshold 이상인 키는 deny.duration 동안 로컬 차단 캐시에 올려 Redis 호출 없이 거절합니다
+ *    (deny.enabled일 때만, 로컬 추정값이 먼저 임계값을 넘으면 바로 올립니다)
+ */
+@Component
+public class HeavyHitterDetector {
+    private static final Logger log = LoggerFactory.getLogger(HeavyHitterDetector.class);
+
+    private static final String KEY_PREFIX = "rl:hh:";
+    private static final String RECORDED_ATTRIBUTE = HeavyHitterDetector.class.getName() + ".RECORDED";
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2048;
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final int topK;
+    private final long windowMillis;
+    private final boolean denyEnabled;
+    private final long denyThreshold;
+    private final long denyDurationMillis;
+    private final Cache<String, Boolean> denied;
+    private final Counter shedCounter;
+
+    private volatile Sketch current;
+
+    public HeavyHitterDetector(StringRedisTemplate redisTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.ratelimit.heavy-hitters.enabled:true}") boolean enabled,
+                               @Value("${app.ratelimit.heavy-hitters.top-k:100}") int topK,
+                               @Value("${app.ratelimit.heavy-hitters.window:60000}") long windowMillis,
+                               @Value("${app.ratelimit.heavy-hitters.deny.enabled:false}") boolean denyEnabled,
+                               @Value("${app.ratelimit.heavy-hitters.deny.threshold:10000}") long denyThreshold,
+                               @Value("${app.ratelimit.heavy-hitters.deny.duration:60000}") long denyDurationMillis) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.topK = Math.max(1, topK);
+        this.windowMillis = windowMillis;
+        this.denyEnabled = denyEnabled;
+        this.denyThreshold = denyThreshold;
+        this.denyDurationMillis = denyDurationMillis;
+        this.denied = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(denyDurationMillis))
+                .build();
+        this.current = new Sketch(this.topK);
+
+        this.shedCounter = Counter.builder("ratelimit.heavy.hitters.shed")
+                .description("Requests rejected by the local heavy-hitter deny cache")
+                .register(meterRegistry);
+        Gauge.builder("ratelimit.heavy.hitters.denied", denied, cache -> cache.estimatedSize())
+                .description("Keys currently in the local heavy-hitter deny cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 요청을 집계하고, 로컬 차단 캐시에 올라 있는 키인지 확인합니다. 같은 요청은 한 번만 집계합니다.
+     *
+     * @return 차단해야 하면 true
+     */
+    public boolean recordAndCheckDenied(HttpServletRequest request) {
+        if (!enabled || request.getAttribute(RECORDED_ATTRIBUTE) != null) {
+            return false;
+        }
+        request.setAttribute(RECORDED_ATTRIBUTE, Boolean.TRUE);
+
+        String key = RateLimitKeyType.clientIp(request) + ":" + request.getRequestURI();
+        if (denyEnabled && denied.getIfPresent(key) != null) {
+            shedCounter.increment();
+            return true;
+        }
+
+        long estimate = add(key);
+        if (denyEnabled && estimate >= denyThreshold) {
+            promote(key, estimate);
+        }
+        return false;
+    }
+
+    /**
+     * 차단된 클라이언트에게 보낼 Retry-After(초)입니다.
+     */
+    public long denyRetryAfterSeconds() {
+        return Math.max((denyDurationMillis + 999) / 1000, 1);
+    }
+
+    /**
+     * 현재 윈도우의 클러스터 top-N을 Redis에서 조회합니다.
+     */
+    public List<HeavyHitter> topHitters(int limit) {
+        Set<ZSetOperations.TypedTuple<String>> tuples =
+                redisTemplate.opsForZSet().reverseRangeWithScores(windowKey(currentWindow()), 0, limit - 1);
+        List<HeavyHitter> hitters = new ArrayList<>();
+        if (tuples != null) {
+            for (ZSetOperations.TypedTuple<String> tuple : tuples) {
+                hitters.add(new HeavyHitter(tuple.getValue(), tuple.getScore() != null ? tuple.getScore().longValue() : 0));
+            }
+        }
+        return hitters;
+    }
+
+    /**
+     * 로컬 차단 캐시에 올라 있는 키 목록입니다.
+     */
+    public Set<String> deniedKeys() {
+        return new TreeSet<>(denied.asMap().keySet());
+    }
+
+    /**
+     * 끝난 구간의 후보 카운트를 Redis에 합치고, 클러스터 top-N에서 차단 대상을 갱신합니다.
+     */
+    @Scheduled(fixedDelayString = "${app.ratelimit.heavy-hitters.sync-interval:10000}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+
+        Sketch finished = current;
+        current = new Sketch(topK);
+        // 교체 전 스케치에 아직 더하고 있는 요청 스레드가 끝날 때까지 기다립니다 (수 마이크로초)
+        while (finished.writers.sum() > 0) {
+            Thread.onSpinWait();
+        }
+        Map<String, Long> counts = new HashMap<>(finished.candidates);
+
+        String windowKey = windowKey(currentWindow());
+        try {
+            if (!counts.isEmpty()) {
+                redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object execute(RedisOperations operations) throws DataAccessException {
+                        ZSetOperations<String, String> zSet = operations.opsForZSet();
+                        counts.forEach((key, count) -> zSet.incrementScore(windowKey, key, count));
+                        operations.expire(windowKey, Duration.ofMillis(windowMillis * 2));
+                        return null;
+                    }
+                });
+            }
+
+            if (denyEnabled) {
+                for (HeavyHitter hitter : topHitters(topK)) {
+                    if (hitter.count() < denyThreshold) {
+                        break;
+                    }
+                    promote(hitter.key(), hitter.count());
+                }
+            }
+        } catch (Exception e) {
+            log.warn("[RateLimit] heavy hitter 병합 실패 - key={}, candidates={}, reason={}", windowKey, counts.size(), e.toString());
+        }
+    }
+
+    Map<String, Long> localCandidates() {
+        return current.candidates;
+    }
+
+    /**
+     * 현재 스케치에 키를 더합니다. 쓰는 중임을 먼저 표시한 뒤 스케치가 그 사이 교체되지 않았는지 확인하므로,
+     * sync()는 교체 후 표시가 모두 사라지면 그 스케치에 더 이상 쓰기가 없음을 알 수 있습니다.
+     */
+    private long add(String key) {
+        Sketch sketch;
+        while (true) {
+            sketch = current;
+            sketch.writers.increment();
+            if (sketch == current) {
+                break;
+            }
+            sketch.writers.decrement();
+        }
+        try {
+            return sketch.add(key);
+        } finally {
+            sketch.writers.decrement();
+        }
+    }
+
+    private void promote(String key, long count) {
+        if (denied.asMap().putIfAbsent(key, Boolean.TRUE) == null) {
+            log.warn("[RateLimit] heavy hitter 로컬 차단 - key={}, count={}, duration={}ms", key, count, denyDurationMillis);
+        }
+    }
+
+    private long currentWindow() {
+        return System.currentTimeMillis() / windowMillis;
+    }
+
+    private String windowKey(long window) {
+        return KEY_PREFIX + window;
+    }
+
+    /**
+     * 한 구간의 Count-Min Sketch와 Space-Saving top-K 후보입니다.
+     */
+    static final class Sketch {
+        private final int capacity;
+        private final AtomicLongArray counters = new AtomicLongArray(SKETCH_DEPTH * SKETCH_WIDTH);
+        private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+        private final ReentrantLock evictionLock = new ReentrantLock();
+        // 이 스케치에 더하고 있는 요청 스레드 수
+        private final LongAdder writers = new LongAdder();
+        // 후보 중 최솟값의 하한 (이보다 작은 추정값은 교체를 시도하지 않음)
+        private volatile long minCandidate;
+
+        Sketch(int capacity) {
+            this.capacity = capacity;
+        }
+
+        /**
+         * 키를 한 번 더하고 갱신된 추정값(실제보다 작지 않음)을 반환합니다.
+         */
+        long add(String key) {
+            // 두 해시를 조합해 행마다 다른 열을 고릅니다 (Kirsch-Mitzenmacher)
+            int h1 = key.hashCode();
+            int h2 = Integer.rotateLeft(h1, 16) * 0x9E3779B9 | 1;
+            long estimate = Long.MAX_VALUE;
+            for (int row = 0; row < SKETCH_DEPTH; row++) {
+                int column = (h1 + row * h2) & (SKETCH_WIDTH - 1);
+                estimate = Math.min(estimate, counters.incrementAndGet(row * SKETCH_WIDTH + column));
+            }
+            offer(key, estimate);
+            return estimate;
+        }
+
+        private void offer(String key, long estimate) {
+            if (candidates.computeIfPresent(key, (k, count) -> Math.max(count, estimate)) != null) {
+                return;
+            }
+            if (candidates.size() < capacity) {
+                candidates.putIfAbsent(key, estimate);
+                return;
+            }
+            if (estimate <= minCandidate || !evictionLock.tryLock()) {
+                return;
+            }
+            try {
+                Map.Entry<String, Long> smallest = candidates.entrySet().stream()
+                        .min(Comparator.comparingLong(Map.Entry::getValue))
+                        .orElse(null);
+                if (smallest == null || estimate <= smallest.getValue()) {
+                    minCandidate = smallest != null ? smallest.getValue() : 0;
+                    return;
+                }
+                candidates.remove(smallest.getKey());
+                candidates.put(key, estimate);
+                minCandidate = candidates.values().stream().mapToLong(Long::longValue).min().orElse(0);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 클러스터 top-N의 한 항목입니다.
+     *
+     * @param key {@code clientIp:path}
+     * @param count 현재 윈도우의 요청 수
+     */
+    public record HeavyHitter(String key, long count) {
+    }
+}
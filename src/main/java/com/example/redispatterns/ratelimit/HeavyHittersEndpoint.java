@@ -0,0 +1,40 @@
+package com.example.redispatterns.ratelimit;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 속도 제한 운영용 조회 엔드포인트입니다.
+ *
+ * 클라이언트 IP가 그대로 담기므로 서비스 포트가 아니라 management 포트(management.server.port)의 actuator로만 노출합니다.
+ */
+@Component
+@Endpoint(id = "heavyhitters")
+public class HeavyHittersEndpoint {
+
+    private final HeavyHitterDetector heavyHitterDetector;
+
+    public HeavyHittersEndpoint(HeavyHitterDetector heavyHitterDetector) {
+        this.heavyHitterDetector = heavyHitterDetector;
+    }
+
+    /**
+     * 현재 윈도우에서 요청을 가장 많이 보낸 클라이언트(클러스터 전체)와 이 노드의 로컬 차단 목록을 조회합니다.
+     * EX) GET /actuator/heavyhitters?limit=20
+     */
+    @ReadOperation
+    public HeavyHittersResponse heavyHitters(@Nullable Integer limit) {
+        int size = limit != null ? limit : 20;
+        return new HeavyHittersResponse(
+                heavyHitterDetector.topHitters(Math.max(1, Math.min(size, 1000))),
+                heavyHitterDetector.deniedKeys());
+    }
+
+    public record HeavyHittersResponse(List<HeavyHitterDetector.HeavyHitter> topClients, Set<String> deniedKeys) {
+    }
+}
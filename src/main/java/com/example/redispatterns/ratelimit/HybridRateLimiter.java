@@ -0,0 +1,389 @@
+package com.example.redispatterns.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 로컬 토큰 버킷 + Redis 전역 예산으로 동작하는 속도 제한기입니다 (HYBRID 모드).
+ *
+ * 1. 키마다 노드 로컬 버킷에서 토큰을 CAS로 하나 꺼내 판정합니다 (네트워크 왕복 없음)
+ * 2. 버킷은 고정 윈도우별 Redis 전역 예산({@code rl:budget:{key}:{window}})에서 limit × chunk-percent%씩 빌려옵니다
+ *    잔량이 묶음의 1/4 이하로 떨어지면 백그라운드에서 미리 빌려오고, 바닥나면 그 요청만 동기로 빌려옵니다
+ * 3. 전역 예산이 소진되면 윈도우가 끝날 때까지 Redis 없이 바로 거절합니다
+ * 4. Redis에서 빌려올 때만 서킷 브레이커 허가를 받고 결과를 기록합니다 (로컬 버킷 판정은 서킷과 무관)
+ * 5. sync-interval마다 윈도우의 절반 이상(최소 sync-interval) 쓰이지 않은 버킷의 남은 토큰을 전역 예산에 돌려줍니다
+ *
+ * 빌려준 토큰 합계는 Lua 스크립트가 limit 이하로 제한하므로 전역 허용량은 limit을 넘지 않습니다.
+ * 대신 노드마다 최대 한 묶음이 쓰이지 않고 남을 수 있어, 오차는 (노드 수 × 묶음 크기) 이내로 덜 허용하는 쪽입니다.
+ */
+@Component
+public class HybridRateLimiter implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(HybridRateLimiter.class);
+
+    private static final String BUDGET_KEY_PREFIX = "rl:budget:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimitCircuitBreaker circuitBreaker;
+    private final int chunkPercent;
+    private final long idleReturnMillis;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> borrowScript;
+    private final RedisScript<Long> returnScript;
+    private final Map<String, LocalBucket> buckets = new ConcurrentHashMap<>();
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ratelimit-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Counter syncBorrows;
+    private final Counter asyncBorrows;
+    private final Counter returnedTokens;
+
+    public HybridRateLimiter(@Qualifier("rateLimitStringRedisTemplate") StringRedisTemplate redisTemplate,
+                             MeterRegistry meterRegistry,
+                             RateLimitCircuitBreaker circuitBreaker,
+                             @Value("${app.ratelimit.hybrid.chunk-percent:10}") int chunkPercent,
+                             @Value("${app.ratelimit.hybrid.sync-interval:1000}") long syncIntervalMillis) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.chunkPercent = chunkPercent;
+        this.idleReturnMillis = syncIntervalMillis;
+        this.borrowScript = createBorrowScript();
+        this.returnScript = createReturnScript();
+        this.syncBorrows = Counter.builder("ratelimit.hybrid.borrows").tag("mode", "sync")
+                .description("Token chunks borrowed from the Redis budget")
+                .register(meterRegistry);
+        this.asyncBorrows = Counter.builder("ratelimit.hybrid.borrows").tag("mode", "async")
+                .description("Token chunks borrowed from the Redis budget")
+                .register(meterRegistry);
+        this.returnedTokens = Counter.builder("ratelimit.hybrid.returned.tokens")
+                .description("Unused tokens given back to the Redis budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 요청 허용 여부를 판정합니다. 대부분의 호출은 로컬 버킷에서 끝납니다.
+     *
+     * @throws RateLimitCircuitBreaker.CallNotPermittedException 동기 대여가 필요하지만 서킷이 열려 있는 경우
+     * @throws RuntimeException 동기 대여 중 Redis 오류가 발생한 경우 (호출자가 로컬 제한기로 판정)
+     */
+    public boolean tryAcquire(String key, int limit, int windowSeconds) {
+        return check(key, limit, windowSeconds).allowed();
+    }
+
+    /**
+     * {@link #tryAcquire(String, int, int)}와 같지만 응답 헤더용 정보를 함께 반환합니다.
+     * 남은 요청 수는 마지막 대여 시점의 전역 미대여 잔량에 이 노드의 로컬 토큰을 더한 값으로,
+     * 다른 노드가 빌려 두고 아직 쓰지 않은 토큰은 빼고 세므로 전역 잔량의 하한입니다. 리셋 시각은 고정 윈도우의 끝입니다.
+     *
+     * @throws RateLimitCircuitBreaker.CallNotPermittedException 동기 대여가 필요하지만 서킷이 열려 있는 경우
+     * @throws RuntimeException 동기 대여 중 Redis 오류가 발생한 경우 (호출자가 로컬 제한기로 판정)
+     */
+    public RateLimitResult check(String key, int limit, int windowSeconds) {
+        long windowMillis = windowSeconds * 1000L;
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        long resetMillis = windowMillis - now % windowMillis;
+
+        while (true) {
+            LocalBucket bucket = buckets.computeIfAbsent(key, LocalBucket::new);
+            RateLimitResult result = check(bucket, window, limit, windowMillis, resetMillis);
+            if (result != null) {
+                return result;
+            }
+            // reconcile이 정리한 버킷이면 새 버킷으로 다시 판정합니다
+        }
+    }
+
+    /**
+     * @return 판정 결과, 버킷이 이미 정리되어 대여할 수 없으면 null
+     */
+    private RateLimitResult check(LocalBucket bucket, long window, int limit, long windowMillis, long resetMillis) {
+        bucket.windowMillis = windowMillis;
+        bucket.rollover(window);
+
+        if (bucket.tryTake()) {
+            if (bucket.tokens.get() <= chunkSize(limit) / 4) {
+                prefetch(bucket, window, limit, windowMillis);
+            }
+            return allowed(bucket, limit, resetMillis);
+        }
+        if (bucket.isExhausted(window)) {
+            return denied(limit, resetMillis);
+        }
+
+        // 로컬 토큰이 바닥난 경우에만 Redis를 거칩니다 (같은 버킷의 동시 대여는 하나로 직렬화)
+        synchronized (bucket) {
+            bucket.rollover(window);
+            if (bucket.tryTake()) {
+                return allowed(bucket, limit, resetMillis);
+            }
+            if (bucket.isExhausted(window)) {
+                return denied(limit, resetMillis);
+            }
+            if (bucket.retired) {
+                // 정리된 버킷에 빌려온 토큰은 아무도 돌려주지 않으므로 대여하지 않습니다
+                return null;
+            }
+
+            long granted = guardedBorrow(bucket, window, limit, windowMillis);
+            syncBorrows.increment();
+            if (granted <= 0) {
+                bucket.markExhausted(window);
+                return denied(limit, resetMillis);
+            }
+            bucket.tokens.addAndGet(granted - 1);
+            return allowed(bucket, limit, resetMillis);
+        }
+    }
+
+    /**
+     * 한동안 요청이 없던 버킷의 남은 토큰을 전역 예산에 돌려주고 버킷을 정리합니다.
+     *
+     * 유휴 기준은 윈도우의 절반(최소 sync-interval)이라, 윈도우보다 드물게 오는 키가 요청마다 빌리고 돌려주지 않습니다.
+     * 정리한 버킷은 잠금 안에서 retired로 표시하므로, 동시에 대여하려던 요청은 새 버킷으로 다시 판정합니다.
+     */
+    @Scheduled(fixedDelayString = "${app.ratelimit.hybrid.sync-interval:1000}")
+    public void reconcile() {
+        long now = System.currentTimeMillis();
+        for (LocalBucket bucket : buckets.values()) {
+            if (!isIdle(bucket, now)) {
+                continue;
+            }
+            synchronized (bucket) {
+                if (!isIdle(bucket, now)) {
+                    continue;
+                }
+                bucket.retired = true;
+                buckets.remove(bucket.key, bucket);
+                long unused = bucket.tokens.getAndSet(0);
+                if (unused <= 0 || (bucket.window + 1) * bucket.windowMillis <= now) {
+                    // 이미 끝난 윈도우의 토큰은 예산 키와 함께 만료되므로 돌려줄 필요가 없습니다
+                    continue;
+                }
+                try {
+                    Long returned = redisTemplate.execute(returnScript,
+                            Collections.singletonList(budgetKey(bucket.key, bucket.window)),
+                            String.valueOf(unused));
+                    returnedTokens.increment(returned != null ? returned : 0);
+                } catch (Exception e) {
+                    // 돌려주지 못한 토큰은 윈도우가 끝나면 예산과 함께 사라집니다
+                    log.warn("[RateLimit] 토큰 반환 실패 - key={}, tokens={}, reason={}", bucket.key, unused, e.toString());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    private boolean isIdle(LocalBucket bucket, long now) {
+        return now - bucket.lastAccessMillis >= Math.max(idleReturnMillis, bucket.windowMillis / 2);
+    }
+
+    int getBucketCount() {
+        return buckets.size();
+    }
+
+    private void prefetch(LocalBucket bucket, long window, int limit, long windowMillis) {
+        if (bucket.isExhausted(window) || !bucket.prefetching.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            prefetchExecutor.execute(() -> {
+                try {
+                    synchronized (bucket) {
+                        if (bucket.retired || bucket.window != window || bucket.isExhausted(window)) {
+                            return;
+                        }
+                        long granted = guardedBorrow(bucket, window, limit, windowMillis);
+                        asyncBorrows.increment();
+                        if (granted > 0) {
+                            bucket.tokens.addAndGet(granted);
+                        } else {
+                            bucket.markExhausted(window);
+                        }
+                    }
+                } catch (RateLimitCircuitBreaker.CallNotPermittedException e) {
+                    // 서킷이 열려 있으면 선대여를 건너뛰고, 토큰이 바닥나면 호출자가 로컬 제한기로 판정합니다
+                } catch (Exception e) {
+                    log.warn("[RateLimit] 토큰 선대여 실패 - key={}, reason={}", bucket.key, e.toString());
+                } finally {
+                    bucket.prefetching.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bucket.prefetching.set(false);
+        }
+    }
+
+    private static RateLimitResult allowed(LocalBucket bucket, int limit, long resetMillis) {
+        long remaining = Math.max(bucket.unborrowed, 0) + Math.max(bucket.tokens.get(), 0);
+        return new RateLimitResult(true, limit, Math.min(remaining, limit), resetMillis, 0);
+    }
+
+    private static RateLimitResult denied(int limit, long resetMillis) {
+        return new RateLimitResult(false, limit, 0, resetMillis, resetMillis);
+    }
+
+    /**
+     * 서킷 브레이커 허가를 받아 {@link #borrow}를 호출하고 결과(소요 시간 또는 오류)를 기록합니다.
+     */
+    private long guardedBorrow(LocalBucket bucket, long window, int limit, long windowMillis) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            throw new RateLimitCircuitBreaker.CallNotPermittedException();
+        }
+        long startNanos = System.nanoTime();
+        try {
+            long granted = borrow(bucket, window, limit, windowMillis);
+            circuitBreaker.onSuccess(System.nanoTime() - startNanos);
+            return granted;
+        } catch (RuntimeException e) {
+            circuitBreaker.onError();
+            throw e;
+        }
+    }
+
+    /**
+     * 전역 예산에서 한 묶음을 빌리고, 응답 헤더용으로 대여 후 전역 미대여 잔량을 버킷에 기록합니다. 버킷 잠금 안에서 호출합니다.
+     */
+    private long borrow(LocalBucket bucket, long window, int limit, long windowMillis) {
+        List<?> values = redisTemplate.execute(borrowScript,
+                Collections.singletonList(budgetKey(bucket.key, window)),
+                String.valueOf(limit),
+                String.valueOf(chunkSize(limit)),
+                String.valueOf(windowMillis + 1000));
+        if (values == null || values.size() < 2) {
+            return 0;
+        }
+        long granted = ((Number) values.get(0)).longValue();
+        bucket.unborrowed = limit - ((Number) values.get(1)).longValue();
+        return granted;
+    }
+
+    private int chunkSize(int limit) {
+        return Math.max(1, limit * chunkPercent / 100);
+    }
+
+    private String budgetKey(String key, long window) {
+        return BUDGET_KEY_PREFIX + key + ":" + window;
+    }
+
+    /**
+     * 전역 예산에서 최대 chunk개를 빌립니다. 빌려준 합계는 limit을 넘지 않습니다.
+     * 반환값: {빌려준 토큰 수, 대여 후 빌려준 합계}
+     */
+    @SuppressWarnings("rawtypes")
+    private RedisScript<List> createBorrowScript() {
+        String luaScript =
+                "local used = tonumber(redis.call('get', KEYS[1]) or '0') " +
+                "local granted = math.min(tonumber(ARGV[2]), tonumber(ARGV[1]) - used) " +
+                "if granted <= 0 then " +
+                "  return {0, used} " +
+                "end " +
+                "used = redis.call('incrby', KEYS[1], granted) " +
+                "redis.call('pexpire', KEYS[1], ARGV[3]) " +
+                "return {granted, used}";
+
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptText(luaScript);
+        script.setResultType(List.class);
+        return script;
+    }
+
+    /**
+     * 쓰지 않은 토큰을 전역 예산에 돌려줍니다. 윈도우 키가 이미 만료되었으면 아무것도 하지 않습니다.
+     */
+    private RedisScript<Long> createReturnScript() {
+        String luaScript =
+                "local used = tonumber(redis.call('get', KEYS[1]) or '0') " +
+                "local returned = math.min(tonumber(ARGV[1]), used) " +
+                "if returned > 0 then " +
+                "  redis.call('decrby', KEYS[1], returned) " +
+                "end " +
+                "return returned";
+
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(luaScript);
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * 키별 로컬 토큰 버킷입니다. 토큰 차감은 CAS로 처리하고, 윈도우 전환과 대여만 버킷 단위로 직렬화합니다.
+     */
+    private static final class LocalBucket {
+        private final String key;
+        private final AtomicLong tokens = new AtomicLong();
+        private final AtomicBoolean prefetching = new AtomicBoolean();
+        private volatile long window = -1;
+        private volatile long exhaustedWindow = -1;
+        private volatile long lastAccessMillis = System.currentTimeMillis();
+        private volatile long windowMillis;
+        // 마지막 대여 후 전역 예산에 남은 (아직 어느 노드도 빌리지 않은) 토큰 수
+        private volatile long unborrowed;
+        // reconcile이 맵에서 제거한 버킷 (버킷 잠금 안에서만 true로 바뀝니다)
+        private volatile boolean retired;
+
+        private LocalBucket(String key) {
+            this.key = key;
+        }
+
+        void rollover(long currentWindow) {
+            lastAccessMillis = System.currentTimeMillis();
+            if (window == currentWindow) {
+                return;
+            }
+            synchronized (this) {
+                if (window != currentWindow) {
+                    // 이전 윈도우에서 빌린 토큰은 새 윈도우 예산과 무관하므로 버립니다
+                    tokens.set(0);
+                    unborrowed = 0;
+                    window = currentWindow;
+                }
+            }
+        }
+
+        boolean tryTake() {
+            long current;
+            do {
+                current = tokens.get();
+                if (current <= 0) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - 1));
+            return true;
+        }
+
+        boolean isExhausted(long currentWindow) {
+            return exhaustedWindow == currentWindow;
+        }
+
+        void markExhausted(long currentWindow) {
+            exhaustedWindow = currentWindow;
+        }
+    }
+}
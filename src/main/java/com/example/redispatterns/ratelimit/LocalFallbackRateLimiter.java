@@ -0,0 +1,59 @@
+package com.example.redispatterns.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Redis로 판정할 수 없을 때(서킷 OPEN, 호출 실패) 사용하는 노드 로컬 고정 윈도우 제한기입니다.
+ *
+ * 노드마다 limit / node-count(올림)만큼만 허용하므로, 부하가 노드에 고르게 분산되어 있으면
+ * 전역 허용량이 원래 limit과 비슷하게 유지됩니다. Redis가 돌아오면 다시 전역 카운터로 판정합니다.
+ */
+@Component
+public class LocalFallbackRateLimiter {
+
+    private static final int MAXIMUM_KEYS = 100_000;
+
+    private final int nodeCount;
+    private final Cache<String, Window> windows = Caffeine.newBuilder()
+            .maximumSize(MAXIMUM_KEYS)
+            .expireAfterAccess(Duration.ofMinutes(10))
+            .build();
+
+    public LocalFallbackRateLimiter(@Value("${app.ratelimit.fallback.node-count:1}") int nodeCount) {
+        this.nodeCount = Math.max(1, nodeCount);
+    }
+
+    /**
+     * 이 노드의 몫(limit / node-count)으로 요청을 판정합니다.
+     */
+    public RateLimitResult tryAcquire(String key, int limit, int windowSeconds) {
+        long share = Math.max(1, (limit + nodeCount - 1) / nodeCount);
+        long windowMillis = windowSeconds * 1000L;
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        long resetMillis = (window + 1) * windowMillis - now;
+
+        Window counter = windows.get(key, k -> new Window());
+        long count;
+        synchronized (counter) {
+            if (counter.window != window) {
+                counter.window = window;
+                counter.count = 0;
+            }
+            count = ++counter.count;
+        }
+
+        boolean allowed = count <= share;
+        return new RateLimitResult(allowed, share, Math.max(share - count, 0), resetMillis, allowed ? 0 : resetMillis);
+    }
+
+    private static final class Window {
+        private long window = -1;
+        private long count;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.redispatterns.ratelimit;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scripting.support.ResourceScriptSource;
+
+import java.util.List;
+
+/**
+ * Redis 키 하나에 대해 Lua 스크립트 한 번으로 판정하는 속도 제한 알고리즘입니다.
+ *
+ * 스크립트는 {@code {allowed, remaining, resetMillis, retryAfterMillis}}를 반환하므로
+ * 판정과 남은 한도/리셋 시각을 같은 왕복에서 얻습니다.
+ */
+public interface RateLimitAlgorithm {
+
+    /**
+     * 알고리즘마다 Redis 자료구조가 다르므로 키 prefix도 구분합니다.
+     */
+    String keyPrefix();
+
+    @SuppressWarnings("rawtypes")
+    RedisScript<List> script();
+
+    Object[] args(int limit, int windowSeconds);
+
+    @SuppressWarnings("rawtypes")
+    static RedisScript<List> loadScript(String path) {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource(path)));
+        script.setResultType(List.class);
+        return script;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.redispatterns.ratelimit;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 설정에서 선택할 수 있는 속도 제한 알고리즘입니다 (예: {@code algorithm: sliding-window-counter}).
+ *
+ * - FIXED_WINDOW: 윈도우 경계에서 최대 2배까지 몰릴 수 있지만 가장 가볍습니다
+ * - SLIDING_WINDOW_COUNTER: 현재/직전 윈도우 카운트를 가중 합산하여 경계 버스트를 줄입니다
+ * - SLIDING_LOG: 요청 시각을 정렬 집합에 기록하여 정확하지만 키당 최대 limit개 항목을 저장합니다
+ * - GCRA: TAT 값 하나만 저장하며 요청을 일정 간격으로 고르게 허용합니다 (버스트는 limit까지)
+ */
+public enum RateLimitAlgorithmType {
+
+    FIXED_WINDOW(() -> new ScriptRateLimitAlgorithm("rl:", "scripts/ratelimit/fixed_window.lua")),
+
+    SLIDING_WINDOW_COUNTER(() -> new ScriptRateLimitAlgorithm("rl:swc:", "scripts/ratelimit/sliding_window_counter.lua")),
+
+    SLIDING_LOG(() -> new ScriptRateLimitAlgorithm("rl:log:", "scripts/ratelimit/sliding_log.lua") {
+        @Override
+        public Object[] args(int limit, int windowSeconds) {
+            // 같은 밀리초에 들어온 요청도 서로 다른 항목으로 기록되도록 난수를 붙입니다
+            return new Object[]{limit, windowSeconds, ThreadLocalRandom.current().nextLong(Long.MAX_VALUE)};
+        }
+    }),
+
+    GCRA(() -> new ScriptRateLimitAlgorithm("rl:gcra:", "scripts/ratelimit/gcra.lua"));
+
+    private final Supplier<RateLimitAlgorithm> factory;
+
+    RateLimitAlgorithmType(Supplier<RateLimitAlgorithm> factory) {
+        this.factory = factory;
+    }
+
+    RateLimitAlgorithm create() {
+        return factory.get();
+    }
+}
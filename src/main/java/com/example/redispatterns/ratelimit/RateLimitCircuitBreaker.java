@@ -0,0 +1,207 @@
+package com.example.redispatterns.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 속도 제한 Redis 호출을 감싸는 지연 시간 기반 서킷 브레이커입니다.
+ *
+ * - CLOSED: 최근 window-size개 호출 중 실패(오류 또는 slow-call-threshold보다 느린 호출) 비율이
+ *   failure-rate-threshold% 이상이면 OPEN으로 전환합니다 (최소 minimum-calls개가 쌓인 뒤부터)
+ * - OPEN: open-duration 동안 Redis를 호출하지 않고 바로 거절합니다 (호출자는 로컬 제한기로 판정)
+ * - HALF_OPEN: half-open-calls개의 시험 호출만 허용하여 모두 성공하면 CLOSED, 하나라도 실패하면 다시 OPEN
+ *   half-open-timeout 동안 결과가 모이지 않으면(결과를 알리지 않은 호출) 시험 호출 허가를 다시 채웁니다
+ *
+ * CLOSED 상태의 허용 판정은 volatile 읽기 한 번이고, 결과 기록만 짧게 동기화합니다.
+ * 상태 전환은 ratelimit.circuit.transitions{from,to}, 현재 상태는 ratelimit.circuit.state 게이지로 남깁니다.
+ */
+@Component
+public class RateLimitCircuitBreaker {
+    private static final Logger log = LoggerFactory.getLogger(RateLimitCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final MeterRegistry meterRegistry;
+    private final long slowCallNanos;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openDurationNanos;
+    private final int halfOpenCalls;
+    private final long halfOpenTimeoutNanos;
+
+    // 최근 호출 결과 (true = 실패), 링 버퍼
+    private final boolean[] outcomes;
+    private int outcomeIndex;
+    private int recordedCalls;
+    private int failedCalls;
+
+    private final AtomicInteger halfOpenPermits = new AtomicInteger();
+    private int halfOpenSuccesses;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAtNanos;
+    private volatile long halfOpenedAtNanos;
+
+    public RateLimitCircuitBreaker(MeterRegistry meterRegistry,
+                                   @Value("${app.ratelimit.circuit-breaker.slow-call-threshold:50}") long slowCallMillis,
+                                   @Value("${app.ratelimit.circuit-breaker.failure-rate-threshold:50}") int failureRateThreshold,
+                                   @Value("${app.ratelimit.circuit-breaker.window-size:20}") int windowSize,
+                                   @Value("${app.ratelimit.circuit-breaker.minimum-calls:10}") int minimumCalls,
+                                   @Value("${app.ratelimit.circuit-breaker.open-duration:5000}") long openDurationMillis,
+                                   @Value("${app.ratelimit.circuit-breaker.half-open-calls:5}") int halfOpenCalls,
+                                   @Value("${app.ratelimit.circuit-breaker.half-open-timeout:5000}") long halfOpenTimeoutMillis) {
+        this.meterRegistry = meterRegistry;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+        this.failureRateThreshold = failureRateThreshold;
+        this.outcomes = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.min(Math.max(1, minimumCalls), outcomes.length);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.halfOpenTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(halfOpenTimeoutMillis);
+
+        Gauge.builder("ratelimit.circuit.state", this, breaker -> breaker.state.ordinal())
+                .description("Rate limit circuit breaker state (0=closed, 1=open, 2=half-open)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Redis를 호출해도 되는지 확인합니다. true를 받은 호출자는 결과를 반드시
+     * {@link #onSuccess(long)} 또는 {@link #onError()}로 알려야 합니다.
+     */
+    public boolean tryAcquirePermission() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openDurationNanos) {
+                return false;
+            }
+            synchronized (this) {
+                if (state == State.OPEN) {
+                    refillHalfOpenPermits();
+                    transitionTo(State.HALF_OPEN);
+                }
+            }
+            return tryAcquirePermission();
+        }
+        if (takeHalfOpenPermit()) {
+            return true;
+        }
+        if (System.nanoTime() - halfOpenedAtNanos < halfOpenTimeoutNanos) {
+            return false;
+        }
+        synchronized (this) {
+            // 시험 호출 결과가 오지 않아 HALF_OPEN에 멈추지 않도록 허가를 다시 채웁니다
+            if (state == State.HALF_OPEN && System.nanoTime() - halfOpenedAtNanos >= halfOpenTimeoutNanos) {
+                log.warn("[RateLimit] HALF_OPEN 시험 호출 결과 없음 - 허가 재발급, successes={}", halfOpenSuccesses);
+                refillHalfOpenPermits();
+            }
+        }
+        return takeHalfOpenPermit();
+    }
+
+    /**
+     * 서킷이 Redis 호출을 허가하지 않았음을 알립니다 (HYBRID 모드의 동기 대여). 스택 트레이스를 만들지 않습니다.
+     */
+    public static class CallNotPermittedException extends RuntimeException {
+        public CallNotPermittedException() {
+            super("Rate limit circuit breaker is open", null, false, false);
+        }
+    }
+
+    /**
+     * 호출이 성공한 경우 소요 시간과 함께 기록합니다. slow-call-threshold보다 느리면 실패로 집계합니다.
+     */
+    public void onSuccess(long elapsedNanos) {
+        record(elapsedNanos >= slowCallNanos);
+    }
+
+    /**
+     * 호출이 실패(타임아웃 포함)한 경우 기록합니다.
+     */
+    public void onError() {
+        record(true);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private synchronized void record(boolean failed) {
+        if (state == State.HALF_OPEN) {
+            if (failed) {
+                open();
+            } else if (++halfOpenSuccesses >= halfOpenCalls) {
+                resetWindow();
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // OPEN 전환 전에 시작된 호출의 결과는 무시합니다
+            return;
+        }
+
+        if (recordedCalls == outcomes.length) {
+            if (outcomes[outcomeIndex]) {
+                failedCalls--;
+            }
+        } else {
+            recordedCalls++;
+        }
+        outcomes[outcomeIndex] = failed;
+        if (failed) {
+            failedCalls++;
+        }
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+
+        if (recordedCalls >= minimumCalls && failedCalls * 100 >= failureRateThreshold * recordedCalls) {
+            log.warn("[RateLimit] 서킷 OPEN - failedCalls={}, recordedCalls={}", failedCalls, recordedCalls);
+            open();
+        }
+    }
+
+    private boolean takeHalfOpenPermit() {
+        return halfOpenPermits.getAndUpdate(permits -> permits > 0 ? permits - 1 : 0) > 0;
+    }
+
+    private void refillHalfOpenPermits() {
+        halfOpenPermits.set(halfOpenCalls);
+        halfOpenSuccesses = 0;
+        halfOpenedAtNanos = System.nanoTime();
+    }
+
+    private void open() {
+        openedAtNanos = System.nanoTime();
+        halfOpenPermits.set(0);
+        resetWindow();
+        transitionTo(State.OPEN);
+    }
+
+    private void resetWindow() {
+        outcomeIndex = 0;
+        recordedCalls = 0;
+        failedCalls = 0;
+    }
+
+    private void transitionTo(State next) {
+        State previous = state;
+        if (previous == next) {
+            return;
+        }
+        state = next;
+        meterRegistry.counter("ratelimit.circuit.transitions",
+                "from", previous.name().toLowerCase(), "to", next.name().toLowerCase()).increment();
+        log.info("[RateLimit] 서킷 상태 전환 - {} -> {}", previous, next);
+    }
+}
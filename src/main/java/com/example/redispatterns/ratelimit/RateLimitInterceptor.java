@@ -4,57 +4,144 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 @Component
 public class RateLimitInterceptor implements HandlerInterceptor {
     private static final Logger log = LoggerFactory.getLogger(RateLimitInterceptor.class);
     
+    static final String HEADER_LIMIT = "RateLimit-Limit";
+    static final String HEADER_REMAINING = "RateLimit-Remaining";
+    static final String HEADER_RESET = "RateLimit-Reset";
+    
+    // 거절 응답 본문은 요청마다 만들지 않고 한 번만 인코딩합니다
+    private static final byte[] REJECTION_BODY =
+            "{\"error\":\"Rate limit exceeded. Please try again later.\"}".getBytes(StandardCharsets.UTF_8);
+    
+    // 비동기 처리 후 다시 디스패치된 요청에서 검사가 반복되지 않도록 표시합니다
+    private static final String HANDLED_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".HANDLED";
+    private static final String LEASE_ATTRIBUTE = RateLimitInterceptor.class.getName() + ".LEASE";
+    
     private final RateLimitService rateLimitService;
+    private final ConcurrencyLimitService concurrencyLimitService;
+    private final RateLimitPolicyRegistry policyRegistry;
+    private final HeavyHitterDetector heavyHitterDetector;
     
-    public RateLimitInterceptor(RateLimitService rateLimitService) {
+    public RateLimitInterceptor(RateLimitService rateLimitService,
+                                ConcurrencyLimitService concurrencyLimitService,
+                                RateLimitPolicyRegistry policyRegistry,
+                                HeavyHitterDetector heavyHitterDetector) {
         this.rateLimitService = rateLimitService;
+        this.concurrencyLimitService = concurrencyLimitService;
+        this.policyRegistry = policyRegistry;
+        this.heavyHitterDetector = heavyHitterDetector;
     }
     
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        // 클라이언트 IP 주소 확인
-        String clientIp = getClientIp(request);
+        if (request.getAttribute(HANDLED_ATTRIBUTE) != null) {
+            return true;
+        }
         
-        // 요청 경로 확인
+        // heavy hitter 집계, 로컬 차단 캐시에 오른 클라이언트는 Redis 호출 전에 거절
+        if (heavyHitterDetector.recordAndCheckDenied(request)) {
+            request.setAttribute(HANDLED_ATTRIBUTE, Boolean.TRUE);
+            reject(response, heavyHitterDetector.denyRetryAfterSeconds());
+            return false;
+        }
+        
+        // 요청 경로와 메서드에 해당하는 정책 확인 (없으면 제한하지 않음)
         String requestPath = request.getRequestURI();
+        RateLimitPolicy policy = policyRegistry.resolve(request.getMethod(), requestPath);
+        if (policy == null) {
+            return true;
+        }
+        request.setAttribute(HANDLED_ATTRIBUTE, Boolean.TRUE);
         
-        // IP와 경로를 기반으로 속도 제한 키 생성
-        String rateLimitKey = clientIp + ":" + requestPath;
+        // 정책의 키 기준(IP / API 키 / 고객 ID)으로 버킷 키 생성
+        String identity = policy.identify(request);
+        String rateLimitKey = policy.bucketKey(identity);
         
-        // 요청 허용 여부 확인
-        boolean allowed = rateLimitService.isAllowed(rateLimitKey);
+        // 동시 실행 수 제한을 먼저 확인하여, 동시 실행 수로 거절된 요청이 속도 제한 토큰을 쓰지 않게 합니다
+        // 리스는 요청 처리가 끝난 뒤 afterCompletion에서 반납
+        ConcurrencyLimitService.ConcurrencyLease lease = null;
+        if (policy.limitsConcurrency()) {
+            lease = concurrencyLimitService.tryAcquire(rateLimitKey, policy.maxConcurrent());
+            if (lease == null) {
+                log.warn("Concurrency limit exceeded for policy: {}, key: {}, Path: {}", policy.name(), identity, requestPath);
+                reject(response, 1);
+                return false;
+            }
+        }
         
-        if (!allowed) {
-            log.warn("Rate limit exceeded for IP: {}, Path: {}", clientIp, requestPath);
+        // 정책에 설정된 방식(REDIS / HYBRID)과 알고리즘으로 요청 허용 여부 확인 (ASYNC / THROTTLE 정책은 AsyncRateLimitFilter에서 이미 판정)
+        if (!policy.mode().usesServletAsync()) {
+            RateLimitResult result = rateLimitService.check(rateLimitKey, policy.limitFor(identity), policy.windowSeconds(),
+                    policy.mode(), policy.algorithm());
+            writeHeaders(response, result);
             
-            // 429(Too Many Requests) 상태 코드 설정
-            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-            response.setContentType("application/json");
-            response.getWriter().write("{\"error\":\"Rate limit exceeded. Please try again later.\"}");
-            
-            return false;
+            if (!result.allowed()) {
+                log.warn("Rate limit exceeded for policy: {}, key: {}, Path: {}", policy.name(), identity, requestPath);
+                if (lease != null) {
+                    concurrencyLimitService.release(lease);
+                }
+                reject(response, result);
+                return false;
+            }
         }
         
+        if (lease != null) {
+            request.setAttribute(LEASE_ATTRIBUTE, lease);
+        }
         return true;
     }
     
     /**
-     * 요청으로부터 클라이언트 IP 주소를 추출합니다.
+     * 요청 처리가 끝나면(비동기 처리는 완료 후 디스패치에서) 동시 실행 리스를 반납합니다.
      */
-    private String getClientIp(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            // 프록시가 여러 단계인 경우, 첫 번째 IP가 실제 클라이언트의 IP입니다
-            return xForwardedFor.split(",")[0].trim();
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object lease = request.getAttribute(LEASE_ATTRIBUTE);
+        if (lease instanceof ConcurrencyLimitService.ConcurrencyLease concurrencyLease) {
+            request.removeAttribute(LEASE_ATTRIBUTE);
+            concurrencyLimitService.release(concurrencyLease);
         }
-        return request.getRemoteAddr();
+    }
+    
+    /**
+     * 판정 결과를 RateLimit-Limit / RateLimit-Remaining / RateLimit-Reset(초) 헤더로 씁니다.
+     * 컨트롤러가 응답을 커밋하기 전에 호출해야 하므로 판정 직후에 설정합니다.
+     */
+    static void writeHeaders(HttpServletResponse response, RateLimitResult result) {
+        response.setHeader(HEADER_LIMIT, Long.toString(result.limit()));
+        response.setHeader(HEADER_REMAINING, Long.toString(result.remaining()));
+        response.setHeader(HEADER_RESET, Long.toString(toSeconds(result.resetMillis())));
+    }
+    
+    /**
+     * Retry-After 헤더와 미리 인코딩한 본문으로 429(Too Many Requests) 응답을 작성합니다.
+     */
+    static void reject(HttpServletResponse response, RateLimitResult result) throws IOException {
+        // 0초로 보내면 클라이언트가 바로 재시도하므로 최소 1초
+        reject(response, Math.max(toSeconds(result.retryAfterMillis()), 1));
+    }
+    
+    static void reject(HttpServletResponse response, long retryAfterSeconds) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(REJECTION_BODY.length);
+        response.getOutputStream().write(REJECTION_BODY);
+    }
+    
+    private static long toSeconds(long millis) {
+        return (millis + 999) / 1000;
     }
 }
\ No newline at end of file
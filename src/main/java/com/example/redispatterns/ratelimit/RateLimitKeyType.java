@@ -0,0 +1,92 @@
+package com.example.redispatterns.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * 속도 제한 버킷을 나누는 기준입니다. 검증되지 않은 요청은 클라이언트 IP로 구분합니다.
+ *
+ * 클라이언트가 헤더 값을 바꿔 가며 버킷을 새로 만들거나 다른 테넌트의 한도를 주장할 수 없도록,
+ * API 키는 정책의 tenant-limits에 등록된 키만, 고객 ID는 인증된 사용자(Principal)만 신뢰합니다.
+ * API 키 자체는 로그와 Redis 키에 남지 않도록 SHA-256 해시로 바꿔 사용합니다.
+ */
+public enum RateLimitKeyType {
+
+    IP {
+        @Override
+        public String extract(HttpServletRequest request, String header, Set<String> registeredKeys) {
+            return clientIp(request);
+        }
+    },
+
+    /**
+     * 헤더의 API 키 해시가 tenant-limits에 등록된 경우에만 그 해시를 식별 값으로 사용합니다.
+     */
+    API_KEY {
+        @Override
+        public String extract(HttpServletRequest request, String header, Set<String> registeredKeys) {
+            String value = request.getHeader(header != null ? header : DEFAULT_API_KEY_HEADER);
+            if (value != null && !value.isBlank()) {
+                String hashed = hash(value.trim());
+                if (registeredKeys.contains(hashed)) {
+                    return hashed;
+                }
+            }
+            return "ip:" + clientIp(request);
+        }
+    },
+
+    /**
+     * 인증된 사용자 이름을 고객 ID로 사용합니다. 헤더로 전달된 고객 ID는 검증할 수 없으므로 사용하지 않습니다.
+     */
+    CUSTOMER_ID {
+        @Override
+        public String extract(HttpServletRequest request, String header, Set<String> registeredKeys) {
+            Principal principal = request.getUserPrincipal();
+            if (principal != null && principal.getName() != null && !principal.getName().isBlank()) {
+                return principal.getName();
+            }
+            return "ip:" + clientIp(request);
+        }
+    };
+
+    private static final String DEFAULT_API_KEY_HEADER = "X-API-Key";
+
+    /**
+     * 요청에서 버킷 식별 값을 꺼냅니다.
+     *
+     * @param header 값을 읽을 헤더 이름 (api-key에서만 사용, null이면 X-API-Key)
+     * @param registeredKeys 정책에 등록된 식별 값 (tenant-limits의 키)
+     */
+    public abstract String extract(HttpServletRequest request, String header, Set<String> registeredKeys);
+
+    /**
+     * API 키를 식별 값(SHA-256 16진수)으로 바꿉니다. tenant-limits에는 이 값을 키로 등록합니다.
+     */
+    public static String hash(String apiKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(apiKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * 요청으로부터 클라이언트 IP 주소를 추출합니다.
+     */
+    static String clientIp(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            // 프록시가 여러 단계인 경우, 첫 번째 IP가 실제 클라이언트의 IP입니다
+            return xForwardedFor.split(",")[0].trim();
+        }
+        return request.getRemoteAddr();
+    }
+}
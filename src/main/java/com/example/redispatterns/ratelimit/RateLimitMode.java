@@ -0,0 +1,37 @@
+package com.example.redispatterns.ratelimit;
+
+/**
+ * 속도 제한 판정 방식입니다.
+ */
+public enum RateLimitMode {
+
+    /**
+     * 요청마다 Redis Lua 스크립트로 판정합니다 (정확하지만 요청마다 네트워크 왕복).
+     */
+    REDIS,
+
+    /**
+     * 노드별 로컬 토큰 버킷으로 판정하고, 토큰은 Redis 전역 예산에서 묶음으로 빌려옵니다.
+     */
+    HYBRID,
+
+    /**
+     * 고정 윈도우로 판정하되, 요청 스레드를 막지 않고 비동기 연결로 짧은 간격마다 모아서 보냅니다.
+     * 같은 키의 동시 요청은 INCRBY n 한 번으로 합칩니다 (algorithm 설정은 사용하지 않음).
+     */
+    ASYNC,
+
+    /**
+     * 한도를 넘은 요청을 거절하지 않고 GCRA로 계산한 차례까지 지연시킵니다 (algorithm 설정은 사용하지 않음).
+     * 대기 시간이 max-delay를 넘거나 키별 대기 요청이 max-queue-depth에 도달하면 429로 거절합니다.
+     */
+    THROTTLE;
+
+    /**
+     * 판정을 기다리거나 요청을 지연시키기 위해 서블릿 비동기 처리가 필요한 방식인지 여부입니다.
+     * 이런 정책은 인터셉터 대신 {@link AsyncRateLimitFilter}에서 판정합니다.
+     */
+    public boolean usesServletAsync() {
+        return this == ASYNC || this == THROTTLE;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.redispatterns.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.Map;
+
+/**
+ * 요청 하나에 적용할, 기본값이 모두 채워진 속도 제한 정책입니다.
+ *
+ * 버킷 키는 {@code {정책 이름}:{식별 값}}이므로 정책 하나에 속한 경로들은 같은 한도를 공유합니다.
+ * maxConcurrent가 0보다 크면 요청 수와 별도로 키별 동시 실행 수도 제한합니다.
+ * maxDelayMillis / maxQueueDepth는 THROTTLE 모드에서만 사용합니다.
+ */
+public record RateLimitPolicy(String name,
+                              RateLimitMode mode,
+                              RateLimitAlgorithmType algorithm,
+                              RateLimitKeyType keyType,
+                              String keyHeader,
+                              int limit,
+                              int windowSeconds,
+                              Map<String, Integer> tenantLimits,
+                              int maxConcurrent,
+                              long maxDelayMillis,
+                              int maxQueueDepth) {
+
+    public RateLimitPolicy {
+        tenantLimits = tenantLimits != null ? Map.copyOf(tenantLimits) : Map.of();
+    }
+
+    /**
+     * 요청에서 버킷 식별 값(IP, 등록된 API 키의 해시, 인증된 고객 ID)을 꺼냅니다.
+     */
+    public String identify(HttpServletRequest request) {
+        return keyType.extract(request, keyHeader, tenantLimits.keySet());
+    }
+
+    public String bucketKey(String identity) {
+        return name + ":" + identity;
+    }
+
+    /**
+     * 동시 실행 수 제한이 설정되어 있는지 여부입니다.
+     */
+    public boolean limitsConcurrency() {
+        return maxConcurrent > 0;
+    }
+
+    /**
+     * 식별 값별로 재정의된 한도가 있으면 그 값을, 없으면 정책 한도를 반환합니다.
+     */
+    public int limitFor(String identity) {
+        return tenantLimits.getOrDefault(identity, limit);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.redispatterns.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 정책 목록을 미리 컴파일한 매처입니다. 정책 순서가 우선순위입니다 (앞에 있을수록 우선).
+ *
+ * - 와일드카드가 없는 패턴은 경로 → 정책 해시 조회
+ * - 와일드카드 패턴은 첫 경로 세그먼트로 묶어서 요청 경로와 같은 묶음만 비교
+ * - (메서드, 경로)별 결과는 크기 제한 캐시에 보관하므로 같은 경로의 반복 요청은 해시 조회 한 번으로 끝납니다
+ */
+final class RateLimitPolicyMatcher {
+
+    private static final int RESOLVED_CACHE_SIZE = 10_000;
+
+    private final Map<String, List<Entry>> exactEntries = new HashMap<>();
+    private final Map<String, List<Entry>> prefixedEntries = new HashMap<>();
+    private final List<Entry> rootEntries = new ArrayList<>();
+    private final Cache<String, Optional<RateLimitPolicy>> resolved = Caffeine.newBuilder()
+            .maximumSize(RESOLVED_CACHE_SIZE)
+            .build();
+
+    /**
+     * @param policies 우선순위 순서의 정책과 각 정책의 경로 패턴/메서드
+     */
+    RateLimitPolicyMatcher(List<Definition> policies) {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        for (int priority = 0; priority < policies.size(); priority++) {
+            Definition definition = policies.get(priority);
+            Set<String> methods = definition.methods().stream()
+                    .map(method -> method.toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+
+            for (String pattern : definition.patterns()) {
+                if (!isWildcard(pattern)) {
+                    exactEntries.computeIfAbsent(pattern, key -> new ArrayList<>())
+                            .add(new Entry(priority, definition.policy(), methods, null));
+                    continue;
+                }
+
+                Entry entry = new Entry(priority, definition.policy(), methods, parser.parse(pattern));
+                String firstSegment = firstSegment(pattern);
+                if (firstSegment != null && !isWildcard(firstSegment)) {
+                    prefixedEntries.computeIfAbsent(firstSegment, key -> new ArrayList<>()).add(entry);
+                } else {
+                    rootEntries.add(entry);
+                }
+            }
+        }
+    }
+
+    /**
+     * 요청에 적용할 정책을 찾습니다. 일치하는 정책이 없으면 null을 반환합니다.
+     */
+    RateLimitPolicy match(String method, String path) {
+        return resolved.get(method + " " + path, key -> Optional.ofNullable(compute(method, path))).orElse(null);
+    }
+
+    private RateLimitPolicy compute(String method, String path) {
+        PathContainer pathContainer = PathContainer.parsePath(path);
+        Entry best = first(exactEntries.get(path), method, null);
+        best = first(prefixedEntries.get(firstSegment(path)), method, pathContainer, best);
+        best = first(rootEntries, method, pathContainer, best);
+        return best != null ? best.policy() : null;
+    }
+
+    private Entry first(List<Entry> entries, String method, PathContainer path) {
+        return first(entries, method, path, null);
+    }
+
+    /**
+     * 우선순위 순으로 정렬된 entries에서 현재 best보다 우선하는 첫 일치 항목을 찾습니다.
+     */
+    private Entry first(List<Entry> entries, String method, PathContainer path, Entry best) {
+        if (entries == null) {
+            return best;
+        }
+        for (Entry entry : entries) {
+            if (best != null && entry.priority() >= best.priority()) {
+                break;
+            }
+            if (entry.matches(method, path)) {
+                return entry;
+            }
+        }
+        return best;
+    }
+
+    private static boolean isWildcard(String pattern) {
+        return pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0 || pattern.indexOf('{') >= 0;
+    }
+
+    private static String firstSegment(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        String segment = end < 0 ? path.substring(start) : path.substring(start, end);
+        return segment.isEmpty() ? null : segment;
+    }
+
+    record Definition(RateLimitPolicy policy, List<String> patterns, List<String> methods) {
+    }
+
+    private record Entry(int priority, RateLimitPolicy policy, Set<String> methods, PathPattern pattern) {
+
+        boolean matches(String method, PathContainer path) {
+            if (!methods.isEmpty() && !methods.contains(method)) {
+                return false;
+            }
+            // 와일드카드가 없는 패턴은 해시 조회로 이미 경로가 일치한 상태입니다
+            return pattern == null || pattern.matches(path);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.redispatterns.ratelimit;
+
+import com.example.redispatterns.config.RateLimitProperties;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * application.yml과 Redis 해시에 정의된 속도 제한 정책을 컴파일하여 요청별 정책을 찾아줍니다.
+ *
+ * Redis 해시({@code rl:policies})의 필드는 정책 이름, 값은 yml 정책과 같은 항목의 JSON입니다.
+ * EX) {@code HSET rl:policies payments-post '{"patterns":["/payments"],"methods":["POST"],"key":"api-key","limit":100}'}
+ * 같은 이름의 yml 정책은 Redis 정책으로 대체되고, 새 이름의 정책은 yml 정책보다 앞에(우선) 놓입니다.
+ * 해시가 바뀐 경우에만 매처를 다시 컴파일하여 통째로 교체하므로 요청 경로에는 잠금이 없습니다.
+ */
+@Component
+public class RateLimitPolicyRegistry {
+    private static final Logger log = LoggerFactory.getLogger(RateLimitPolicyRegistry.class);
+
+    private final RateLimitProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean reloadEnabled;
+    private final String reloadKey;
+
+    private volatile RateLimitPolicyMatcher matcher;
+    private volatile Map<Object, Object> lastRedisPolicies = Map.of();
+
+    public RateLimitPolicyRegistry(RateLimitProperties properties,
+                                   StringRedisTemplate redisTemplate,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.ratelimit.reload.enabled:true}") boolean reloadEnabled,
+                                   @Value("${app.ratelimit.reload.key:rl:policies}") String reloadKey) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.reloadEnabled = reloadEnabled;
+        this.reloadKey = reloadKey;
+        this.matcher = compile(properties.getPolicies());
+    }
+
+    /**
+     * 요청에 적용할 정책을 반환합니다. 일치하는 정책이 없으면 null입니다.
+     */
+    public RateLimitPolicy resolve(String method, String path) {
+        return matcher.match(method, path);
+    }
+
+    /**
+     * Redis 해시의 정책을 읽어, 이전과 달라졌으면 매처를 다시 만듭니다.
+     * Redis 오류나 잘못된 정책이 있으면 현재 정책을 그대로 유지합니다.
+     */
+    @Scheduled(fixedDelayString = "${app.ratelimit.reload.interval:10000}")
+    public void reload() {
+        if (!reloadEnabled) {
+            return;
+        }
+
+        try {
+            Map<Object, Object> entries = new TreeMap<>(redisTemplate.opsForHash().entries(reloadKey));
+            if (entries.equals(lastRedisPolicies)) {
+                return;
+            }
+
+            List<RateLimitProperties.Policy> policies = merge(properties.getPolicies(), parse(entries));
+            matcher = compile(policies);
+            lastRedisPolicies = entries;
+            log.info("[RateLimit] 정책 다시 로드 - redisPolicies={}, totalPolicies={}", entries.size(), policies.size());
+        } catch (Exception e) {
+            log.warn("[RateLimit] 정책 로드 실패, 기존 정책을 유지합니다 - key={}, reason={}", reloadKey, e.toString());
+        }
+    }
+
+    private RateLimitPolicyMatcher compile(List<RateLimitProperties.Policy> policies) {
+        List<RateLimitPolicyMatcher.Definition> definitions = new ArrayList<>(policies.size());
+        for (int i = 0; i < policies.size(); i++) {
+            RateLimitProperties.Policy policy = properties.resolve(policies.get(i));
+            String name = policy.getName() != null ? policy.getName() : derivedName(policy);
+            RateLimitPolicy compiled = new RateLimitPolicy(
+                    name,
+                    policy.getMode(),
+                    policy.getAlgorithm(),
+                    policy.getKey(),
+                    policy.getKeyHeader(),
+                    policy.getLimit(),
+                    policy.getWindowSeconds(),
+                    policy.getTenantLimits(),
+                    policy.getMaxConcurrent() != null ? policy.getMaxConcurrent() : 0,
+                    policy.getMaxDelay().toMillis(),
+                    policy.getMaxQueueDepth());
+            definitions.add(new RateLimitPolicyMatcher.Definition(compiled, policy.getPatterns(), policy.getMethods()));
+        }
+        return new RateLimitPolicyMatcher(definitions);
+    }
+
+    /**
+     * 이름 없는 정책의 이름을 메서드와 경로 패턴으로 만듭니다. 버킷 키에 쓰이므로 정책 순서가 바뀌어도 달라지지 않아야 합니다.
+     * EX) {@code POST /payments/**}
+     */
+    static String derivedName(RateLimitProperties.Policy policy) {
+        String patterns = String.join(",", policy.getPatterns());
+        if (policy.getMethods() == null || policy.getMethods().isEmpty()) {
+            return patterns;
+        }
+        return String.join(",", policy.getMethods()) + " " + patterns;
+    }
+
+    private List<RateLimitProperties.Policy> merge(List<RateLimitProperties.Policy> configured,
+                                                   List<RateLimitProperties.Policy> overrides) {
+        Map<String, RateLimitProperties.Policy> overridesByName = new LinkedHashMap<>();
+        overrides.forEach(policy -> overridesByName.put(policy.getName(), policy));
+
+        List<RateLimitProperties.Policy> merged = new ArrayList<>();
+        List<RateLimitProperties.Policy> replaced = new ArrayList<>();
+        for (RateLimitProperties.Policy policy : configured) {
+            RateLimitProperties.Policy override = overridesByName.remove(policy.getName());
+            replaced.add(override != null ? override : policy);
+        }
+        merged.addAll(overridesByName.values());
+        merged.addAll(replaced);
+        return merged;
+    }
+
+    /**
+     * JSON 정책을 yml과 같은 규칙(relaxed binding)으로 바인딩합니다. EX) "window-seconds", "sliding-log"
+     */
+    private List<RateLimitProperties.Policy> parse(Map<Object, Object> entries) throws Exception {
+        List<RateLimitProperties.Policy> policies = new ArrayList<>(entries.size());
+        for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            Map<String, Object> json = objectMapper.readValue(String.valueOf(entry.getValue()), new TypeReference<>() {});
+            Map<String, Object> flattened = new LinkedHashMap<>();
+            flatten("policy", json, flattened);
+
+            RateLimitProperties.Policy policy = new Binder(new MapConfigurationPropertySource(flattened))
+                    .bind("policy", RateLimitProperties.Policy.class)
+                    .orElseGet(RateLimitProperties.Policy::new);
+            if (policy.getName() == null) {
+                policy.setName(String.valueOf(entry.getKey()));
+            }
+            policies.add(policy);
+        }
+        return policies;
+    }
+
+    private void flatten(String prefix, Object value, Map<String, Object> target) {
+        if (value instanceof Map<?, ?> map) {
+            map.forEach((key, nested) -> flatten(prefix + "." + key, nested, target));
+        } else if (value instanceof List<?> list) {
+            for (int i = 0; i < list.size(); i++) {
+                flatten(prefix + "[" + i + "]", list.get(i), target);
+            }
+        } else if (value != null) {
+            target.put(prefix, String.valueOf(value));
+        }
+    }
+}
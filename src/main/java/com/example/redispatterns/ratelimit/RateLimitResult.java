@@ -0,0 +1,35 @@
+package com.example.redispatterns.ratelimit;
+
+import java.util.List;
+
+/**
+ * 속도 제한 판정 결과입니다. 판정과 같은 왕복에서 남은 요청 수와 리셋 시각을 함께 받습니다.
+ *
+ * @param allowed 요청 허용 여부
+ * @param limit 적용된 한도
+ * @param remaining 이번 요청 이후 남은 요청 수
+ * @param resetMillis 한도가 완전히 회복될 때까지 남은 시간(ms)
+ * @param retryAfterMillis 거절된 경우 다시 시도할 수 있을 때까지 남은 시간(ms), 허용된 경우 0
+ */
+public record RateLimitResult(boolean allowed, long limit, long remaining, long resetMillis, long retryAfterMillis) {
+
+    /**
+     * Lua 스크립트 반환값 {@code {allowed, remaining, resetMillis, retryAfterMillis}}을 변환합니다.
+     */
+    static RateLimitResult fromScript(List<?> values, long limit) {
+        if (values == null || values.size() < 4) {
+            throw new IllegalStateException("Unexpected rate limit script result: " + values);
+        }
+        return new RateLimitResult(
+                toLong(values.get(0)) == 1,
+                limit,
+                Math.max(toLong(values.get(1)), 0),
+                Math.max(toLong(values.get(2)), 0),
+                Math.max(toLong(values.get(3)), 0)
+        );
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+}
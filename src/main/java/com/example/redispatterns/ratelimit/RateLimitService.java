@@ -1,20 +1,26 @@
 package com.example.redispatterns.ratelimit;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.io.ClassPathResource;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
-import org.springframework.util.StreamUtils;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
-import java.util.concurrent.TimeUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * 속도 제한 판정 서비스입니다.
+ *
+ * Redis 호출은 짧은 명령 타임아웃을 가진 전용 연결(rateLimitRedisTemplate)로 보내고 서킷 브레이커로 감쌉니다.
+ * 호출이 실패하거나 서킷이 열려 있으면 Redis를 기다리지 않고 노드 로컬 제한기로 판정합니다.
+ */
 @Service
 public class RateLimitService {
     private static final Logger log = LoggerFactory.getLogger(RateLimitService.class);
@@ -24,40 +30,247 @@ public class RateLimitService {
     private static final int DEFAULT_WINDOW_SECONDS = 10;
     
     private final RedisTemplate<String, Object> redisTemplate;
-    private final RedisScript<Long> rateLimitScript;
+    private final Map<RateLimitAlgorithmType, RateLimitAlgorithm> algorithms = new EnumMap<>(RateLimitAlgorithmType.class);
+    private final HybridRateLimiter hybridRateLimiter;
+    private final CoalescingRateLimiter coalescingRateLimiter;
+    private final RateLimitCircuitBreaker circuitBreaker;
+    private final LocalFallbackRateLimiter fallbackRateLimiter;
     
-    public RateLimitService(RedisTemplate<String, Object> redisTemplate) {
+    private final Counter allowedCounter;
+    private final Counter deniedCounter;
+    private final Counter errorCounter;
+    private final Counter fallbackCounter;
+    private final Counter throttledCounter;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> throttleScript = RateLimitAlgorithm.loadScript("scripts/ratelimit/gcra_throttle.lua");
+    
+    public RateLimitService(@Qualifier("rateLimitRedisTemplate") RedisTemplate<String, Object> redisTemplate,
+                            HybridRateLimiter hybridRateLimiter,
+                            CoalescingRateLimiter coalescingRateLimiter,
+                            RateLimitCircuitBreaker circuitBreaker,
+                            LocalFallbackRateLimiter fallbackRateLimiter,
+                            MeterRegistry meterRegistry) {
         this.redisTemplate = redisTemplate;
-        this.rateLimitScript = createRateLimitScript();
+        for (RateLimitAlgorithmType type : RateLimitAlgorithmType.values()) {
+            algorithms.put(type, type.create());
+        }
+        this.hybridRateLimiter = hybridRateLimiter;
+        this.coalescingRateLimiter = coalescingRateLimiter;
+        this.circuitBreaker = circuitBreaker;
+        this.fallbackRateLimiter = fallbackRateLimiter;
+        this.allowedCounter = createDecisionCounter(meterRegistry, "allowed");
+        this.deniedCounter = createDecisionCounter(meterRegistry, "denied");
+        // Redis 호출이 실패하여 로컬 제한기로 판정한 요청
+        this.errorCounter = createDecisionCounter(meterRegistry, "error");
+        // 서킷이 열려 있어 Redis를 호출하지 않고 로컬 제한기로 판정한 요청
+        this.fallbackCounter = createDecisionCounter(meterRegistry, "fallback");
+        // THROTTLE 모드에서 거절 대신 지연시키기로 한 요청
+        this.throttledCounter = createDecisionCounter(meterRegistry, "throttled");
     }
     
     /**
-     * 요청이 속도 제한 기준을 만족하는지 확인합니다.
+     * 지정한 알고리즘으로 요청을 판정합니다. 판정과 남은 한도/리셋 시각을 한 번의 스크립트 실행으로 얻습니다.
      * 
      * @param key 속도 제한 키 (예: "ip:path")
      * @param limit 시간 창에서 허용되는 최대 요청 수
      * @param windowSeconds 시간 창(초)
-     * @return 허용되면 true, 제한을 초과하면 false
+     * @param algorithmType 판정 알고리즘
+     * @return 판정 결과 (Redis 오류 또는 서킷 OPEN 시에는 로컬 제한기의 판정)
      */
-    public boolean isAllowed(String key, int limit, int windowSeconds) {
+    public RateLimitResult check(String key, int limit, int windowSeconds, RateLimitAlgorithmType algorithmType) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            fallbackCounter.increment();
+            return fallback(key, limit, windowSeconds);
+        }
+        
+        RateLimitAlgorithm algorithm = algorithms.get(algorithmType);
+        long startNanos = System.nanoTime();
         try {
-            Long count = redisTemplate.execute(
-                    rateLimitScript,
-                    Collections.singletonList("rl:" + key),
-                    limit,
-                    windowSeconds
+            List<?> values = redisTemplate.execute(
+                    algorithm.script(),
+                    Collections.singletonList(algorithm.keyPrefix() + key),
+                    algorithm.args(limit, windowSeconds)
             );
+            circuitBreaker.onSuccess(System.nanoTime() - startNanos);
             
-            boolean allowed = count != null && count <= limit;
-            if (!allowed) {
-                log.warn("Rate limit exceeded for key: {}, count: {}, limit: {}", key, count, limit);
+            RateLimitResult result = RateLimitResult.fromScript(values, limit);
+            if (result.allowed()) {
+                allowedCounter.increment();
+            } else {
+                deniedCounter.increment();
+                log.warn("Rate limit exceeded for key: {}, limit: {}, algorithm: {}, retryAfter: {}ms",
+                        key, limit, algorithmType, result.retryAfterMillis());
             }
             
-            return allowed;
+            return result;
         } catch (Exception e) {
+            circuitBreaker.onError();
+            errorCounter.increment();
             log.error("Error executing rate limit script", e);
-            // 오류 발생 시, 요청을 차단하지 않고 지나가도록 허용
-            return true;
+            // 오류 발생 시, 요청을 모두 통과시키는 대신 노드 로컬 몫으로 판정
+            return fallback(key, limit, windowSeconds);
+        }
+    }
+    
+    /**
+     * 고정 윈도우로 요청을 판정하되, 호출 스레드를 막지 않고 결과를 비동기로 반환합니다.
+     * 
+     * 짧은 간격 동안 모인 판정은 파이프라인 한 번으로, 같은 키의 판정은 INCRBY n 한 번으로 합쳐서 보냅니다.
+     * 반환된 future는 예외로 완료되지 않으며, Redis 오류/타임아웃/서킷 OPEN 시에는 로컬 제한기의 판정으로 완료됩니다.
+     * 
+     * @param key 속도 제한 키
+     * @param limit 시간 창에서 허용되는 최대 요청 수
+     * @param windowSeconds 시간 창(초)
+     */
+    public CompletableFuture<RateLimitResult> checkAsync(String key, int limit, int windowSeconds) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            fallbackCounter.increment();
+            return CompletableFuture.completedFuture(fallback(key, limit, windowSeconds));
+        }
+        
+        long startNanos = System.nanoTime();
+        return coalescingRateLimiter.acquire(key, limit, windowSeconds).handle((result, error) -> {
+            if (error != null) {
+                circuitBreaker.onError();
+                errorCounter.increment();
+                log.error("Error executing async rate limit check for key: {}, reason: {}", key, error.toString());
+                return fallback(key, limit, windowSeconds);
+            }
+            
+            circuitBreaker.onSuccess(System.nanoTime() - startNanos);
+            if (result.allowed()) {
+                allowedCounter.increment();
+            } else {
+                deniedCounter.increment();
+                log.warn("Rate limit exceeded for key: {}, limit: {} (async)", key, limit);
+            }
+            return result;
+        });
+    }
+    
+    /**
+     * THROTTLE 모드: 지금 허용할 수 없는 요청도 maxDelayMillis 안에 차례가 오면 GCRA로 그 시각의 자리를 예약합니다.
+     * 
+     * GCRA 알고리즘과 같은 TAT 키를 사용하며, Redis 오류나 서킷 OPEN 시에는 지연 없이 로컬 제한기로 판정합니다.
+     * 
+     * @param key 속도 제한 키
+     * @param limit 시간 창에서 허용되는 최대 요청 수 (버스트 허용량)
+     * @param windowSeconds limit이 완전히 회복되는 기간(초)
+     * @param maxDelayMillis 요청을 지연시킬 수 있는 최대 시간(ms)
+     */
+    public ThrottleReservation reserve(String key, int limit, int windowSeconds, long maxDelayMillis) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            fallbackCounter.increment();
+            return ThrottleReservation.immediate(fallback(key, limit, windowSeconds));
+        }
+        
+        RateLimitAlgorithm gcra = algorithms.get(RateLimitAlgorithmType.GCRA);
+        long startNanos = System.nanoTime();
+        try {
+            List<?> values = redisTemplate.execute(
+                    throttleScript,
+                    Collections.singletonList(gcra.keyPrefix() + key),
+                    limit, windowSeconds, maxDelayMillis
+            );
+            circuitBreaker.onSuccess(System.nanoTime() - startNanos);
+            
+            ThrottleReservation reservation = ThrottleReservation.fromScript(values, limit);
+            if (!reservation.result().allowed()) {
+                deniedCounter.increment();
+                log.warn("Rate limit exceeded for key: {}, limit: {}, maxDelay: {}ms (throttle)", key, limit, maxDelayMillis);
+            } else if (reservation.delayMillis() > 0) {
+                throttledCounter.increment();
+            } else {
+                allowedCounter.increment();
+            }
+            return reservation;
+        } catch (Exception e) {
+            circuitBreaker.onError();
+            errorCounter.increment();
+            log.error("Error executing rate limit throttle script", e);
+            return ThrottleReservation.immediate(fallback(key, limit, windowSeconds));
+        }
+    }
+    
+    /**
+     * {@link #checkAsync(String, int, int)}의 허용 여부만 반환합니다.
+     */
+    public CompletableFuture<Boolean> isAllowedAsync(String key, int limit, int windowSeconds) {
+        return checkAsync(key, limit, windowSeconds).thenApply(RateLimitResult::allowed);
+    }
+    
+    /**
+     * 요청이 속도 제한 기준을 만족하는지 확인합니다 (고정 윈도우).
+     * 
+     * @param key 속도 제한 키 (예: "ip:path")
+     * @param limit 시간 창에서 허용되는 최대 요청 수
+     * @param windowSeconds 시간 창(초)
+     * @return 허용되면 true, 제한을 초과하면 false
+     */
+    public boolean isAllowed(String key, int limit, int windowSeconds) {
+        return check(key, limit, windowSeconds, RateLimitAlgorithmType.FIXED_WINDOW).allowed();
+    }
+    
+    /**
+     * 지정한 방식으로 요청 허용 여부를 확인합니다.
+     * 
+     * @param key 속도 제한 키 (예: "ip:path")
+     * @param limit 시간 창에서 허용되는 최대 요청 수
+     * @param windowSeconds 시간 창(초)
+     * @param mode 판정 방식
+     * @param algorithmType REDIS 모드에서 사용할 알고리즘 (HYBRID/ASYNC 모드는 고정 윈도우를 사용)
+     * @return 허용되면 true, 제한을 초과하면 false
+     */
+    public boolean isAllowed(String key, int limit, int windowSeconds,
+                             RateLimitMode mode, RateLimitAlgorithmType algorithmType) {
+        return check(key, limit, windowSeconds, mode, algorithmType).allowed();
+    }
+    
+    /**
+     * 지정한 방식으로 요청을 판정하고, 응답 헤더에 쓸 남은 요청 수와 리셋 시각을 함께 반환합니다.
+     * 
+     * HYBRID 모드는 로컬 토큰 버킷으로 판정하므로 대부분 Redis 왕복 없이 끝나고,
+     * 전역 허용량은 limit을 넘지 않는 대신 노드별 묶음 크기만큼 덜 허용될 수 있습니다.
+     * 서킷 허가와 결과 기록은 실제로 Redis에서 토큰을 빌려올 때만 HybridRateLimiter가 하므로,
+     * 서킷이 열려 있어도 로컬 버킷에 남은 토큰으로는 계속 판정하고 대여가 필요한 요청만 로컬 제한기로 넘어갑니다.
+     * 
+     * @param key 속도 제한 키
+     * @param limit 시간 창에서 허용되는 최대 요청 수
+     * @param windowSeconds 시간 창(초)
+     * @param mode 판정 방식
+     * @param algorithmType REDIS 모드에서 사용할 알고리즘 (HYBRID/ASYNC 모드는 고정 윈도우, THROTTLE 모드는 GCRA를 사용)
+     */
+    public RateLimitResult check(String key, int limit, int windowSeconds,
+                                 RateLimitMode mode, RateLimitAlgorithmType algorithmType) {
+        if (mode == RateLimitMode.ASYNC) {
+            return checkAsync(key, limit, windowSeconds).join();
+        }
+        if (mode == RateLimitMode.THROTTLE) {
+            // 요청을 지연시킬 수 없는 호출자에게는 GCRA 판정을 그대로 적용합니다
+            return check(key, limit, windowSeconds, RateLimitAlgorithmType.GCRA);
+        }
+        if (mode != RateLimitMode.HYBRID) {
+            return check(key, limit, windowSeconds, algorithmType);
+        }
+        
+        try {
+            RateLimitResult result = hybridRateLimiter.check(key, limit, windowSeconds);
+            if (result.allowed()) {
+                allowedCounter.increment();
+            } else {
+                deniedCounter.increment();
+                log.warn("Rate limit exceeded for key: {}, limit: {} (hybrid)", key, limit);
+            }
+            
+            return result;
+        } catch (RateLimitCircuitBreaker.CallNotPermittedException e) {
+            fallbackCounter.increment();
+            return fallback(key, limit, windowSeconds);
+        } catch (Exception e) {
+            // 서킷에는 HybridRateLimiter가 이미 기록했습니다
+            errorCounter.increment();
+            log.error("Error borrowing rate limit tokens", e);
+            return fallback(key, limit, windowSeconds);
         }
     }
     
@@ -72,28 +285,24 @@ public class RateLimitService {
     }
     
     /**
-     * 속도 제한을 위한 Redis Lua 스크립트를 생성합니다.
+     * 기본 한도로, 지정한 방식과 알고리즘을 사용해 요청 허용 여부를 확인합니다.
      */
-    private RedisScript<Long> createRateLimitScript() {
-        // 속도 제한을 위한 인라인 Lua 스크립트
-        String luaScript = 
-                "local key = KEYS[1] " +
-                "local limit = tonumber(ARGV[1]) " +
-                "local windowSeconds = tonumber(ARGV[2]) " +
-                
-                "local current = tonumber(redis.call('get', key) or '0') " +
-                "current = current + 1 " +
-                "if current == 1 then " +
-                "  redis.call('setex', key, windowSeconds, current) " +
-                "else " +
-                "  redis.call('incrby', key, 1) " +
-                "end " +
-                "return current";
-        
-        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
-        script.setScriptText(luaScript);
-        script.setResultType(Long.class);
-        
-        return script;
+    public boolean isAllowed(String key, RateLimitMode mode, RateLimitAlgorithmType algorithmType) {
+        return isAllowed(key, DEFAULT_LIMIT, DEFAULT_WINDOW_SECONDS, mode, algorithmType);
+    }
+    
+    private RateLimitResult fallback(String key, int limit, int windowSeconds) {
+        RateLimitResult result = fallbackRateLimiter.tryAcquire(key, limit, windowSeconds);
+        if (!result.allowed()) {
+            log.warn("Rate limit exceeded for key: {}, nodeShare: {} (local fallback)", key, result.limit());
+        }
+        return result;
+    }
+    
+    private Counter createDecisionCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("ratelimit.requests")
+                .tag("result", result)
+                .description("Rate limit decisions")
+                .register(meterRegistry);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,37 @@
+package com.example.redispatterns.ratelimit;
+
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+/**
+ * classpath의 Lua 스크립트로 동작하는 {@link RateLimitAlgorithm}입니다.
+ * 기본 인자는 {@code [limit, windowSeconds]}입니다.
+ */
+class ScriptRateLimitAlgorithm implements RateLimitAlgorithm {
+
+    private final String keyPrefix;
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> script;
+
+    ScriptRateLimitAlgorithm(String keyPrefix, String scriptPath) {
+        this.keyPrefix = keyPrefix;
+        this.script = RateLimitAlgorithm.loadScript(scriptPath);
+    }
+
+    @Override
+    public String keyPrefix() {
+        return keyPrefix;
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public RedisScript<List> script() {
+        return script;
+    }
+
+    @Override
+    public Object[] args(int limit, int windowSeconds) {
+        return new Object[]{limit, windowSeconds};
+    }
+}
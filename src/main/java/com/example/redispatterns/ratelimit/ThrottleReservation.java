@@ -0,0 +1,30 @@
+package com.example.redispatterns.ratelimit;
+
+import java.util.List;
+
+/**
+ * THROTTLE 모드의 예약 결과입니다.
+ *
+ * @param result 판정 결과 (allowed면 자리가 예약됨, 거절된 경우 retryAfterMillis는 대기 시간이 max-delay 안으로 들어오는 시점)
+ * @param delayMillis 예약된 자리까지 기다려야 하는 시간(ms), 바로 처리할 수 있거나 거절된 경우 0
+ */
+public record ThrottleReservation(RateLimitResult result, long delayMillis) {
+
+    static ThrottleReservation immediate(RateLimitResult result) {
+        return new ThrottleReservation(result, 0);
+    }
+
+    /**
+     * gcra_throttle.lua 반환값 {@code {scheduled, remaining, resetMillis, delayOrRetryAfterMillis}}을 변환합니다.
+     */
+    static ThrottleReservation fromScript(List<?> values, long limit) {
+        RateLimitResult raw = RateLimitResult.fromScript(values, limit);
+        if (!raw.allowed()) {
+            return immediate(raw);
+        }
+        // 예약된 경우 네 번째 값은 대기 시간입니다
+        return new ThrottleReservation(
+                new RateLimitResult(true, limit, raw.remaining(), raw.resetMillis(), 0),
+                raw.retryAfterMillis());
+    }
+}
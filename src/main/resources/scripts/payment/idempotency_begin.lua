@@ -0,0 +1,13 @@
+-- 멱등성 키 확인과 락 획득을 한 번에 처리합니다
+-- KEYS[1]: 응답 키, KEYS[2]: 락 키
+-- ARGV[1]: 락 토큰, ARGV[2]: 락 TTL(ms)
+-- 반환: {1, 저장된 응답} | {2} (락 획득) | {0} (다른 요청이 처리 중)
+local cached = redis.call('get', KEYS[1])
+if cached then
+  return {1, cached}
+end
+
+if redis.call('set', KEYS[2], ARGV[1], 'NX', 'PX', ARGV[2]) then
+  return {2}
+end
+return {0}
@@ -0,0 +1,13 @@
+-- 응답을 저장하고, 락 토큰이 일치할 때만 락을 해제합니다
+-- KEYS[1]: 응답 키, KEYS[2]: 락 키
+-- ARGV[1]: 락 토큰, ARGV[2]: 직렬화된 응답, ARGV[3]: 응답 TTL(ms), ARGV[4]: 완료 알림 채널
+-- 반환: 1 (락 해제) | 0 (락이 만료되어 다른 요청이 가져갔거나 이미 없음)
+redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3])
+-- 같은 키로 기다리는 요청에 응답을 그대로 전달합니다
+redis.call('publish', ARGV[4], ARGV[2])
+
+if redis.call('get', KEYS[2]) == ARGV[1] then
+  redis.call('del', KEYS[2])
+  return 1
+end
+return 0
@@ -0,0 +1,9 @@
+-- 처리에 실패한 경우 응답 없이 락만 해제합니다 (토큰이 일치할 때만)
+-- KEYS[1]: 락 키
+-- ARGV[1]: 락 토큰, ARGV[2]: 완료 알림 채널
+if redis.call('get', KEYS[1]) == ARGV[1] then
+  -- 빈 메시지는 응답 없이 끝났음을 뜻합니다 (기다리던 요청은 바로 409)
+  redis.call('publish', ARGV[2], '')
+  return redis.call('del', KEYS[1])
+end
+return 0
@@ -0,0 +1,7 @@
+-- 처리가 끝난 메시지를 ACK하고 스트림과 접수 표시에서 지웁니다
+-- KEYS[1]: 스트림, KEYS[2]: 접수 표시 키
+-- ARGV[1]: 컨슈머 그룹, ARGV[2]: 메시지 ID
+redis.call('xack', KEYS[1], ARGV[1], ARGV[2])
+redis.call('xdel', KEYS[1], ARGV[2])
+redis.call('del', KEYS[2])
+return 1
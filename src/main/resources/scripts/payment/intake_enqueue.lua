@@ -0,0 +1,26 @@
+-- 결제 요청을 스트림에 접수합니다 (이미 처리되었거나 접수된 키는 다시 넣지 않음)
+-- KEYS[1]: 응답 키, KEYS[2]: 접수 표시 키, KEYS[3]: 스트림
+-- ARGV[1]: 최대 대기 건수, ARGV[2]: 접수 표시 TTL(ms), ARGV[3]: 멱등성 키, ARGV[4]: 요청(JSON)
+-- 반환: {1, 저장된 응답} | {2} (이미 접수됨) | {3} (접수) | {0} (대기열이 가득 참)
+--       | {4} (결제는 되었지만 응답을 저장하지 못함, 접수 표시에 결제 ID가 남아 있음)
+local cached = redis.call('get', KEYS[1])
+if cached then
+  return {1, cached}
+end
+
+local marker = redis.call('get', KEYS[2])
+if marker then
+  if string.find(marker, 'unrecorded:', 1, true) == 1 then
+    return {4}
+  end
+  return {2}
+end
+
+-- 처리된 메시지는 ACK와 함께 지우므로 스트림 길이가 곧 처리 대기 건수입니다
+if redis.call('xlen', KEYS[3]) >= tonumber(ARGV[1]) then
+  return {0}
+end
+
+local id = redis.call('xadd', KEYS[3], '*', 'key', ARGV[3], 'request', ARGV[4])
+redis.call('set', KEYS[2], id, 'PX', ARGV[2])
+return {3}
@@ -0,0 +1,8 @@
+-- 결제는 되었지만 응답을 저장하지 못한 메시지를 ACK하고, 접수 표시를 결제 ID로 바꿔 남깁니다
+-- (같은 키의 재접수와 상태 조회가 다시 결제하거나 404를 반환하지 않도록)
+-- KEYS[1]: 스트림, KEYS[2]: 접수 표시 키
+-- ARGV[1]: 컨슈머 그룹, ARGV[2]: 메시지 ID, ARGV[3]: 결제 ID, ARGV[4]: 표시 TTL(ms)
+redis.call('xack', KEYS[1], ARGV[1], ARGV[2])
+redis.call('xdel', KEYS[1], ARGV[2])
+redis.call('set', KEYS[2], 'unrecorded:' .. ARGV[3], 'PX', ARGV[4])
+return 1
@@ -0,0 +1,21 @@
+-- 동시 실행 리스 획득 (분산 세마포어)
+-- KEYS[1]: 리스를 담는 정렬 집합 키 (score = 리스 만료 시각 ms)
+-- ARGV[1]: 최대 동시 실행 수, ARGV[2]: 리스 TTL(ms), ARGV[3]: 리스 ID
+-- 반환: {획득 여부(1/0), 획득 후 실행 중인 요청 수}
+local maxConcurrent = tonumber(ARGV[1])
+local leaseTtl = tonumber(ARGV[2])
+
+local time = redis.call('time')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+-- 반납되지 않고 만료된 리스(노드 장애 등)를 먼저 회수합니다
+redis.call('zremrangebyscore', KEYS[1], '-inf', now)
+local inFlight = redis.call('zcard', KEYS[1])
+
+if inFlight >= maxConcurrent then
+  return {0, inFlight}
+end
+
+redis.call('zadd', KEYS[1], now + leaseTtl, ARGV[3])
+redis.call('pexpire', KEYS[1], leaseTtl)
+return {1, inFlight + 1}
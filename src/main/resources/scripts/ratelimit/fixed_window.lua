@@ -0,0 +1,23 @@
+-- 고정 윈도우 카운터
+-- KEYS[1]: 카운터 키
+-- ARGV[1]: limit, ARGV[2]: 윈도우(초)
+-- 반환: {허용 여부(1/0), 남은 요청 수, 리셋까지 남은 시간(ms), 재시도까지 남은 시간(ms)}
+local limit = tonumber(ARGV[1])
+local windowSeconds = tonumber(ARGV[2])
+
+local current = redis.call('incr', KEYS[1])
+if current == 1 then
+  redis.call('expire', KEYS[1], windowSeconds)
+end
+
+local ttl = redis.call('pttl', KEYS[1])
+if ttl < 0 then
+  -- 만료 시간 없이 남은 키 보정
+  redis.call('expire', KEYS[1], windowSeconds)
+  ttl = windowSeconds * 1000
+end
+
+if current > limit then
+  return {0, 0, ttl, ttl}
+end
+return {1, limit - current, ttl, 0}
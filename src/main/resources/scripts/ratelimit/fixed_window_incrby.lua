@@ -0,0 +1,20 @@
+-- 고정 윈도우 카운터 (같은 키의 요청 여러 건을 한 번에 반영)
+-- KEYS[1]: 카운터 키 (fixed_window.lua와 같은 키)
+-- ARGV[1]: 요청 수(n), ARGV[2]: 윈도우(초)
+-- 반환: {반영 후 카운트, 리셋까지 남은 시간(ms)}
+local hits = tonumber(ARGV[1])
+local windowSeconds = tonumber(ARGV[2])
+
+local current = redis.call('incrby', KEYS[1], hits)
+if current == hits then
+  redis.call('expire', KEYS[1], windowSeconds)
+end
+
+local ttl = redis.call('pttl', KEYS[1])
+if ttl < 0 then
+  -- 만료 시간 없이 남은 키 보정
+  redis.call('expire', KEYS[1], windowSeconds)
+  ttl = windowSeconds * 1000
+end
+
+return {current, ttl}
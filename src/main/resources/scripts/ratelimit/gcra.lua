@@ -0,0 +1,24 @@
+-- GCRA (Generic Cell Rate Algorithm): 이론적 도착 시각(TAT) 하나만 저장
+-- KEYS[1]: TAT 키
+-- ARGV[1]: limit (버스트 허용량), ARGV[2]: limit이 완전히 회복되는 기간(초)
+-- 반환: {허용 여부(1/0), 남은 요청 수, 리셋까지 남은 시간(ms), 재시도까지 남은 시간(ms)}
+local limit = tonumber(ARGV[1])
+local period = tonumber(ARGV[2]) * 1000
+local interval = period / limit
+
+local time = redis.call('time')
+local now = tonumber(time[1]) * 1000 + tonumber(time[2]) / 1000
+
+local tat = tonumber(redis.call('get', KEYS[1]) or '0')
+if tat < now then
+  tat = now
+end
+
+local newTat = tat + interval
+local allowAt = newTat - period
+if now < allowAt then
+  return {0, 0, math.ceil(tat - now), math.ceil(allowAt - now)}
+end
+
+redis.call('set', KEYS[1], string.format('%.3f', newTat), 'PX', math.ceil(newTat - now))
+return {1, math.floor((now - allowAt) / interval), math.ceil(newTat - now), 0}
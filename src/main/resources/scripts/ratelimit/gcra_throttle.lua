@@ -0,0 +1,27 @@
+-- GCRA 예약: 지금 허용할 수 없는 요청도 max-delay 안에 차례가 오면 그 시각의 자리를 예약합니다
+-- KEYS[1]: TAT 키 (gcra.lua와 같은 키)
+-- ARGV[1]: limit (버스트 허용량), ARGV[2]: limit이 완전히 회복되는 기간(초), ARGV[3]: 최대 대기 시간(ms)
+-- 반환: {예약 여부(1/0), 남은 요청 수, 리셋까지 남은 시간(ms), 예약된 경우 대기 시간(ms) / 거절된 경우 재시도까지 남은 시간(ms)}
+local limit = tonumber(ARGV[1])
+local period = tonumber(ARGV[2]) * 1000
+local maxDelay = tonumber(ARGV[3])
+local interval = period / limit
+
+local time = redis.call('time')
+local now = tonumber(time[1]) * 1000 + tonumber(time[2]) / 1000
+
+local tat = tonumber(redis.call('get', KEYS[1]) or '0')
+if tat < now then
+  tat = now
+end
+
+local newTat = tat + interval
+local allowAt = newTat - period
+local delay = math.max(allowAt - now, 0)
+if delay > maxDelay then
+  -- 대기 시간이 max-delay 안으로 들어오는 시점
+  return {0, 0, math.ceil(tat - now), math.max(math.ceil(delay - maxDelay), 1)}
+end
+
+redis.call('set', KEYS[1], string.format('%.3f', newTat), 'PX', math.ceil(newTat - now))
+return {1, math.max(math.floor((now - allowAt) / interval), 0), math.ceil(newTat - now), math.ceil(delay)}
@@ -0,0 +1,38 @@
+-- 슬라이딩 로그 (정렬 집합에 요청 시각을 기록, 키당 최대 limit개 항목)
+-- KEYS[1]: 요청 시각을 담는 정렬 집합 키
+-- ARGV[1]: limit, ARGV[2]: 윈도우(초), ARGV[3]: 요청 식별용 난수
+-- 반환: {허용 여부(1/0), 남은 요청 수, 리셋까지 남은 시간(ms), 재시도까지 남은 시간(ms)}
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2]) * 1000
+
+local time = redis.call('time')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+redis.call('zremrangebyscore', KEYS[1], '-inf', now - window)
+local count = redis.call('zcard', KEYS[1])
+
+local allowed = 0
+if count < limit then
+  redis.call('zadd', KEYS[1], now, time[1] .. '.' .. time[2] .. ':' .. ARGV[3])
+  redis.call('pexpire', KEYS[1], window)
+  count = count + 1
+  allowed = 1
+end
+
+-- 가장 오래된 기록이 윈도우를 벗어나는 시점에 한 건이 다시 허용됩니다
+local oldest = redis.call('zrange', KEYS[1], 0, 0, 'withscores')
+local oldestExpiresIn = window
+if oldest[2] then
+  oldestExpiresIn = tonumber(oldest[2]) + window - now
+end
+
+local newest = redis.call('zrange', KEYS[1], -1, -1, 'withscores')
+local resetMillis = window
+if newest[2] then
+  resetMillis = tonumber(newest[2]) + window - now
+end
+
+if allowed == 0 then
+  return {0, 0, resetMillis, math.max(oldestExpiresIn, 1)}
+end
+return {1, limit - count, resetMillis, 0}
@@ -0,0 +1,30 @@
+-- 슬라이딩 윈도우 카운터 (현재/직전 윈도우 카운트를 경과 비율로 가중 합산)
+-- KEYS[1]: 윈도우 번호별 카운트를 담는 해시 키
+-- ARGV[1]: limit, ARGV[2]: 윈도우(초)
+-- 반환: {허용 여부(1/0), 남은 요청 수, 리셋까지 남은 시간(ms), 재시도까지 남은 시간(ms)}
+local limit = tonumber(ARGV[1])
+local window = tonumber(ARGV[2]) * 1000
+
+local time = redis.call('time')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+local current = math.floor(now / window)
+local elapsed = now - current * window
+local resetMillis = window - elapsed
+
+local currentCount = tonumber(redis.call('hget', KEYS[1], current) or '0')
+local previousCount = tonumber(redis.call('hget', KEYS[1], current - 1) or '0')
+local weighted = previousCount * (window - elapsed) / window + currentCount
+
+if weighted + 1 > limit then
+  -- 직전 윈도우 가중치가 줄어들어 한 건이 들어갈 수 있게 되는 시점 (불가능하면 다음 윈도우 시작)
+  local retryAfter = resetMillis
+  if previousCount > 0 and currentCount + 1 <= limit then
+    retryAfter = math.ceil(window * (1 - (limit - 1 - currentCount) / previousCount)) - elapsed
+  end
+  return {0, 0, resetMillis, math.max(retryAfter, 1)}
+end
+
+redis.call('hincrby', KEYS[1], current, 1)
+redis.call('hdel', KEYS[1], current - 2)
+redis.call('pexpire', KEYS[1], window * 2)
+return {1, math.floor(limit - weighted - 1), resetMillis, 0}
@@ -0,0 +1,73 @@
+package com.example.redispatterns.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheTtlPolicyTest {
+
+    @Test
+    void nextTtl_ShouldStayWithinJitterRange() {
+        CacheTtlPolicy policy = new CacheTtlPolicy(Duration.ofMinutes(10), 10);
+        Set<Long> seen = new HashSet<>();
+
+        for (int i = 0; i < 1000; i++) {
+            long millis = policy.nextTtl().toMillis();
+            assertTrue(millis >= 540_000 && millis <= 660_000, "TTL out of ±10% range: " + millis);
+            seen.add(millis);
+        }
+        // TTL이 흩어져야 함께 적재된 항목이 동시에 만료되지 않습니다
+        assertTrue(seen.size() > 1);
+    }
+
+    @Test
+    void nextTtl_NoJitter_ShouldReturnConfiguredTtl() {
+        CacheTtlPolicy policy = new CacheTtlPolicy(Duration.ofMinutes(10), 0);
+
+        assertEquals(Duration.ofMinutes(10), policy.nextTtl());
+    }
+
+    @Test
+    void nextTtl_ShortTtlWithLargeJitter_ShouldNotGoBelowMinimum() {
+        CacheTtlPolicy policy = new CacheTtlPolicy(Duration.ofMillis(1500), 90);
+
+        for (int i = 0; i < 1000; i++) {
+            long millis = policy.nextTtl().toMillis();
+            assertTrue(millis >= 1000 && millis <= 2850, "TTL out of range: " + millis);
+        }
+    }
+
+    @Test
+    void getTimeToLive_RefreshAheadValue_ShouldFollowRecordedExpiry() {
+        CacheTtlPolicy policy = new CacheTtlPolicy(Duration.ofMinutes(10), 10);
+        RefreshAheadValue entry = new RefreshAheadValue("value", 5, System.currentTimeMillis() + 30_000);
+
+        long millis = policy.getTimeToLive("key", entry).toMillis();
+
+        assertTrue(millis > 29_000 && millis <= 30_000, "TTL should match expiresAt: " + millis);
+    }
+
+    @Test
+    void getTimeToLive_ExpiredRefreshAheadValue_ShouldKeepMinimumTtl() {
+        CacheTtlPolicy policy = new CacheTtlPolicy(Duration.ofMinutes(10), 10);
+        RefreshAheadValue entry = new RefreshAheadValue("value", 5, System.currentTimeMillis() - 5_000);
+
+        assertEquals(Duration.ofMillis(1000), policy.getTimeToLive("key", entry));
+    }
+
+    @Test
+    void getTimeToLive_ValueWithoutExpiry_ShouldUseJitteredTtl() {
+        CacheTtlPolicy policy = new CacheTtlPolicy(Duration.ofMinutes(10), 10);
+
+        // sliding 캐시의 refresh-ahead 항목(만료 시각 0)과 일반 값은 새 TTL을 사용합니다
+        long sliding = policy.getTimeToLive("key", new RefreshAheadValue("value", 5, 0)).toMillis();
+        long plain = policy.getTimeToLive("key", "value").toMillis();
+
+        assertTrue(sliding >= 540_000 && sliding <= 660_000);
+        assertTrue(plain >= 540_000 && plain <= 660_000);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.redispatterns.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeteredCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MeteredCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new MeteredCache(new ConcurrentMapCache("product"), meterRegistry);
+    }
+
+    @Test
+    void get_WithLoader_ShouldCountMissThenHitAndRecordLoadTime() {
+        assertEquals("laptop", cache.get(1L, () -> "laptop"));
+        assertEquals("laptop", cache.get(1L, () -> fail("loader should not be called")));
+
+        assertEquals(1.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+        assertEquals(1, meterRegistry.get("cache.load.time")
+                .tags("cache", "product", "result", "success")
+                .timer().count());
+    }
+
+    @Test
+    void getAll_ShouldCountHitsAndMissesPerKey() {
+        cache.putAll(Map.of(1L, "laptop", 2L, "smartphone"));
+
+        cache.getAll(List.of(1L, 2L, 3L));
+
+        assertEquals(2.0, gets("hit"));
+        assertEquals(1.0, gets("miss"));
+        assertEquals(2.0, meterRegistry.get("cache.puts").tags("cache", "product").counter().count());
+    }
+
+    @Test
+    void evict_ShouldCountEviction() {
+        cache.put(1L, "laptop");
+        cache.evict(1L);
+
+        assertNull(cache.get(1L));
+        assertEquals(1.0, meterRegistry.get("cache.evictions").tags("cache", "product").counter().count());
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "product", "result", result).counter().count();
+    }
+}
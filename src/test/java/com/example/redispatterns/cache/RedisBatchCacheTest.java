@@ -0,0 +1,122 @@
+package com.example.redispatterns.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RedisBatchCacheTest {
+
+    @Mock
+    private RedisCache redisCache;
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisStringCommands stringCommands;
+
+    private RedisCacheConfiguration configuration;
+
+    @BeforeEach
+    void setUp() {
+        configuration = RedisCacheConfiguration.defaultCacheConfig()
+                .entryTtl(Duration.ofMinutes(10))
+                .serializeValuesWith(SerializationPair.fromSerializer(RedisSerializer.string()));
+        lenient().when(redisCache.getName()).thenReturn("product");
+        lenient().when(redisCache.getCacheConfiguration()).thenAnswer(invocation -> configuration);
+        lenient().when(connectionFactory.getConnection()).thenReturn(connection);
+        lenient().when(connection.stringCommands()).thenReturn(stringCommands);
+    }
+
+    @Test
+    void getAll_ShouldUseOneMgetAndSkipMisses() {
+        when(stringCommands.mGet(any(byte[][].class))).thenReturn(Arrays.asList(bytes("laptop"), null));
+        RedisBatchCache cache = new RedisBatchCache(redisCache, connectionFactory);
+
+        Map<Object, Object> result = cache.getAll(List.of(1L, 2L));
+
+        assertEquals(Map.of(1L, "laptop"), result);
+        verify(stringCommands, times(1)).mGet(any(byte[][].class));
+        verify(connection).close();
+    }
+
+    @Test
+    void getAll_TimeToIdle_ShouldPipelineGetexInsteadOfMget() {
+        configuration = configuration.enableTimeToIdle();
+        when(connection.closePipeline()).thenReturn(new ArrayList<>(Arrays.asList(null, bytes("phone"))));
+        RedisBatchCache cache = new RedisBatchCache(redisCache, connectionFactory);
+
+        Map<Object, Object> result = cache.getAll(List.of(1L, 2L));
+
+        assertEquals(Map.of(2L, "phone"), result);
+        verify(connection).openPipeline();
+        verify(stringCommands, times(2)).getEx(any(byte[].class), any(Expiration.class));
+        verify(stringCommands, never()).mGet(any(byte[][].class));
+    }
+
+    @Test
+    void putAll_ShouldPipelineSetsWithTtlAndDropOversizedValues() {
+        RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+        when(connection.keyCommands()).thenReturn(keyCommands);
+        RedisBatchCache cache = new RedisBatchCache(redisCache, connectionFactory, 8);
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        entries.put(1L, "small");
+        entries.put(2L, "much-too-large-value");
+
+        cache.putAll(entries);
+
+        verify(connection).openPipeline();
+        verify(stringCommands).set(argThat(key -> "product::1".equals(string(key))), argThat(value -> "small".equals(string(value))),
+                argThat(expiration -> expiration.getExpirationTimeInMilliseconds() == Duration.ofMinutes(10).toMillis()),
+                eq(SetOption.upsert()));
+        // 크기 제한을 넘는 값은 저장하지 않고 기존 항목을 지웁니다
+        verify(keyCommands, times(1)).del(any(byte[][].class));
+        verify(connection).closePipeline();
+        assertEquals(1, cache.getOversizedValueCount());
+    }
+
+    @Test
+    void getAll_EmptyKeys_ShouldNotOpenConnection() {
+        RedisBatchCache cache = new RedisBatchCache(redisCache, connectionFactory);
+
+        assertTrue(cache.getAll(List.of()).isEmpty());
+        verifyNoInteractions(connectionFactory);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.redispatterns.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+public class RedisBloomFilterTest {
+
+    private final RedisBloomFilter bloomFilter = new RedisBloomFilter(
+            mock(StringRedisTemplate.class),
+            "bloom:test",
+            1000,
+            0.01
+    );
+
+    @Test
+    void mightContain_AddedItems_ShouldNeverBeFalseNegative() {
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.addLocal(String.valueOf(i));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(bloomFilter.mightContain(String.valueOf(i)));
+        }
+    }
+
+    @Test
+    void mightContain_UnknownItems_ShouldStayNearConfiguredFalsePositiveRate() {
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.addLocal(String.valueOf(i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 1000; i < 11000; i++) {
+            if (bloomFilter.mightContain(String.valueOf(i))) {
+                falsePositives++;
+            }
+        }
+
+        // 1% target, allow some slack for hash variance
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+        assertTrue(bloomFilter.getEstimatedFalsePositiveRate() < 0.03);
+    }
+
+    @Test
+    void getEstimatedElementCount_ShouldApproximateInsertions() {
+        for (int i = 0; i < 500; i++) {
+            bloomFilter.addLocal("product:" + i);
+        }
+
+        long estimated = bloomFilter.getEstimatedElementCount();
+        assertTrue(estimated > 450 && estimated < 550, "estimated: " + estimated);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.redispatterns.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RefreshAheadCacheTest {
+
+    private ConcurrentMapCache delegate;
+    private RefreshAheadCache cache;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new ConcurrentMapCache("product");
+        // Run refreshes on the calling thread so the test is deterministic
+        cache = new RefreshAheadCache(delegate, new CacheTtlPolicy(Duration.ofMinutes(10), 0), 1.0, Runnable::run);
+    }
+
+    @Test
+    void get_Miss_ShouldStoreLoadCostAndExpiry() {
+        assertEquals("laptop", cache.get(1L, () -> "laptop"));
+
+        Object stored = delegate.get(1L).get();
+        assertInstanceOf(RefreshAheadValue.class, stored);
+        assertTrue(((RefreshAheadValue) stored).getExpiresAt() > System.currentTimeMillis());
+    }
+
+    @Test
+    void get_NearExpiry_ShouldServeCurrentValueAndRefresh() {
+        delegate.put(1L, new RefreshAheadValue("laptop-v1", 2000, System.currentTimeMillis()));
+
+        // Current value is still served while the reload runs
+        assertEquals("laptop-v1", cache.get(1L, () -> "laptop-v2"));
+
+        assertEquals("laptop-v2", cache.get(1L).get());
+        assertEquals(1, cache.getRefreshCount());
+    }
+
+    @Test
+    void get_FarFromExpiry_ShouldNotRefresh() {
+        delegate.put(1L, new RefreshAheadValue("laptop-v1", 1, System.currentTimeMillis() + 3_600_000));
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        assertEquals("laptop-v1", cache.get(1L, () -> {
+            loaderCalls.incrementAndGet();
+            return "laptop-v2";
+        }));
+
+        assertEquals(0, loaderCalls.get());
+        assertEquals(0, cache.getRefreshCount());
+    }
+
+    @Test
+    void putAllLoaded_ShouldStoreMeasuredLoadCostSoWarmedEntriesRefreshAhead() {
+        cache.putAllLoaded(Map.of(1L, "laptop", 2L, "phone"), 1500);
+
+        RefreshAheadValue stored = (RefreshAheadValue) delegate.get(1L).get();
+        assertEquals(1500, stored.getLoadMillis());
+        assertTrue(stored.getExpiresAt() > System.currentTimeMillis());
+
+        // 로드 비용을 알므로 만료가 다가오면 갱신 대상이 됩니다 (putAll로 넣은 값은 loadMillis=0이라 제외)
+        assertTrue(cache.shouldRefresh(new RefreshAheadValue("laptop", stored.getLoadMillis(), System.currentTimeMillis())));
+        cache.putAll(Map.of(3L, "tablet"));
+        assertEquals(0, ((RefreshAheadValue) delegate.get(3L).get()).getLoadMillis());
+    }
+
+    @Test
+    void slidingExpiry_ShouldNotRecordExpiryOrRefreshAhead() {
+        RefreshAheadCache sliding = new RefreshAheadCache(delegate, new CacheTtlPolicy(Duration.ofMinutes(10), 0), 1.0, true, Runnable::run);
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        assertEquals("laptop", sliding.get(1L, () -> {
+            loaderCalls.incrementAndGet();
+            return "laptop";
+        }));
+        RefreshAheadValue stored = (RefreshAheadValue) delegate.get(1L).get();
+        // GETEX가 연장하는 Redis TTL과 어긋날 고정 만료 시각을 기록하지 않습니다
+        assertEquals(0, stored.getExpiresAt());
+        assertFalse(sliding.shouldRefresh(stored));
+
+        assertEquals("laptop", sliding.get(1L, () -> "laptop-v2"));
+        assertEquals(1, loaderCalls.get());
+        assertEquals(0, sliding.getRefreshCount());
+    }
+}
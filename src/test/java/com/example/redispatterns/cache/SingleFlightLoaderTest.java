@@ -0,0 +1,101 @@
+package com.example.redispatterns.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SingleFlightLoaderTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private SingleFlightLoader singleFlightLoader;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        singleFlightLoader = new SingleFlightLoader(
+                redisTemplate,
+                Duration.ofSeconds(5),
+                Duration.ofSeconds(1),
+                Duration.ofMillis(1)
+        );
+    }
+
+    @Test
+    void load_ConcurrentLocalMisses_ShouldShareOneLoad() throws Exception {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        Callable<Object> loader = () -> {
+            loaderCalls.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "laptop";
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = executor.submit(() -> singleFlightLoader.load("product::1", () -> null, loader));
+            assertTrue(started.await(1, TimeUnit.SECONDS));
+
+            Future<Object> follower = executor.submit(() -> singleFlightLoader.load("product::1", () -> null, loader));
+            // Wait until the follower has joined the in-flight load
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+            while (singleFlightLoader.getLocalCoalescedCount() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            assertEquals("laptop", leader.get(1, TimeUnit.SECONDS));
+            assertEquals("laptop", follower.get(1, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loaderCalls.get());
+        assertEquals(1, singleFlightLoader.getLoadCount());
+        assertEquals(1, singleFlightLoader.getLocalCoalescedCount());
+    }
+
+    @Test
+    void load_LeaseHeldByOtherNode_ShouldWaitForRemoteValue() throws Exception {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        Object value = singleFlightLoader.load(
+                "product::1",
+                () -> new SimpleValueWrapper("laptop"),
+                () -> fail("loader should not be called")
+        );
+
+        assertEquals("laptop", value);
+        assertEquals(0, singleFlightLoader.getLoadCount());
+        assertEquals(1, singleFlightLoader.getRemoteCoalescedCount());
+    }
+}
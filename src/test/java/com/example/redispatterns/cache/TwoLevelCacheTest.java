@@ -0,0 +1,92 @@
+package com.example.redispatterns.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TwoLevelCacheTest {
+
+    @Mock
+    private NearCacheInvalidator invalidator;
+
+    private ConcurrentMapCache redisCache;
+    private TwoLevelCache cache;
+
+    @BeforeEach
+    void setUp() {
+        redisCache = new ConcurrentMapCache("product");
+        cache = new TwoLevelCache(
+                "product",
+                Caffeine.newBuilder().maximumSize(100).build(),
+                redisCache,
+                invalidator
+        );
+    }
+
+    @Test
+    void get_RemoteHit_ShouldPopulateLocalCache() {
+        redisCache.put(1L, "laptop");
+
+        // First call reads L2 and fills L1
+        assertEquals("laptop", cache.get(1L).get());
+
+        // Remove from L2 directly; L1 should still serve the value
+        redisCache.evict(1L);
+        assertEquals("laptop", cache.get(1L).get());
+    }
+
+    @Test
+    void put_ShouldWriteBothLevelsAndPublishInvalidation() {
+        cache.put(1L, "laptop");
+
+        assertEquals("laptop", redisCache.get(1L).get());
+        verify(invalidator).publishEvict("product", "1");
+    }
+
+    @Test
+    void evictLocal_ShouldDropOnlyLocalEntry() {
+        cache.put(1L, "laptop");
+        redisCache.put(1L, "laptop-v2");
+
+        cache.evictLocal("1");
+
+        // L1 entry gone, so the fresh value from L2 is returned
+        assertEquals("laptop-v2", cache.get(1L).get());
+    }
+
+    @Test
+    void get_WithLoader_ShouldLoadOnceAndCache() {
+        assertEquals("laptop", cache.get(1L, () -> "laptop"));
+        assertEquals("laptop", cache.get(1L, () -> fail("loader should not be called")));
+    }
+
+    @Test
+    void getAll_ShouldCombineLocalAndRemoteHits() {
+        cache.put(1L, "laptop");
+        redisCache.put(2L, "smartphone");
+
+        Map<Object, Object> result = cache.getAll(List.of(1L, 2L, 3L));
+
+        assertEquals(Map.of(1L, "laptop", 2L, "smartphone"), result);
+    }
+
+    @Test
+    void putAll_ShouldPublishSingleInvalidation() {
+        cache.putAll(Map.of(1L, "laptop", 2L, "smartphone"));
+
+        assertEquals("laptop", redisCache.get(1L).get());
+        assertEquals("smartphone", redisCache.get(2L).get());
+        verify(invalidator).publishEvictAll(eq("product"), argThat(keys -> keys.size() == 2));
+    }
+}
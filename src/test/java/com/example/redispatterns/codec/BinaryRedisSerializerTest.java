@@ -0,0 +1,77 @@
+package com.example.redispatterns.codec;
+
+import com.example.redispatterns.cache.RefreshAheadValue;
+import com.example.redispatterns.cache.RefreshAheadValueCodec;
+import com.example.redispatterns.config.RedisConfig;
+import com.example.redispatterns.payment.PaymentResponse;
+import com.example.redispatterns.payment.PaymentResponseCodec;
+import com.example.redispatterns.product.Product;
+import com.example.redispatterns.product.ProductCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryRedisSerializerTest {
+
+    private GenericJackson2JsonRedisSerializer jsonSerializer;
+    private BinaryRedisSerializer binarySerializer;
+
+    @BeforeEach
+    void setUp() {
+        jsonSerializer = new GenericJackson2JsonRedisSerializer(new RedisConfig().redisObjectMapper());
+        binarySerializer = new BinaryRedisSerializer(jsonSerializer)
+                .register(16, Product.class, new ProductCodec())
+                .register(17, PaymentResponse.class, new PaymentResponseCodec())
+                .register(18, RefreshAheadValue.class, new RefreshAheadValueCodec());
+    }
+
+    @Test
+    void serialize_Product_ShouldRoundTripAndBeSmallerThanJson() {
+        Product product = new Product(1L, "Laptop", new BigDecimal("1299.99"), "High-performance laptop");
+
+        byte[] binary = binarySerializer.serialize(product);
+        Product result = (Product) binarySerializer.deserialize(binary);
+
+        assertEquals(product.getId(), result.getId());
+        assertEquals(product.getName(), result.getName());
+        assertEquals(product.getPrice(), result.getPrice());
+        assertEquals(product.getDescription(), result.getDescription());
+        assertEquals(product.getCreatedAt(), result.getCreatedAt());
+        assertTrue(binary.length < jsonSerializer.serialize(product).length);
+    }
+
+    @Test
+    void serialize_NestedRefreshAheadValue_ShouldRoundTrip() {
+        PaymentResponse response = new PaymentResponse("customer123", new BigDecimal("100.00"), "credit_card");
+
+        byte[] binary = binarySerializer.serialize(new RefreshAheadValue(response, 2000L, 1_700_000_000_000L));
+        RefreshAheadValue result = (RefreshAheadValue) binarySerializer.deserialize(binary);
+
+        PaymentResponse value = (PaymentResponse) result.getValue();
+        assertEquals(response.getPaymentId(), value.getPaymentId());
+        assertEquals(response.getAmount(), value.getAmount());
+        assertEquals(response.getTimestamp(), value.getTimestamp());
+        assertEquals(2000L, result.getLoadMillis());
+        assertEquals(1_700_000_000_000L, result.getExpiresAt());
+    }
+
+    @Test
+    void deserialize_LegacyJson_ShouldStillBeReadable() {
+        Product product = new Product(2L, "Smartphone", new BigDecimal("799.99"), "Latest smartphone model");
+
+        Product result = (Product) binarySerializer.deserialize(jsonSerializer.serialize(product));
+
+        assertEquals(product.getName(), result.getName());
+        assertEquals(product.getPrice(), result.getPrice());
+    }
+
+    @Test
+    void serialize_UnregisteredType_ShouldFallBackToJson() {
+        // Lua 스크립트 인자는 숫자 문자열로 전달되어야 합니다
+        assertArrayEquals(jsonSerializer.serialize(20), binarySerializer.serialize(20));
+    }
+}
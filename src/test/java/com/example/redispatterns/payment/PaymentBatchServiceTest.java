@@ -0,0 +1,143 @@
+package com.example.redispatterns.payment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"rawtypes", "unchecked"})
+class PaymentBatchServiceTest {
+
+    private static final byte[] STORED_BYTES = {1, 2, 3};
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private RedisSerializer<Object> valueSerializer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        batchService = new PaymentBatchService(redisTemplate, new PaymentGateway(10), Runnable::run, meterRegistry, 2, 120000);
+        doReturn(valueSerializer).when(redisTemplate).getValueSerializer();
+    }
+
+    @Test
+    void processBatch_ShouldResolveStatesAndStoreResponsesInTwoPipelines() {
+        PaymentResponse stored = new PaymentResponse("customer-cached", new BigDecimal("5.00"), "credit_card");
+        when(valueSerializer.deserialize(STORED_BYTES)).thenReturn(stored);
+        when(redisTemplate.executePipelined(any(RedisCallback.class), isNull()))
+                // SCRIPT LOAD, 항목별 begin: 새 항목, 저장된 응답, 처리 중, 새 항목
+                .thenReturn(List.of("sha", List.of(2L), List.of(1L, STORED_BYTES), List.of(0L), List.of(2L)))
+                // SCRIPT LOAD x2, 새 항목 두 건의 응답 저장
+                .thenReturn(List.of("sha", "sha", 1L, 1L));
+
+        List<PaymentBatchResult> results = batchService.processBatchAsync(List.of(
+                item("new-1", "customer-1"),
+                item("cached", "customer-cached"),
+                item("busy", "customer-busy"),
+                item("new-2", "customer-2"),
+                item("new-1", "customer-1")
+        )).join();
+
+        assertEquals(5, results.size());
+        assertEquals(PaymentBatchResult.Status.PROCESSED, results.get(0).status());
+        assertEquals("customer-1", results.get(0).response().getCustomerId());
+        assertEquals(PaymentBatchResult.Status.CACHED, results.get(1).status());
+        assertSame(stored, results.get(1).response());
+        assertEquals(PaymentBatchResult.Status.IN_PROGRESS, results.get(2).status());
+        assertNull(results.get(2).response());
+        assertEquals(PaymentBatchResult.Status.PROCESSED, results.get(3).status());
+        // 같은 키가 다시 들어오면 처음 항목의 결과를 따릅니다
+        assertEquals("new-1", results.get(4).idempotencyKey());
+        assertSame(results.get(0).response(), results.get(4).response());
+
+        // 항목 수와 관계없이 파이프라인 두 번
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class), isNull());
+        assertEquals(2.0, meterRegistry.counter("idempotency.requests", "result", "processed").count());
+        assertEquals(1.0, meterRegistry.counter("idempotency.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("idempotency.requests", "result", "lock_conflict").count());
+    }
+
+    @Test
+    void processBatch_NothingToProcess_ShouldSkipWriteBack() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class), isNull()))
+                .thenReturn(List.of("sha", List.of(0L)));
+
+        List<PaymentBatchResult> results = batchService.processBatchAsync(List.of(item("busy", "customer-busy"))).join();
+
+        assertEquals(PaymentBatchResult.Status.IN_PROGRESS, results.get(0).status());
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class), isNull());
+    }
+
+    @Test
+    void processBatch_WriteBackFailsOnce_ShouldRetryAndStoreResponses() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class), isNull()))
+                .thenReturn(List.of("sha", List.of(2L)))
+                .thenThrow(new IllegalStateException("redis down"))
+                .thenReturn(List.of("sha", "sha", 1L));
+
+        List<PaymentBatchResult> results = batchService.processBatchAsync(List.of(item("new-1", "customer-1"))).join();
+
+        assertEquals(PaymentBatchResult.Status.PROCESSED, results.get(0).status());
+        verify(redisTemplate, times(3)).executePipelined(any(RedisCallback.class), isNull());
+        assertEquals(1.0, meterRegistry.counter("idempotency.requests", "result", "processed").count());
+    }
+
+    @Test
+    void processBatch_WriteBackKeepsFailing_ShouldStillReturnChargedItemsAsNotRecorded() {
+        when(redisTemplate.executePipelined(any(RedisCallback.class), isNull()))
+                .thenReturn(List.of("sha", List.of(2L), List.of(0L)))
+                .thenThrow(new IllegalStateException("redis down"));
+
+        List<PaymentBatchResult> results = batchService.processBatchAsync(List.of(
+                item("new-1", "customer-1"),
+                item("busy", "customer-busy")
+        )).join();
+
+        // 결제 ID를 확인할 수 있도록 응답을 함께 돌려줍니다
+        assertEquals(PaymentBatchResult.Status.NOT_RECORDED, results.get(0).status());
+        assertNotNull(results.get(0).response().getPaymentId());
+        assertEquals(PaymentBatchResult.Status.IN_PROGRESS, results.get(1).status());
+        verify(redisTemplate, times(1 + PaymentService.COMPLETE_ATTEMPTS)).executePipelined(any(RedisCallback.class), isNull());
+        assertEquals(0.0, meterRegistry.counter("idempotency.requests", "result", "processed").count());
+    }
+
+    @Test
+    void processBatch_ExecutorRejects_ShouldReturnChargedItemsAsNotRecordedWithoutWriteBack() {
+        batchService = new PaymentBatchService(redisTemplate, new PaymentGateway(10), task -> {
+            throw new RejectedExecutionException("saturated");
+        }, meterRegistry, 2, 120000);
+        when(redisTemplate.executePipelined(any(RedisCallback.class), isNull()))
+                .thenReturn(List.of("sha", List.of(2L)));
+
+        List<PaymentBatchResult> results = batchService.processBatchAsync(List.of(item("new-1", "customer-1")))
+                .orTimeout(1, TimeUnit.SECONDS).join();
+
+        assertEquals(PaymentBatchResult.Status.NOT_RECORDED, results.get(0).status());
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class), isNull());
+    }
+
+    private static PaymentBatchItem item(String idempotencyKey, String customerId) {
+        return new PaymentBatchItem(idempotencyKey,
+                new PaymentRequest(customerId, new BigDecimal("100.00"), "credit_card", "Settlement"));
+    }
+}
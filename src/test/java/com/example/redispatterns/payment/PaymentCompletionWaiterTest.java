@@ -0,0 +1,90 @@
+package com.example.redispatterns.payment;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class PaymentCompletionWaiterTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private RedisSerializer<Object> valueSerializer;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentCompletionWaiter waiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        waiter = new PaymentCompletionWaiter(paymentService, valueSerializer, listenerContainer, meterRegistry, true, 5000);
+    }
+
+    @Test
+    void constructor_Enabled_ShouldSubscribeToCompletionChannels() {
+        verify(listenerContainer).addMessageListener(waiter, new PatternTopic("idem:done:*"));
+    }
+
+    @Test
+    void await_ResponseAlreadyStored_ShouldCompleteImmediately() {
+        PaymentResponse stored = new PaymentResponse("customer123", new BigDecimal("100.00"), "credit_card");
+        when(paymentService.findResponse("key-1")).thenReturn(stored);
+
+        DeferredResult<ResponseEntity<PaymentResponse>> result = waiter.await("key-1");
+
+        assertTrue(result.hasResult());
+        assertSame(stored, ((ResponseEntity<?>) result.getResult()).getBody());
+        assertEquals(1.0, meterRegistry.counter("idempotency.waits", "result", "completed").count());
+    }
+
+    @Test
+    void onMessage_ShouldCompleteEveryWaiterForThatKeyOnly() {
+        PaymentResponse published = new PaymentResponse("customer123", new BigDecimal("100.00"), "credit_card");
+        byte[] body = {1, 2, 3};
+        when(valueSerializer.deserialize(body)).thenReturn(published);
+
+        DeferredResult<ResponseEntity<PaymentResponse>> first = waiter.await("key-1");
+        DeferredResult<ResponseEntity<PaymentResponse>> second = waiter.await("key-1");
+        DeferredResult<ResponseEntity<PaymentResponse>> other = waiter.await("key-2");
+        assertFalse(first.hasResult());
+
+        waiter.onMessage(new DefaultMessage("idem:done:key-1".getBytes(StandardCharsets.UTF_8), body), null);
+
+        assertSame(published, ((ResponseEntity<?>) first.getResult()).getBody());
+        assertSame(published, ((ResponseEntity<?>) second.getResult()).getBody());
+        assertFalse(other.hasResult());
+        assertEquals(2.0, meterRegistry.counter("idempotency.waits", "result", "completed").count());
+    }
+
+    @Test
+    void onMessage_EmptyBody_ShouldAnswerConflict() {
+        DeferredResult<ResponseEntity<PaymentResponse>> result = waiter.await("key-1");
+
+        waiter.onMessage(new DefaultMessage("idem:done:key-1".getBytes(StandardCharsets.UTF_8), new byte[0]), null);
+
+        assertEquals(HttpStatus.CONFLICT, ((ResponseEntity<?>) result.getResult()).getStatusCode());
+        assertEquals(1.0, meterRegistry.counter("idempotency.waits", "result", "failed").count());
+        verifyNoInteractions(valueSerializer);
+    }
+}
@@ -1,39 +1,44 @@
 package com.example.redispatterns.payment;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class PaymentServiceTest {
 
     @Mock
     private RedisTemplate<String, Object> redisTemplate;
     
-    @Mock
-    private ValueOperations<String, Object> valueOperations;
-    
+    private SimpleMeterRegistry meterRegistry;
     private PaymentService paymentService;
     private PaymentRequest testRequest;
     private String idempotencyKey;
     
     @BeforeEach
     void setUp() {
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
-        
-        paymentService = new PaymentService(redisTemplate);
+        meterRegistry = new SimpleMeterRegistry();
+        paymentService = new PaymentService(redisTemplate, new PaymentGateway(10), Runnable::run, meterRegistry, 1000);
         
         testRequest = new PaymentRequest(
                 "customer123",
@@ -48,13 +53,15 @@ public class PaymentServiceTest {
     @Test
     void processPayment_FirstRequest_ShouldAcquireLockAndProcess() {
         // Mock Redis operations
-        when(valueOperations.get("idem:resp:" + idempotencyKey)).thenReturn(null);
-        when(valueOperations.setIfAbsent(
-                eq("idem:lock:" + idempotencyKey),
-                ArgumentMatchers.any(),
-                eq(30L),
-                eq(TimeUnit.SECONDS)
-        )).thenReturn(true);
+        givenBeginReturns(List.of(2L));
+        doReturn(RedisSerializer.json()).when(redisTemplate).getValueSerializer();
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<Long>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                anyList(),
+                any(), any(), any(), any()
+        )).thenReturn(1L);
         
         // Execute
         PaymentResponse response = paymentService.processPayment(testRequest, idempotencyKey);
@@ -65,22 +72,27 @@ public class PaymentServiceTest {
         assertEquals(new BigDecimal("100.00"), response.getAmount());
         assertEquals("credit_card", response.getPaymentMethod());
         assertEquals("COMPLETED", response.getStatus());
+        assertEquals(1.0, meterRegistry.counter("idempotency.requests", "result", "processed").count());
         
-        // Verify Redis operations
-        verify(valueOperations).get("idem:resp:" + idempotencyKey);
-        verify(valueOperations).setIfAbsent(
-                eq("idem:lock:" + idempotencyKey),
-                ArgumentMatchers.any(),
-                eq(30L),
-                eq(TimeUnit.SECONDS)
+        // The response is stored and the lock released with the token that acquired it
+        ArgumentCaptor<Object> beginToken = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                eq(List.of("idem:resp:" + idempotencyKey, "idem:lock:" + idempotencyKey)),
+                beginToken.capture(), any()
         );
-        verify(valueOperations).set(
-                eq("idem:resp:" + idempotencyKey),
-                ArgumentMatchers.any(),
-                eq(10L),
-                eq(TimeUnit.MINUTES)
+        ArgumentCaptor<Object> completeToken = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).execute(
+                ArgumentMatchers.<RedisScript<Long>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                eq(List.of("idem:resp:" + idempotencyKey, "idem:lock:" + idempotencyKey)),
+                completeToken.capture(), any(), any(), any()
         );
-        verify(redisTemplate).delete("idem:lock:" + idempotencyKey);
+        assertArrayEquals((byte[]) beginToken.getValue(), (byte[]) completeToken.getValue());
+        verify(redisTemplate, never()).delete(anyString());
     }
     
     @Test
@@ -93,7 +105,7 @@ public class PaymentServiceTest {
         );
         
         // Mock Redis operations
-        when(valueOperations.get("idem:resp:" + idempotencyKey)).thenReturn(cachedResponse);
+        givenBeginReturns(List.of(1L, cachedResponse));
         
         // Execute
         PaymentResponse response = paymentService.processPayment(testRequest, idempotencyKey);
@@ -101,41 +113,161 @@ public class PaymentServiceTest {
         // Verify
         assertNotNull(response);
         assertSame(cachedResponse, response);
+        assertEquals(1.0, meterRegistry.counter("idempotency.requests", "result", "hit").count());
         
-        // Verify Redis operations
-        verify(valueOperations).get("idem:resp:" + idempotencyKey);
-        verify(valueOperations, never()).setIfAbsent(
-                anyString(),
-                any(),
-                anyLong(),
-                any(TimeUnit.class)
+        // Only the begin script is executed
+        verify(redisTemplate, times(1)).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                anyList(),
+                any(), any()
         );
+        verify(redisTemplate).getValueSerializer();
+        verifyNoMoreInteractions(redisTemplate);
     }
     
     @Test
     void processPayment_LockNotAcquired_ShouldThrowException() {
         // Mock Redis operations
-        when(valueOperations.get("idem:resp:" + idempotencyKey)).thenReturn(null);
-        when(valueOperations.setIfAbsent(
-                eq("idem:lock:" + idempotencyKey),
-                ArgumentMatchers.any(),
-                eq(30L),
-                eq(TimeUnit.SECONDS)
-        )).thenReturn(false);
+        givenBeginReturns(List.of(0L));
         
         // Execute and verify
+        assertThrows(PaymentService.PaymentInProgressException.class, () -> {
+            paymentService.processPayment(testRequest, idempotencyKey);
+        });
+        assertEquals(1.0, meterRegistry.counter("idempotency.requests", "result", "lock_conflict").count());
+        
+        // Neither the response nor the other request's lock is touched
+        verify(redisTemplate, times(1)).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                anyList(),
+                any(), any()
+        );
+        verify(redisTemplate).getValueSerializer();
+        verifyNoMoreInteractions(redisTemplate);
+    }
+    
+    private void givenBeginReturns(List<?> result) {
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                anyList(),
+                any(), any()
+        )).thenReturn((List) result);
+    }
+    
+    @Test
+    void processPayment_GatewayFailure_ShouldReleaseLockWithoutStoringResponse() {
+        PaymentGateway failingGateway = mock(PaymentGateway.class);
+        when(failingGateway.charge(testRequest)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("declined")));
+        paymentService = new PaymentService(redisTemplate, failingGateway, Runnable::run, meterRegistry, 1000);
+        givenBeginReturns(List.of(2L));
+        
         assertThrows(PaymentService.PaymentProcessingException.class, () -> {
             paymentService.processPayment(testRequest, idempotencyKey);
         });
         
-        // Verify Redis operations
-        verify(valueOperations).get("idem:resp:" + idempotencyKey);
-        verify(valueOperations).setIfAbsent(
-                eq("idem:lock:" + idempotencyKey),
-                ArgumentMatchers.any(),
-                eq(30L),
-                eq(TimeUnit.SECONDS)
+        // Only the lock is released (release script: one key, token and channel)
+        verify(redisTemplate).execute(
+                ArgumentMatchers.<RedisScript<Long>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                eq(List.of("idem:lock:" + idempotencyKey)),
+                any(), any()
         );
-        verify(redisTemplate, never()).delete(anyString());
+        assertEquals(0.0, meterRegistry.counter("idempotency.requests", "result", "processed").count());
+    }
+    
+    @Test
+    void processPayment_StoreFailsAfterCharge_ShouldReleaseLockAndReportUnrecordedPayment() {
+        givenBeginReturns(List.of(2L));
+        doReturn(RedisSerializer.json()).when(redisTemplate).getValueSerializer();
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<Long>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                anyList(),
+                any(), any(), any(), any()
+        )).thenThrow(new IllegalStateException("redis down"));
+        
+        PaymentService.PaymentNotRecordedException e = assertThrows(PaymentService.PaymentNotRecordedException.class, () -> {
+            paymentService.processPayment(testRequest, idempotencyKey);
+        });
+        assertNotNull(e.getPaymentId());
+        
+        // The store is retried, then the lock is released so waiters are not held until the lock TTL
+        verify(redisTemplate, times(PaymentService.COMPLETE_ATTEMPTS)).execute(
+                ArgumentMatchers.<RedisScript<Long>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                anyList(),
+                any(), any(), any(), any()
+        );
+        verify(redisTemplate).execute(
+                ArgumentMatchers.<RedisScript<Long>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                eq(List.of("idem:lock:" + idempotencyKey)),
+                any(), any()
+        );
+        assertEquals(0.0, meterRegistry.counter("idempotency.requests", "result", "processed").count());
+    }
+    
+    @Test
+    void processPaymentAsync_ExecutorRejects_ShouldFailFutureWithoutTouchingRedisOnCallerThread() {
+        paymentService = new PaymentService(redisTemplate, new PaymentGateway(10), task -> {
+            throw new RejectedExecutionException("saturated");
+        }, meterRegistry, 1000);
+        givenBeginReturns(List.of(2L));
+        
+        CompletableFuture<PaymentResponse> future = paymentService.processPaymentAsync(testRequest, idempotencyKey);
+        
+        CompletionException e = assertThrows(CompletionException.class, () -> future.orTimeout(1, TimeUnit.SECONDS).join());
+        assertInstanceOf(PaymentService.PaymentNotRecordedException.class, e.getCause());
+        // Only the begin script ran; the lock is left to expire instead of being released from the gateway thread
+        verify(redisTemplate, times(1)).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                anyList(),
+                any(), any()
+        );
+        verify(redisTemplate).getValueSerializer();
+        verifyNoMoreInteractions(redisTemplate);
+    }
+    
+    @Test
+    void processPaymentAsync_MaxInFlightReached_ShouldRejectBeforeLockingOrCharging() {
+        PaymentGateway pendingGateway = mock(PaymentGateway.class);
+        CompletableFuture<PaymentResponse> pending = new CompletableFuture<>();
+        when(pendingGateway.charge(testRequest)).thenReturn(pending);
+        paymentService = new PaymentService(redisTemplate, pendingGateway, Runnable::run, meterRegistry, 1);
+        givenBeginReturns(List.of(2L));
+        
+        paymentService.processPaymentAsync(testRequest, idempotencyKey);
+        assertThrows(PaymentService.PaymentOverloadedException.class, () -> {
+            paymentService.processPaymentAsync(testRequest, "other-key");
+        });
+        
+        // The rejected request neither took a lock nor reached the gateway
+        verify(redisTemplate, times(1)).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                anyList(),
+                any(), any()
+        );
+        verify(pendingGateway, times(1)).charge(testRequest);
+        assertEquals(1.0, meterRegistry.counter("payments.overloaded").count());
+        
+        // Finishing the first payment frees its slot
+        pending.completeExceptionally(new IllegalStateException("declined"));
+        CompletableFuture<PaymentResponse> next = paymentService.processPaymentAsync(testRequest, "other-key");
+        CompletionException e = assertThrows(CompletionException.class, next::join);
+        assertInstanceOf(PaymentService.PaymentProcessingException.class, e.getCause());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,144 @@
+package com.example.redispatterns.payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"rawtypes", "unchecked"})
+class PaymentStreamIntakeTest {
+
+    private static final String KEY = "order-1";
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private PaymentService paymentService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentStreamIntake intake;
+    private PaymentRequest request;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        intake = new PaymentStreamIntake(redisTemplate, new ObjectMapper(), paymentService, meterRegistry, true, 100);
+        request = new PaymentRequest("customer123", new BigDecimal("100.00"), "credit_card", "Test payment");
+    }
+
+    @Test
+    void submit_NewKey_ShouldQueueWithStatusKeys() {
+        givenEnqueueReturns(List.of(3L));
+
+        PaymentIntakeStatus status = intake.submit(request, KEY);
+
+        assertEquals(PaymentIntakeStatus.State.QUEUED, status.state());
+        assertEquals(1.0, meterRegistry.counter("payments.intake.requests", "result", "accepted").count());
+        verify(redisTemplate).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                eq(List.of("idem:resp:" + KEY, "idem:queued:" + KEY, "payments:intake")),
+                any(), any(), any(), any());
+    }
+
+    @Test
+    void submit_AlreadyQueued_ShouldNotCountAsAccepted() {
+        givenEnqueueReturns(List.of(2L));
+
+        PaymentIntakeStatus status = intake.submit(request, KEY);
+
+        assertEquals(PaymentIntakeStatus.State.QUEUED, status.state());
+        assertEquals(0.0, meterRegistry.counter("payments.intake.requests", "result", "accepted").count());
+    }
+
+    @Test
+    void submit_AlreadyProcessed_ShouldReturnStoredResponse() {
+        PaymentResponse stored = new PaymentResponse("customer123", new BigDecimal("100.00"), "credit_card");
+        givenEnqueueReturns(List.of(1L, stored));
+
+        PaymentIntakeStatus status = intake.submit(request, KEY);
+
+        assertEquals(PaymentIntakeStatus.State.COMPLETED, status.state());
+        assertSame(stored, status.response());
+    }
+
+    @Test
+    void submit_StreamFull_ShouldReject() {
+        givenEnqueueReturns(List.of(0L));
+
+        PaymentIntakeStatus status = intake.submit(request, KEY);
+
+        assertEquals(PaymentIntakeStatus.State.REJECTED, status.state());
+        assertEquals(1.0, meterRegistry.counter("payments.intake.requests", "result", "rejected").count());
+    }
+
+    @Test
+    void submit_ChargedButNotRecorded_ShouldNotQueueAgain() {
+        givenEnqueueReturns(List.of(4L));
+        givenMarker("unrecorded:pay-1");
+
+        PaymentService.PaymentNotRecordedException e = assertThrows(PaymentService.PaymentNotRecordedException.class,
+                () -> intake.submit(request, KEY));
+
+        assertEquals("pay-1", e.getPaymentId());
+        assertEquals(0.0, meterRegistry.counter("payments.intake.requests", "result", "accepted").count());
+    }
+
+    @Test
+    void status_ChargedButNotRecorded_ShouldReportPaymentId() {
+        givenMarker("unrecorded:pay-1");
+
+        PaymentService.PaymentNotRecordedException e = assertThrows(PaymentService.PaymentNotRecordedException.class,
+                () -> intake.status(KEY));
+
+        assertEquals("pay-1", e.getPaymentId());
+    }
+
+    @Test
+    void status_ShouldReportQueuedUntilResponseIsStored() {
+        givenMarker("1700000000000-0");
+
+        assertEquals(PaymentIntakeStatus.State.QUEUED, intake.status(KEY).state());
+
+        givenMarker(null);
+        assertEquals(PaymentIntakeStatus.State.NOT_FOUND, intake.status(KEY).state());
+
+        PaymentResponse stored = new PaymentResponse("customer123", new BigDecimal("100.00"), "credit_card");
+        when(paymentService.findResponse(KEY)).thenReturn(stored);
+        assertSame(stored, intake.status(KEY).response());
+    }
+
+    private void givenMarker(String marker) {
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenReturn(marker == null ? null : marker.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void givenEnqueueReturns(List<?> result) {
+        doReturn(RedisSerializer.json()).when(redisTemplate).getValueSerializer();
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                any(RedisSerializer.class),
+                any(RedisSerializer.class),
+                anyList(),
+                any(), any(), any(), any()
+        )).thenReturn((List) result);
+    }
+}
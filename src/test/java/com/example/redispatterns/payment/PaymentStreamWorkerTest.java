@@ -0,0 +1,220 @@
+package com.example.redispatterns.payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"rawtypes", "unchecked"})
+class PaymentStreamWorkerTest {
+
+    private static final String KEY = "order-1";
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private PaymentService paymentService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentStreamWorker worker;
+    private String requestJson;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        // max-in-flight 1, acquire-timeout 50ms
+        worker = new PaymentStreamWorker(connectionFactory, redisTemplate, objectMapper, paymentService, meterRegistry,
+                true, 1, 10, 1, 1000, 60000, 50);
+        requestJson = objectMapper.writeValueAsString(
+                new PaymentRequest("customer123", new BigDecimal("100.00"), "credit_card", "Test payment"));
+    }
+
+    @Test
+    void parseAutoClaim_ShouldReadCursorAndFieldsAndSkipDeletedEntries() {
+        Object reply = List.of(
+                bytes("1700000000000-3"),
+                List.of(
+                        List.of(bytes("1700000000000-1"), List.of(bytes("key"), bytes(KEY), bytes("request"), bytes("{}"))),
+                        // Redis 6.2: 삭제된 메시지는 필드가 nil
+                        Arrays.asList(bytes("1700000000000-2"), null)),
+                List.of(bytes("1700000000000-0")));
+
+        PaymentStreamWorker.AutoClaimBatch batch = PaymentStreamWorker.parseAutoClaim(reply);
+
+        assertEquals("1700000000000-3", batch.nextCursor());
+        assertEquals(1, batch.records().size());
+        MapRecord<String, String, String> record = batch.records().get(0);
+        assertEquals(RecordId.of("1700000000000-1"), record.getId());
+        assertEquals(Map.of("key", KEY, "request", "{}"), record.getValue());
+    }
+
+    @Test
+    void parseAutoClaim_UnexpectedReply_ShouldEndScan() {
+        PaymentStreamWorker.AutoClaimBatch batch = PaymentStreamWorker.parseAutoClaim(List.of(bytes("0-0")));
+
+        assertEquals("0-0", batch.nextCursor());
+        assertTrue(batch.records().isEmpty());
+    }
+
+    @Test
+    void onMessage_Processed_ShouldAcknowledge() {
+        when(paymentService.processPaymentAsync(any(), eq(KEY)))
+                .thenReturn(CompletableFuture.completedFuture(new PaymentResponse("customer123", new BigDecimal("100.00"), "credit_card")));
+
+        assertTrue(worker.onMessage(record("1-0", KEY), false));
+
+        verifyAcknowledged("1-0", KEY);
+        assertEquals(1.0, messages("processed"));
+    }
+
+    @Test
+    void onMessage_PaymentFailed_ShouldAcknowledgeWithoutRetry() {
+        when(paymentService.processPaymentAsync(any(), eq(KEY))).thenReturn(CompletableFuture.failedFuture(
+                new CompletionException(new PaymentService.PaymentProcessingException("Payment processing failed"))));
+
+        assertTrue(worker.onMessage(record("1-0", KEY), false));
+
+        verifyAcknowledged("1-0", KEY);
+        assertEquals(0.0, messages("retry"));
+    }
+
+    @Test
+    void onMessage_ChargedButNotRecorded_ShouldAcknowledgeAndKeepPaymentIdUnderKey() {
+        when(paymentService.processPaymentAsync(any(), eq(KEY))).thenReturn(CompletableFuture.failedFuture(
+                new CompletionException(new PaymentService.PaymentNotRecordedException("pay-1"))));
+
+        assertTrue(worker.onMessage(record("1-0", KEY), false));
+
+        // intake_not_recorded.lua: ACK하고 접수 표시를 결제 ID로 바꿉니다 (접수 표시를 지우는 intake_ack.lua는 쓰지 않음)
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of(PaymentStreamIntake.STREAM_KEY, PaymentStreamIntake.QUEUED_PREFIX + KEY)),
+                eq(PaymentStreamIntake.CONSUMER_GROUP), eq("1-0"), eq("pay-1"), any());
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any());
+        assertEquals(1.0, messages("not_recorded"));
+        assertEquals(0.0, messages("processed"));
+        assertEquals(0.0, messages("retry"));
+    }
+
+    @Test
+    void onMessage_RedisFailure_ShouldLeaveMessagePendingForReclaim() {
+        when(paymentService.processPaymentAsync(any(), eq(KEY))).thenReturn(CompletableFuture.failedFuture(
+                new CompletionException(new IllegalStateException("redis down"))));
+
+        assertTrue(worker.onMessage(record("1-0", KEY), false));
+
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any());
+        assertEquals(1.0, messages("retry"));
+    }
+
+    @Test
+    void onMessage_InProgress_ShouldLeaveMessagePendingAndReleaseSlot() {
+        when(paymentService.processPaymentAsync(any(), eq(KEY)))
+                .thenThrow(new PaymentService.PaymentInProgressException("A payment with this idempotency key is already being processed"))
+                .thenReturn(CompletableFuture.completedFuture(new PaymentResponse("customer123", new BigDecimal("100.00"), "credit_card")));
+
+        assertTrue(worker.onMessage(record("1-0", KEY), false));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any());
+        assertEquals(1.0, messages("retry"));
+
+        // The only in-flight slot was returned, so the next message is processed
+        assertTrue(worker.onMessage(record("2-0", KEY), false));
+        verifyAcknowledged("2-0", KEY);
+    }
+
+    @Test
+    void onMessage_InFlightFull_ShouldGiveUpAfterTimeoutWithoutAcknowledging() {
+        when(paymentService.processPaymentAsync(any(), eq(KEY))).thenReturn(new CompletableFuture<>());
+
+        assertTrue(worker.onMessage(record("1-0", KEY), false));
+        assertFalse(worker.onMessage(record("2-0", KEY), false));
+
+        verify(paymentService, times(1)).processPaymentAsync(any(), eq(KEY));
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any());
+        assertEquals(1.0, messages("retry"));
+    }
+
+    @Test
+    void reclaimPending_ShouldFollowCursorUntilScanCompletes() {
+        when(paymentService.processPaymentAsync(any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new PaymentResponse("customer123", new BigDecimal("100.00"), "credit_card")));
+        when(redisTemplate.execute(any(RedisCallback.class))).thenReturn(
+                claimReply("5-0", entry("1-0", "order-1")),
+                claimReply("0-0", entry("6-0", "order-2")));
+
+        assertEquals(2, worker.reclaimPending());
+
+        verify(redisTemplate, times(2)).execute(any(RedisCallback.class));
+        verifyAcknowledged("1-0", "order-1");
+        verifyAcknowledged("6-0", "order-2");
+        assertEquals(2.0, messages("reclaimed"));
+    }
+
+    @Test
+    void reclaimPending_InFlightFull_ShouldStopAndLeaveRestPending() {
+        when(paymentService.processPaymentAsync(any(), any())).thenReturn(new CompletableFuture<>());
+        when(redisTemplate.execute(any(RedisCallback.class)))
+                .thenReturn(claimReply("5-0", entry("1-0", "order-1"), entry("2-0", "order-2")));
+
+        assertEquals(1, worker.reclaimPending());
+
+        // The scan stops on the scheduler thread instead of waiting for a slot or reading the next page
+        verify(redisTemplate, times(1)).execute(any(RedisCallback.class));
+        verify(paymentService, times(1)).processPaymentAsync(any(), any());
+    }
+
+    private MapRecord<String, String, String> record(String id, String key) {
+        return StreamRecords.newRecord()
+                .in(PaymentStreamIntake.STREAM_KEY)
+                .withId(RecordId.of(id))
+                .ofMap(Map.of(PaymentStreamIntake.FIELD_KEY, key, PaymentStreamIntake.FIELD_REQUEST, requestJson));
+    }
+
+    private List<Object> entry(String id, String key) {
+        return List.of(bytes(id), List.of(bytes("key"), bytes(key), bytes("request"), bytes(requestJson)));
+    }
+
+    private Object claimReply(String cursor, List<?>... entries) {
+        return List.of(bytes(cursor), List.of(entries), List.of());
+    }
+
+    private void verifyAcknowledged(String id, String key) {
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of(PaymentStreamIntake.STREAM_KEY, PaymentStreamIntake.QUEUED_PREFIX + key)),
+                eq(PaymentStreamIntake.CONSUMER_GROUP), eq(id));
+    }
+
+    private double messages(String result) {
+        return meterRegistry.counter("payments.stream.messages", "result", result).count();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
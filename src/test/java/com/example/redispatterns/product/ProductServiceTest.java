@@ -16,10 +16,12 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.*;
 
 @ExtendWith({MockitoExtension.class, SpringExtension.class})
@@ -38,6 +40,12 @@ public class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductIdFilter productIdFilter;
+
+    @Mock
+    private ProductWriteBehindBuffer writeBehindBuffer;
+
     @InjectMocks
     private ProductService productService;
 
@@ -48,7 +56,8 @@ public class ProductServiceTest {
         testProduct = new Product(1L, "Test Product", new BigDecimal("99.99"), "Test Description");
         
         // Configure the mock repository to return the test product
-        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        lenient().when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
+        lenient().when(productIdFilter.mightContain(1L)).thenReturn(true);
     }
 
     @Test
@@ -67,4 +76,60 @@ public class ProductServiceTest {
         // Verify repository was called only once (for the first call)
         verify(productRepository, times(1)).findById(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getProducts_PartialHit_ShouldLoadOnlyMissingIdsAndCacheThem() {
+        CacheManager cacheManager = new ConcurrentMapCacheManager("product");
+        ProductService service = new ProductService(productRepository, cacheManager, productIdFilter, writeBehindBuffer);
+        Product cached = new Product(2L, "Cached", new BigDecimal("10.00"), "From cache");
+        Product loaded = new Product(3L, "Loaded", new BigDecimal("20.00"), "From repository");
+        cacheManager.getCache("product").put(2L, cached);
+        when(productIdFilter.mightContain(anyLong())).thenReturn(true);
+        when(productRepository.findAllById(List.of(3L, 4L))).thenReturn(List.of(loaded));
+
+        // 요청 순서를 유지하고, 중복은 한 번만, 없는 ID(4)는 결과에서 제외
+        List<Product> result = service.getProducts(List.of(3L, 2L, 4L, 3L));
+
+        assertEquals(List.of(3L, 2L), result.stream().map(Product::getId).toList());
+        assertSame(cached, result.get(1));
+        verify(productRepository, times(1)).findAllById(List.of(3L, 4L));
+        // 조회한 항목은 캐시에 저장되어 다음 요청은 저장소를 거치지 않습니다
+        assertSame(loaded, cacheManager.getCache("product").get(3L).get());
+        service.getProducts(List.of(2L, 3L));
+        verifyNoMoreInteractions(productRepository);
+    }
+
+    @Test
+    void getProducts_IdsRejectedByFilter_ShouldNotReachRepository() {
+        CacheManager cacheManager = new ConcurrentMapCacheManager("product");
+        ProductService service = new ProductService(productRepository, cacheManager, productIdFilter, writeBehindBuffer);
+        when(productIdFilter.mightContain(99L)).thenReturn(false);
+
+        assertEquals(List.of(), service.getProducts(List.of(99L)));
+        verify(productRepository, never()).findAllById(anyCollection());
+    }
+
+    @Test
+    void getProduct_UpdateNotYetFlushed_ShouldReadPendingValueAfterCacheEviction() {
+        ProductWriteBehindBuffer buffer = new ProductWriteBehindBuffer(productRepository, 100, 1000);
+        CacheManager cacheManager = new ConcurrentMapCacheManager("product");
+        ProductService service = new ProductService(productRepository, cacheManager, productIdFilter, buffer);
+        try {
+            Product updated = new Product(1L, "Test Product v2", new BigDecimal("89.99"), "Updated");
+            updated.setCreatedAt(null);
+
+            service.updateProduct(updated);
+            // 생성 시각은 기존 상품의 값을 유지합니다
+            assertEquals(testProduct.getCreatedAt(), updated.getCreatedAt());
+
+            // 캐시 항목이 만료/삭제된 상태에서 플러시 전에 다시 로드해도 수정한 값을 반환합니다
+            cacheManager.getCache("product").clear();
+            assertSame(updated, service.getProduct(1L));
+            assertEquals(List.of(updated), service.getProducts(List.of(1L)));
+            verify(productRepository, times(1)).findById(1L);
+            verify(productRepository, never()).findAllById(anyCollection());
+        } finally {
+            buffer.destroy();
+        }
+    }
+}
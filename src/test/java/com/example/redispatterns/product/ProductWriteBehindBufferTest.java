@@ -0,0 +1,122 @@
+package com.example.redispatterns.product;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductWriteBehindBufferTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new ProductWriteBehindBuffer(productRepository, 100, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_RepeatedUpdates_ShouldBeCoalescedIntoOneWrite() {
+        buffer.enqueue(product(1L, "999.99"));
+        buffer.enqueue(product(1L, "899.99"));
+        buffer.enqueue(product(2L, "199.99"));
+
+        assertEquals(2, buffer.flush());
+
+        ArgumentCaptor<Collection<Product>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(productRepository, times(1)).saveAll(captor.capture());
+        List<Product> saved = List.copyOf(captor.getValue());
+        assertEquals(2, saved.size());
+        assertEquals(new BigDecimal("899.99"), saved.stream()
+                .filter(product -> product.getId() == 1L)
+                .findFirst().orElseThrow().getPrice());
+        assertEquals(1, buffer.getCoalescedCount());
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    void flush_RepositoryFailure_ShouldRequeueBatch() {
+        when(productRepository.saveAll(anyCollection()))
+                .thenThrow(new IllegalStateException("store down"))
+                .thenReturn(List.of());
+
+        buffer.enqueue(product(1L, "999.99"));
+
+        assertEquals(0, buffer.flush());
+        assertEquals(1, buffer.getPendingCount());
+        assertEquals(1, buffer.getFlushFailureCount());
+
+        assertEquals(1, buffer.flush());
+        assertEquals(0, buffer.getPendingCount());
+    }
+
+    @Test
+    void find_ShouldExposeValueWhilePendingAndWhileBeingFlushed() {
+        Product updated = product(1L, "899.99");
+        buffer.enqueue(updated);
+        assertSame(updated, buffer.find(1L));
+
+        // 저장 중에도 조회되어야 저장소의 이전 값이 캐시에 다시 올라가지 않습니다
+        when(productRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            assertSame(updated, buffer.find(1L));
+            return List.of();
+        });
+        buffer.flush();
+
+        assertNull(buffer.find(1L));
+    }
+
+    @Test
+    void find_FailedFlush_ShouldKeepValueVisible() {
+        when(productRepository.saveAll(anyCollection())).thenThrow(new IllegalStateException("store down"));
+        Product updated = product(1L, "899.99");
+        buffer.enqueue(updated);
+
+        buffer.flush();
+
+        assertSame(updated, buffer.find(1L));
+    }
+
+    @Test
+    void enqueue_MaxPendingReached_ShouldRejectNewIdsButCoalesceExistingOnes() {
+        ProductWriteBehindBuffer small = new ProductWriteBehindBuffer(productRepository, 100, 2);
+        try {
+            small.enqueue(product(1L, "1.00"));
+            small.enqueue(product(2L, "2.00"));
+
+            assertThrows(ProductWriteBehindBuffer.WriteBehindFullException.class, () -> small.enqueue(product(3L, "3.00")));
+            // 이미 대기 중인 ID의 변경은 대기 건수를 늘리지 않으므로 받습니다
+            small.enqueue(product(1L, "1.50"));
+
+            assertEquals(new BigDecimal("1.50"), small.find(1L).getPrice());
+            assertNull(small.find(3L));
+            assertEquals(1, small.getRejectedCount());
+        } finally {
+            small.destroy();
+        }
+    }
+
+    private Product product(Long id, String price) {
+        return new Product(id, "Laptop", new BigDecimal(price), "High-performance laptop");
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.redispatterns.ratelimit;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisNoScriptException;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.codec.StringCodec;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CoalescingRateLimiterTest {
+
+    @Mock
+    private LettuceConnectionFactory connectionFactory;
+
+    @Mock
+    private RedisClient redisClient;
+
+    @Mock
+    private StatefulRedisConnection<String, String> connection;
+
+    @Mock
+    private RedisAsyncCommands<String, String> commands;
+
+    private CoalescingRateLimiter coalescingRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        when(connectionFactory.getNativeClient()).thenReturn(redisClient);
+        when(redisClient.connect(StringCodec.UTF8)).thenReturn(connection);
+        when(connection.async()).thenReturn(commands);
+        // max-batch-size 3 -> the third request flushes right away, the scheduled flush comes much later
+        coalescingRateLimiter = new CoalescingRateLimiter(connectionFactory, new SimpleMeterRegistry(), 10_000, 3, 5_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescingRateLimiter.destroy();
+    }
+
+    @Test
+    void acquire_CoalescedRequestsCrossingLimit_ShouldAllowOnlyPositionsWithinLimit() {
+        // 3 earlier hits in this window + INCRBY 3 -> count 6, positions 4, 5, 6 against limit 5
+        when(commands.<List<Object>>evalsha(anyString(), eq(ScriptOutputType.MULTI), aryEq(new String[]{"rl:test:key"}),
+                eq("3"), eq("10"))).thenReturn(completed(List.of(6L, 7000L)));
+
+        CompletableFuture<RateLimitResult> first = coalescingRateLimiter.acquire("test:key", 5, 10);
+        CompletableFuture<RateLimitResult> second = coalescingRateLimiter.acquire("test:key", 5, 10);
+        CompletableFuture<RateLimitResult> third = coalescingRateLimiter.acquire("test:key", 5, 10);
+
+        RateLimitResult fourth = first.join();
+        RateLimitResult fifth = second.join();
+        RateLimitResult sixth = third.join();
+
+        assertTrue(fourth.allowed());
+        assertEquals(1, fourth.remaining());
+        assertTrue(fifth.allowed());
+        assertEquals(0, fifth.remaining());
+        assertEquals(0, fifth.retryAfterMillis());
+        assertFalse(sixth.allowed());
+        assertEquals(0, sixth.remaining());
+        assertEquals(7000, sixth.retryAfterMillis());
+        verify(connection, timeout(1000).times(1)).flushCommands();
+    }
+
+    @Test
+    void acquire_ScriptNotLoaded_ShouldRetryWithEvalOnFlushThread() {
+        RedisFuture<List<Object>> noScript = failed(new RedisNoScriptException("NOSCRIPT No matching script"));
+        when(commands.<List<Object>>evalsha(anyString(), eq(ScriptOutputType.MULTI), aryEq(new String[]{"rl:test:key"}),
+                eq("3"), eq("10"))).thenReturn(noScript);
+        when(commands.<List<Object>>eval(anyString(), eq(ScriptOutputType.MULTI), aryEq(new String[]{"rl:test:key"}),
+                eq("3"), eq("10"))).thenReturn(completed(List.of(3L, 10_000L)));
+
+        List<CompletableFuture<RateLimitResult>> futures = List.of(
+                coalescingRateLimiter.acquire("test:key", 5, 10),
+                coalescingRateLimiter.acquire("test:key", 5, 10),
+                coalescingRateLimiter.acquire("test:key", 5, 10));
+
+        for (CompletableFuture<RateLimitResult> future : futures) {
+            assertTrue(future.join().allowed());
+        }
+        assertEquals(4, futures.get(0).join().remaining());
+        assertEquals(2, futures.get(2).join().remaining());
+        // evalsha pipeline flush + EVAL retry flush
+        verify(connection, timeout(1000).times(2)).flushCommands();
+    }
+
+    private static <T> RedisFuture<T> completed(T value) {
+        TestRedisFuture<T> future = new TestRedisFuture<>();
+        future.complete(value);
+        return future;
+    }
+
+    private static <T> RedisFuture<T> failed(Throwable error) {
+        TestRedisFuture<T> future = new TestRedisFuture<>();
+        future.completeExceptionally(error);
+        return future;
+    }
+
+    private static final class TestRedisFuture<T> extends CompletableFuture<T> implements RedisFuture<T> {
+
+        @Override
+        public String getError() {
+            return isCompletedExceptionally() ? "error" : null;
+        }
+
+        @Override
+        public boolean await(long timeout, TimeUnit unit) {
+            return isDone();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.redispatterns.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HeavyHitterDetectorTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Test
+    void recordAndCheckDenied_ShouldKeepHotClientInTopK() {
+        HeavyHitterDetector detector = detector(false, 10_000);
+
+        for (int i = 0; i < 500; i++) {
+            detector.recordAndCheckDenied(request("10.0.0.1", "/payments"));
+            if (i < 300) {
+                detector.recordAndCheckDenied(request("10.0.1." + i, "/payments"));
+            }
+        }
+
+        Map<String, Long> candidates = detector.localCandidates();
+        assertTrue(candidates.size() <= 10);
+        assertTrue(candidates.get("10.0.0.1:/payments") >= 500);
+    }
+
+    @Test
+    void recordAndCheckDenied_SameRequest_ShouldCountOnce() {
+        HeavyHitterDetector detector = detector(false, 10_000);
+        MockHttpServletRequest request = request("10.0.0.1", "/payments");
+
+        detector.recordAndCheckDenied(request);
+        detector.recordAndCheckDenied(request);
+
+        assertEquals(1L, detector.localCandidates().get("10.0.0.1:/payments"));
+    }
+
+    @Test
+    void recordAndCheckDenied_OverThreshold_ShouldShedLocally() {
+        HeavyHitterDetector detector = detector(true, 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertFalse(detector.recordAndCheckDenied(request("10.0.0.1", "/payments")));
+        }
+
+        assertTrue(detector.recordAndCheckDenied(request("10.0.0.1", "/payments")));
+        assertFalse(detector.recordAndCheckDenied(request("10.0.0.2", "/payments")));
+        assertTrue(detector.deniedKeys().contains("10.0.0.1:/payments"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sync_ConcurrentRecording_ShouldNotLoseCounts() throws InterruptedException {
+        LongAdder merged = new LongAdder();
+        RedisOperations<String, String> operations = mock(RedisOperations.class);
+        ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+        when(operations.opsForZSet()).thenReturn(zSet);
+        when(zSet.incrementScore(anyString(), anyString(), anyDouble())).thenAnswer(invocation -> {
+            merged.add((long) (double) invocation.getArgument(2, Double.class));
+            return 0.0;
+        });
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, SessionCallback.class).execute(operations);
+            return List.of();
+        });
+        HeavyHitterDetector detector = detector(false, 10_000);
+
+        // a single writer keeps the sketch estimate exact, so any difference comes from the swap in sync()
+        int requests = 100_000;
+        AtomicBoolean done = new AtomicBoolean();
+        Thread syncer = new Thread(() -> {
+            while (!done.get()) {
+                detector.sync();
+            }
+        });
+        syncer.start();
+        for (int i = 0; i < requests; i++) {
+            detector.recordAndCheckDenied(request("10.0.0.1", "/payments"));
+        }
+        done.set(true);
+        syncer.join();
+        detector.sync();
+
+        assertEquals(requests, merged.sum());
+    }
+
+    private HeavyHitterDetector detector(boolean denyEnabled, long denyThreshold) {
+        return new HeavyHitterDetector(redisTemplate, new SimpleMeterRegistry(), true, 10, 60_000,
+                denyEnabled, denyThreshold, 60_000);
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
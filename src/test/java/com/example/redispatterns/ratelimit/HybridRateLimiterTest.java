@@ -0,0 +1,162 @@
+package com.example.redispatterns.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HybridRateLimiterTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private HybridRateLimiter hybridRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        // limit 100, chunk 10% -> 10 tokens per borrow
+        hybridRateLimiter = new HybridRateLimiter(redisTemplate, new SimpleMeterRegistry(), circuitBreaker(), 10, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hybridRateLimiter.destroy();
+    }
+
+    @Test
+    void tryAcquire_ShouldServeBorrowedChunkLocally() {
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        )).thenReturn(List.of(10L, 10L));
+
+        // First call borrows a chunk, the following ones are served from the local bucket
+        for (int i = 0; i < 7; i++) {
+            assertTrue(hybridRateLimiter.tryAcquire("test:key", 100, 3600));
+        }
+
+        verify(redisTemplate, times(1)).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                eq("100"),
+                eq("10"),
+                any()
+        );
+    }
+
+    @Test
+    void tryAcquire_GlobalBudgetExhausted_ShouldDenyWithoutFurtherRedisCalls() {
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        )).thenReturn(List.of(0L, 100L));
+
+        assertFalse(hybridRateLimiter.tryAcquire("test:key", 100, 3600));
+        assertFalse(hybridRateLimiter.tryAcquire("test:key", 100, 3600));
+
+        verify(redisTemplate, times(1)).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        );
+    }
+
+    @Test
+    void reconcile_BucketIdleLessThanHalfWindow_ShouldKeepBorrowedTokens() {
+        // sync-interval 0 -> idle-return is tied to the window alone (half of 3600s)
+        HybridRateLimiter limiter = new HybridRateLimiter(redisTemplate, new SimpleMeterRegistry(), circuitBreaker(), 10, 0);
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        )).thenReturn(List.of(10L, 10L));
+
+        assertTrue(limiter.tryAcquire("test:key", 100, 3600));
+        limiter.reconcile();
+        assertTrue(limiter.tryAcquire("test:key", 100, 3600));
+
+        assertEquals(1, limiter.getBucketCount());
+        verify(redisTemplate, times(1)).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        );
+        limiter.destroy();
+    }
+
+    @Test
+    void reconcile_IdleBucket_ShouldBeRetiredAndNextRequestShouldBorrowIntoNewBucket() throws InterruptedException {
+        HybridRateLimiter limiter = new HybridRateLimiter(redisTemplate, new SimpleMeterRegistry(), circuitBreaker(), 10, 0);
+        lenient().when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        )).thenReturn(List.of(10L, 10L));
+
+        assertTrue(limiter.tryAcquire("test:key", 100, 1));
+        Thread.sleep(600);
+        limiter.reconcile();
+        assertEquals(0, limiter.getBucketCount());
+
+        assertTrue(limiter.tryAcquire("test:key", 100, 1));
+
+        assertEquals(1, limiter.getBucketCount());
+        verify(redisTemplate, times(2)).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        );
+        limiter.destroy();
+    }
+
+    @Test
+    void check_ShouldReportGlobalRemainingFromLastBorrowRatherThanLocalTokens() {
+        // another node already borrowed 40 -> this borrow brings the total to 50
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        )).thenReturn(List.of(10L, 50L));
+
+        RateLimitResult first = hybridRateLimiter.check("test:key", 100, 3600);
+        RateLimitResult second = hybridRateLimiter.check("test:key", 100, 3600);
+
+        // 50 not yet borrowed + 9 / 8 local tokens
+        assertEquals(59, first.remaining());
+        assertEquals(58, second.remaining());
+    }
+
+    private static RateLimitCircuitBreaker circuitBreaker() {
+        return new RateLimitCircuitBreaker(new SimpleMeterRegistry(), 50, 50, 20, 10, 5000, 5, 5000);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.redispatterns.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitCircuitBreakerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void slowCalls_ShouldOpenCircuitAndRejectCalls() {
+        RateLimitCircuitBreaker breaker = new RateLimitCircuitBreaker(meterRegistry, 50, 50, 4, 4, 60_000, 1, 60_000);
+
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(5));
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(80));
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(5));
+        assertEquals(RateLimitCircuitBreaker.State.CLOSED, breaker.getState());
+
+        // 2 slow calls out of 4 -> 50%
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(120));
+
+        assertEquals(RateLimitCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(1.0, meterRegistry.counter("ratelimit.circuit.transitions", "from", "closed", "to", "open").count());
+    }
+
+    @Test
+    void halfOpen_SuccessfulTrialCalls_ShouldCloseCircuit() {
+        RateLimitCircuitBreaker breaker = new RateLimitCircuitBreaker(meterRegistry, 50, 50, 2, 2, 0, 2, 60_000);
+        breaker.onError();
+        breaker.onError();
+        assertEquals(RateLimitCircuitBreaker.State.OPEN, breaker.getState());
+
+        // open-duration 0 -> the next call moves to HALF_OPEN and only two trial calls are permitted
+        assertTrue(breaker.tryAcquirePermission());
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+        assertEquals(RateLimitCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(1));
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(RateLimitCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquirePermission());
+        assertEquals(1.0, meterRegistry.counter("ratelimit.circuit.transitions", "from", "half_open", "to", "closed").count());
+    }
+
+    @Test
+    void halfOpen_FailedTrialCall_ShouldReopenCircuit() {
+        RateLimitCircuitBreaker breaker = new RateLimitCircuitBreaker(meterRegistry, 50, 50, 2, 2, 0, 2, 60_000);
+        breaker.onError();
+        breaker.onError();
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onError();
+
+        assertEquals(RateLimitCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(1.0, meterRegistry.counter("ratelimit.circuit.transitions", "from", "half_open", "to", "open").count());
+    }
+
+    @Test
+    void halfOpen_TrialResultsNeverReported_ShouldRefillPermitsAfterTimeout() throws InterruptedException {
+        RateLimitCircuitBreaker breaker = new RateLimitCircuitBreaker(meterRegistry, 50, 50, 2, 2, 0, 1, 50);
+        breaker.onError();
+        breaker.onError();
+
+        // the only trial permit is taken but its caller never reports back
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission());
+
+        Thread.sleep(80);
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(RateLimitCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
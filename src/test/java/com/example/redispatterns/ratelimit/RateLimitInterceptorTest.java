@@ -0,0 +1,137 @@
+package com.example.redispatterns.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RateLimitInterceptorTest {
+
+    @Mock
+    private RateLimitService rateLimitService;
+
+    @Mock
+    private ConcurrencyLimitService concurrencyLimitService;
+    
+    @Mock
+    private RateLimitPolicyRegistry policyRegistry;
+    
+    @Mock
+    private HeavyHitterDetector heavyHitterDetector;
+
+    private RateLimitInterceptor interceptor;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new RateLimitInterceptor(rateLimitService, concurrencyLimitService, policyRegistry, heavyHitterDetector);
+        request = new MockHttpServletRequest("POST", "/payments");
+        request.setRemoteAddr("10.0.0.1");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void preHandle_Allowed_ShouldWriteRateLimitHeaders() throws Exception {
+        givenPolicy(0);
+        when(rateLimitService.check("payments:10.0.0.1", 20, 10, RateLimitMode.REDIS, RateLimitAlgorithmType.GCRA))
+                .thenReturn(new RateLimitResult(true, 20, 17, 1500, 0));
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+
+        assertEquals("20", response.getHeader("RateLimit-Limit"));
+        assertEquals("17", response.getHeader("RateLimit-Remaining"));
+        assertEquals("2", response.getHeader("RateLimit-Reset"));
+        assertNull(response.getHeader("Retry-After"));
+    }
+
+    @Test
+    void preHandle_Denied_ShouldReturn429WithRetryAfter() throws Exception {
+        givenPolicy(0);
+        when(rateLimitService.check("payments:10.0.0.1", 20, 10, RateLimitMode.REDIS, RateLimitAlgorithmType.GCRA))
+                .thenReturn(new RateLimitResult(false, 20, 0, 10000, 499));
+
+        assertFalse(interceptor.preHandle(request, response, new Object()));
+
+        assertEquals(429, response.getStatus());
+        assertEquals("0", response.getHeader("RateLimit-Remaining"));
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertEquals("{\"error\":\"Rate limit exceeded. Please try again later.\"}", response.getContentAsString());
+    }
+
+    @Test
+    void preHandle_ConcurrencyLimited_ShouldReleaseLeaseAfterCompletion() throws Exception {
+        givenPolicy(2);
+        when(rateLimitService.check("payments:10.0.0.1", 20, 10, RateLimitMode.REDIS, RateLimitAlgorithmType.GCRA))
+                .thenReturn(new RateLimitResult(true, 20, 19, 10000, 0));
+        ConcurrencyLimitService.ConcurrencyLease lease =
+                new ConcurrencyLimitService.ConcurrencyLease("payments:10.0.0.1", "lease-1", false);
+        when(concurrencyLimitService.tryAcquire("payments:10.0.0.1", 2)).thenReturn(lease);
+
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        // Re-dispatch after async processing must not check or acquire again
+        assertTrue(interceptor.preHandle(request, response, new Object()));
+        interceptor.afterCompletion(request, response, new Object(), null);
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        verify(rateLimitService, times(1)).check("payments:10.0.0.1", 20, 10, RateLimitMode.REDIS, RateLimitAlgorithmType.GCRA);
+        verify(concurrencyLimitService, times(1)).release(lease);
+    }
+
+    @Test
+    void preHandle_ConcurrencyLimitReached_ShouldReturn429WithoutConsumingRateLimitToken() throws Exception {
+        givenPolicy(2);
+        when(concurrencyLimitService.tryAcquire("payments:10.0.0.1", 2)).thenReturn(null);
+
+        assertFalse(interceptor.preHandle(request, response, new Object()));
+
+        assertEquals(429, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        verify(concurrencyLimitService, never()).release(any());
+        verifyNoInteractions(rateLimitService);
+    }
+
+    @Test
+    void preHandle_RateLimitedAfterLeaseAcquired_ShouldReleaseLeaseImmediately() throws Exception {
+        givenPolicy(2);
+        ConcurrencyLimitService.ConcurrencyLease lease =
+                new ConcurrencyLimitService.ConcurrencyLease("payments:10.0.0.1", "lease-1", false);
+        when(concurrencyLimitService.tryAcquire("payments:10.0.0.1", 2)).thenReturn(lease);
+        when(rateLimitService.check("payments:10.0.0.1", 20, 10, RateLimitMode.REDIS, RateLimitAlgorithmType.GCRA))
+                .thenReturn(new RateLimitResult(false, 20, 0, 10000, 2000));
+
+        assertFalse(interceptor.preHandle(request, response, new Object()));
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        verify(concurrencyLimitService, times(1)).release(lease);
+    }
+
+    @Test
+    void preHandle_DeniedHeavyHitter_ShouldRejectBeforeRedis() throws Exception {
+        when(heavyHitterDetector.recordAndCheckDenied(request)).thenReturn(true);
+        when(heavyHitterDetector.denyRetryAfterSeconds()).thenReturn(60L);
+
+        assertFalse(interceptor.preHandle(request, response, new Object()));
+
+        assertEquals(429, response.getStatus());
+        assertEquals("60", response.getHeader("Retry-After"));
+        verifyNoInteractions(rateLimitService, concurrencyLimitService, policyRegistry);
+    }
+
+    private void givenPolicy(int maxConcurrent) {
+        RateLimitPolicy policy = new RateLimitPolicy("payments", RateLimitMode.REDIS, RateLimitAlgorithmType.GCRA,
+                RateLimitKeyType.IP, null, 20, 10, Map.of(), maxConcurrent, 0, 0);
+        when(policyRegistry.resolve("POST", "/payments")).thenReturn(policy);
+    }
+}
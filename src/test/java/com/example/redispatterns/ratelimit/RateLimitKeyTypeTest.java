@@ -0,0 +1,58 @@
+package com.example.redispatterns.ratelimit;
+
+import com.example.redispatterns.config.RateLimitProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitKeyTypeTest {
+
+    @Test
+    void apiKey_RegisteredKey_ShouldBeIdentifiedByItsHash() {
+        MockHttpServletRequest request = request();
+        request.addHeader("X-API-Key", "premium-key");
+
+        String identity = RateLimitKeyType.API_KEY.extract(request, null, Set.of(RateLimitKeyType.hash("premium-key")));
+
+        assertEquals(RateLimitKeyType.hash("premium-key"), identity);
+        assertFalse(identity.contains("premium-key"));
+    }
+
+    @Test
+    void apiKey_UnregisteredKey_ShouldFallBackToClientIp() {
+        MockHttpServletRequest request = request();
+        request.addHeader("X-API-Key", "rotated-key-1");
+
+        assertEquals("ip:10.0.0.7", RateLimitKeyType.API_KEY.extract(request, null, Set.of(RateLimitKeyType.hash("premium-key"))));
+    }
+
+    @Test
+    void customerId_HeaderWithoutAuthenticatedPrincipal_ShouldFallBackToClientIp() {
+        MockHttpServletRequest request = request();
+        request.addHeader("X-Customer-Id", "tenant-a");
+
+        assertEquals("ip:10.0.0.7", RateLimitKeyType.CUSTOMER_ID.extract(request, null, Set.of("tenant-a")));
+
+        request.setUserPrincipal(() -> "tenant-b");
+        assertEquals("tenant-b", RateLimitKeyType.CUSTOMER_ID.extract(request, null, Set.of("tenant-a")));
+    }
+
+    @Test
+    void derivedName_UnnamedPolicy_ShouldNotDependOnPolicyOrder() {
+        RateLimitProperties.Policy policy = new RateLimitProperties.Policy();
+        policy.setPatterns(List.of("/payments/**"));
+        policy.setMethods(List.of("POST"));
+
+        assertEquals("POST /payments/**", RateLimitPolicyRegistry.derivedName(policy));
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/payments");
+        request.setRemoteAddr("10.0.0.7");
+        return request;
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.redispatterns.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitPolicyMatcherTest {
+
+    private final RateLimitPolicy paymentsPost = policy("payments-post", 5);
+    private final RateLimitPolicy payments = policy("payments", 20);
+    private final RateLimitPolicy products = policy("products", 100);
+    private final RateLimitPolicy fallback = policy("fallback", 1000);
+
+    private final RateLimitPolicyMatcher matcher = new RateLimitPolicyMatcher(List.of(
+            new RateLimitPolicyMatcher.Definition(paymentsPost, List.of("/payments"), List.of("post")),
+            new RateLimitPolicyMatcher.Definition(payments, List.of("/payments/**"), List.of()),
+            new RateLimitPolicyMatcher.Definition(products, List.of("/products/{id}"), List.of("GET")),
+            new RateLimitPolicyMatcher.Definition(fallback, List.of("/**"), List.of())
+    ));
+
+    @Test
+    void match_ShouldPreferEarlierPolicy() {
+        assertSame(paymentsPost, matcher.match("POST", "/payments"));
+        assertSame(payments, matcher.match("GET", "/payments"));
+        assertSame(payments, matcher.match("POST", "/payments/123"));
+    }
+
+    @Test
+    void match_ShouldRespectHttpMethods() {
+        assertSame(products, matcher.match("GET", "/products/1"));
+        assertSame(fallback, matcher.match("PUT", "/products/1"));
+    }
+
+    @Test
+    void match_NoPolicy_ShouldReturnNull() {
+        RateLimitPolicyMatcher paymentsOnly = new RateLimitPolicyMatcher(List.of(
+                new RateLimitPolicyMatcher.Definition(payments, List.of("/payments/**"), List.of())
+        ));
+
+        assertNull(paymentsOnly.match("GET", "/products/1"));
+        // Cached negative result should stay null
+        assertNull(paymentsOnly.match("GET", "/products/1"));
+    }
+
+    @Test
+    void limitFor_ShouldApplyTenantOverride() {
+        RateLimitPolicy policy = new RateLimitPolicy("api", RateLimitMode.REDIS, RateLimitAlgorithmType.GCRA,
+                RateLimitKeyType.API_KEY, null, 20, 10, Map.of("premium-key", 200), 0, 0, 0);
+
+        assertEquals(200, policy.limitFor("premium-key"));
+        assertEquals(20, policy.limitFor("basic-key"));
+        assertEquals("api:basic-key", policy.bucketKey("basic-key"));
+    }
+
+    private static RateLimitPolicy policy(String name, int limit) {
+        return new RateLimitPolicy(name, RateLimitMode.REDIS, RateLimitAlgorithmType.FIXED_WINDOW,
+                RateLimitKeyType.IP, null, limit, 10, Map.of(), 0, 0, 0);
+    }
+}
@@ -1,16 +1,21 @@
 package com.example.redispatterns.ratelimit;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.core.script.RedisScript;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -21,22 +26,33 @@ public class RateLimitServiceTest {
     @Mock
     private RedisTemplate<String, Object> redisTemplate;
     
+    @Mock
+    private HybridRateLimiter hybridRateLimiter;
+    
+    @Mock
+    private CoalescingRateLimiter coalescingRateLimiter;
+    
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimitCircuitBreaker circuitBreaker;
     private RateLimitService rateLimitService;
     
     @BeforeEach
     void setUp() {
-        rateLimitService = new RateLimitService(redisTemplate);
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new RateLimitCircuitBreaker(meterRegistry, 50, 50, 4, 2, 60_000, 1, 60_000);
+        rateLimitService = new RateLimitService(redisTemplate, hybridRateLimiter, coalescingRateLimiter, circuitBreaker,
+                new LocalFallbackRateLimiter(1), meterRegistry);
     }
     
     @Test
     void isAllowed_UnderLimit_ShouldReturnTrue() {
         // Mock Redis script execution to return a count under the limit
         when(redisTemplate.execute(
-                ArgumentMatchers.<RedisScript<Long>>any(),
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
                 ArgumentMatchers.<List<String>>any(),
                 any(),
                 any()
-        )).thenReturn(5L);
+        )).thenReturn(List.of(1L, 5L, 60000L, 0L));
         
         // Execute
         boolean allowed = rateLimitService.isAllowed("test:key", 10, 60);
@@ -57,11 +73,11 @@ public class RateLimitServiceTest {
     void isAllowed_AtLimit_ShouldReturnTrue() {
         // Mock Redis script execution to return a count at the limit
         when(redisTemplate.execute(
-                ArgumentMatchers.<RedisScript<Long>>any(),
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
                 ArgumentMatchers.<List<String>>any(),
                 any(),
                 any()
-        )).thenReturn(10L);
+        )).thenReturn(List.of(1L, 0L, 60000L, 0L));
         
         // Execute
         boolean allowed = rateLimitService.isAllowed("test:key", 10, 60);
@@ -74,24 +90,25 @@ public class RateLimitServiceTest {
     void isAllowed_OverLimit_ShouldReturnFalse() {
         // Mock Redis script execution to return a count over the limit
         when(redisTemplate.execute(
-                ArgumentMatchers.<RedisScript<Long>>any(),
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
                 ArgumentMatchers.<List<String>>any(),
                 any(),
                 any()
-        )).thenReturn(11L);
+        )).thenReturn(List.of(0L, 0L, 60000L, 60000L));
         
         // Execute
         boolean allowed = rateLimitService.isAllowed("test:key", 10, 60);
         
         // Verify
         assertFalse(allowed);
+        assertEquals(1.0, meterRegistry.counter("ratelimit.requests", "result", "denied").count());
     }
     
     @Test
     void isAllowed_RedisError_ShouldReturnTrue() {
         // Mock Redis script execution to throw an exception
         when(redisTemplate.execute(
-                ArgumentMatchers.<RedisScript<Long>>any(),
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
                 ArgumentMatchers.<List<String>>any(),
                 any(),
                 any()
@@ -100,8 +117,9 @@ public class RateLimitServiceTest {
         // Execute
         boolean allowed = rateLimitService.isAllowed("test:key", 10, 60);
         
-        // Verify - should allow the request in case of error
+        // Verify - should fall back to the local limiter in case of error
         assertTrue(allowed);
+        assertEquals(1.0, meterRegistry.counter("ratelimit.requests", "result", "error").count());
     }
     
     @Test
@@ -117,4 +135,184 @@ public class RateLimitServiceTest {
                 eq(10)
         );
     }
-}
\ No newline at end of file
+    
+    @Test
+    void isAllowed_HybridMode_ShouldUseLocalBucketWithoutScript() {
+        when(hybridRateLimiter.check("test:key", 10, 60)).thenReturn(new RateLimitResult(true, 10, 9, 30000, 0));
+        
+        assertTrue(rateLimitService.isAllowed("test:key", 10, 60, RateLimitMode.HYBRID, RateLimitAlgorithmType.FIXED_WINDOW));
+        
+        verify(redisTemplate, never()).execute(
+                ArgumentMatchers.<RedisScript<Long>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any()
+        );
+    }
+    
+    @Test
+    void isAllowed_HybridModeRedisError_ShouldReturnTrue() {
+        when(hybridRateLimiter.check("test:key", 10, 60)).thenThrow(new RuntimeException("Redis error"));
+        
+        assertTrue(rateLimitService.isAllowed("test:key", 10, 60, RateLimitMode.HYBRID, RateLimitAlgorithmType.FIXED_WINDOW));
+    }
+    
+    @Test
+    void check_HybridMode_ShouldMoveCircuitFromOpenThroughHalfOpenToClosedOnBorrowOutcomes() {
+        StringRedisTemplate stringRedisTemplate = mock(StringRedisTemplate.class);
+        // open-duration 0 and a single trial call
+        RateLimitCircuitBreaker breaker = new RateLimitCircuitBreaker(meterRegistry, 50, 50, 2, 2, 0, 1, 60_000);
+        HybridRateLimiter hybrid = new HybridRateLimiter(stringRedisTemplate, meterRegistry, breaker, 10, 60_000);
+        RateLimitService service = new RateLimitService(redisTemplate, hybrid, coalescingRateLimiter, breaker,
+                new LocalFallbackRateLimiter(1), meterRegistry);
+        when(stringRedisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        )).thenThrow(new RedisConnectionFailureException("down"))
+                .thenThrow(new RedisConnectionFailureException("down"))
+                .thenReturn(List.of(10L, 10L));
+        
+        // two failed borrows open the circuit, both requests are judged by the local fallback
+        assertTrue(service.check("test:key", 100, 3600, RateLimitMode.HYBRID, RateLimitAlgorithmType.FIXED_WINDOW).allowed());
+        assertTrue(service.check("test:key", 100, 3600, RateLimitMode.HYBRID, RateLimitAlgorithmType.FIXED_WINDOW).allowed());
+        assertEquals(RateLimitCircuitBreaker.State.OPEN, breaker.getState());
+        
+        // the next borrow is the half-open trial call, its success closes the circuit
+        RateLimitResult result = service.check("test:key", 100, 3600, RateLimitMode.HYBRID, RateLimitAlgorithmType.FIXED_WINDOW);
+        assertTrue(result.allowed());
+        assertEquals(RateLimitCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1.0, meterRegistry.counter("ratelimit.circuit.transitions", "from", "open", "to", "half_open").count());
+        assertEquals(1.0, meterRegistry.counter("ratelimit.circuit.transitions", "from", "half_open", "to", "closed").count());
+        
+        // the borrowed chunk is served locally without further Redis calls or permits
+        for (int i = 0; i < 5; i++) {
+            assertTrue(service.check("test:key", 100, 3600, RateLimitMode.HYBRID, RateLimitAlgorithmType.FIXED_WINDOW).allowed());
+        }
+        verify(stringRedisTemplate, times(3)).execute(
+                ArgumentMatchers.<RedisScript<List>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        );
+        hybrid.destroy();
+    }
+    
+    @Test
+    void check_Gcra_ShouldReturnRemainingAndResetFromSameCall() {
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any()
+        )).thenReturn(List.of(0L, 0L, 3000L, 500L));
+        
+        RateLimitResult result = rateLimitService.check("test:key", 20, 10, RateLimitAlgorithmType.GCRA);
+        
+        assertFalse(result.allowed());
+        assertEquals(20, result.limit());
+        assertEquals(0, result.remaining());
+        assertEquals(3000, result.resetMillis());
+        assertEquals(500, result.retryAfterMillis());
+        verify(redisTemplate).execute(
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
+                eq(Collections.singletonList("rl:gcra:test:key")),
+                eq(20),
+                eq(10)
+        );
+    }
+    
+    @Test
+    void check_CircuitOpen_ShouldUseLocalLimiterWithoutRedis() {
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any()
+        )).thenThrow(new RuntimeException("Command timed out"));
+        
+        // Two failures out of two calls open the circuit
+        rateLimitService.check("test:key", 3, 60, RateLimitAlgorithmType.FIXED_WINDOW);
+        rateLimitService.check("test:key", 3, 60, RateLimitAlgorithmType.FIXED_WINDOW);
+        assertEquals(RateLimitCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        
+        // The local limiter has already counted two requests, so only one more is allowed
+        assertTrue(rateLimitService.check("test:key", 3, 60, RateLimitAlgorithmType.FIXED_WINDOW).allowed());
+        assertFalse(rateLimitService.check("test:key", 3, 60, RateLimitAlgorithmType.FIXED_WINDOW).allowed());
+        
+        verify(redisTemplate, times(2)).execute(
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any()
+        );
+        assertEquals(2.0, meterRegistry.counter("ratelimit.requests", "result", "fallback").count());
+    }
+    
+    @Test
+    void checkAsync_ShouldCompleteWithCoalescedResult() {
+        when(coalescingRateLimiter.acquire("test:key", 10, 60))
+                .thenReturn(CompletableFuture.completedFuture(new RateLimitResult(false, 10, 0, 4000, 4000)));
+        
+        RateLimitResult result = rateLimitService.checkAsync("test:key", 10, 60).join();
+        
+        assertFalse(result.allowed());
+        assertEquals(4000, result.retryAfterMillis());
+        assertEquals(1.0, meterRegistry.counter("ratelimit.requests", "result", "denied").count());
+    }
+    
+    @Test
+    void isAllowedAsync_Timeout_ShouldFallBackToLocalLimiter() {
+        when(coalescingRateLimiter.acquire("test:key", 10, 60))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException()));
+        
+        assertTrue(rateLimitService.isAllowedAsync("test:key", 10, 60).join());
+        assertEquals(1.0, meterRegistry.counter("ratelimit.requests", "result", "error").count());
+    }
+    
+    @Test
+    void reserve_WithinMaxDelay_ShouldReturnDelayInsteadOfDenying() {
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        )).thenReturn(List.of(1L, 0L, 1500L, 250L));
+        
+        ThrottleReservation reservation = rateLimitService.reserve("test:key", 20, 10, 1000);
+        
+        assertTrue(reservation.result().allowed());
+        assertEquals(0, reservation.result().retryAfterMillis());
+        assertEquals(250, reservation.delayMillis());
+        verify(redisTemplate).execute(
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
+                eq(Collections.singletonList("rl:gcra:test:key")),
+                eq(20),
+                eq(10),
+                eq(1000L)
+        );
+        assertEquals(1.0, meterRegistry.counter("ratelimit.requests", "result", "throttled").count());
+    }
+    
+    @Test
+    void reserve_BeyondMaxDelay_ShouldDeny() {
+        when(redisTemplate.execute(
+                ArgumentMatchers.<RedisScript<List<Long>>>any(),
+                ArgumentMatchers.<List<String>>any(),
+                any(),
+                any(),
+                any()
+        )).thenReturn(List.of(0L, 0L, 3000L, 700L));
+        
+        ThrottleReservation reservation = rateLimitService.reserve("test:key", 20, 10, 1000);
+        
+        assertFalse(reservation.result().allowed());
+        assertEquals(700, reservation.result().retryAfterMillis());
+        assertEquals(0, reservation.delayMillis());
+        assertEquals(1.0, meterRegistry.counter("ratelimit.requests", "result", "denied").count());
+    }
+}